@@ -0,0 +1,46 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.RailwayStation3Application;
+import com.railway.RailwayStation3.index.DirectionRanking;
+import com.railway.RailwayStation3.index.TimetableIndexLoader;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Запускает контекст приложения для бенчмарков.
+ * Используется профиль "bench" с отдельной базой PostgreSQL (см. application-bench.properties).
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Поднимает контекст приложения без веб-сервера.
+     *
+     * @return запущенный контекст
+     */
+    static ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(RailwayStation3Application.class)
+                .profiles("bench")
+                .web(WebApplicationType.NONE)
+                .run();
+    }
+
+    /**
+     * Поднимает контекст и заполняет расписание синтетическими поездами.
+     * Структуры в памяти перестраиваются после вставки, как при обычном старте.
+     *
+     * @param rows количество поездов
+     * @return запущенный контекст
+     */
+    static ConfigurableApplicationContext startWithTrains(int rows) {
+        ConfigurableApplicationContext context = start();
+        SyntheticTimetable.seed(context.getBean(JdbcTemplate.class), rows);
+        context.getBean(TimetableIndexLoader.class).load();
+        context.getBean(DirectionRanking.class).reconcile();
+        return context;
+    }
+}
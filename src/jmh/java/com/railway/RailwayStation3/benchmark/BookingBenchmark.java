@@ -0,0 +1,93 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.booking.BookingEngine;
+import com.railway.RailwayStation3.booking.SeatMap;
+import com.railway.RailwayStation3.model.Booking;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Бронирование одного «горячего» поезда из многих потоков.
+ * Все потоки бронируют места одного поезда; когда он распродан, потоки переходят к следующему.
+ * Работает на базе бенчмарков PostgreSQL с синтетическим расписанием.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class BookingBenchmark {
+    private static final int CARS = 100;
+    private static final int SEATS_PER_CAR = 256;
+
+    @Param({"10000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private BookingEngine bookingEngine;
+    private List<Long> trainIds;
+    private final AtomicInteger hotTrain = new AtomicInteger();
+    private final AtomicReference<SeatMap> seatMap = new AtomicReference<>();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWithTrains(rows);
+        bookingEngine = context.getBean(BookingEngine.class);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        trainIds = jdbcTemplate.queryForList("SELECT id FROM trains ORDER BY id", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO seat_inventories (train_id, cars, seats_per_car) VALUES (?, ?, ?)",
+                trainIds.stream().map(id -> new Object[]{id, CARS, SEATS_PER_CAR}).toList());
+        seatMap.set(newSeatMap());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Полный путь: занятие места в памяти, пакетная запись в базу и ожидание подтверждения.
+     */
+    @Benchmark
+    public Booking bookAnySeat() {
+        while (true) {
+            int index = hotTrain.get();
+            if (index >= trainIds.size()) {
+                throw new IllegalStateException("Все поезда распроданы, увеличьте rows");
+            }
+            try {
+                return bookingEngine.book(trainIds.get(index), null, null, "bench");
+            } catch (BookingEngine.SeatUnavailableException e) {
+                hotTrain.compareAndSet(index, index + 1);
+            }
+        }
+    }
+
+    /**
+     * Только занятие места в памяти: предел пропускной способности без записи в базу.
+     */
+    @Benchmark
+    public int claimInMemory() {
+        while (true) {
+            SeatMap current = seatMap.get();
+            int position = current.claimAny();
+            if (position >= 0) {
+                return position;
+            }
+            seatMap.compareAndSet(current, newSeatMap());
+        }
+    }
+
+    private static SeatMap newSeatMap() {
+        return new SeatMap(0L, CARS, SEATS_PER_CAR, LocalDateTime.now().plusDays(1));
+    }
+}
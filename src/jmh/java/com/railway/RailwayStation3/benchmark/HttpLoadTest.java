@@ -0,0 +1,113 @@
+package com.railway.RailwayStation3.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Нагрузочный тест запущенного приложения по замкнутой модели: каждый клиент отправляет
+ * следующий запрос сразу после ответа на предыдущий.
+ * Выводит пропускную способность и перцентили задержки, чтобы сравнить режимы
+ * обычных и виртуальных потоков при одинаковой нагрузке.
+ * <p>
+ * Аргументы: URL, число одновременных клиентов, длительность в секундах.
+ */
+public final class HttpLoadTest {
+
+    private static final int WARMUP_SECONDS = 5;
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args.length > 0 ? args[0] : "http://localhost:8080/api?size=50");
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        System.out.printf("Прогрев %d с...%n", WARMUP_SECONDS);
+        run(client, request, concurrency, WARMUP_SECONDS);
+
+        System.out.printf("Нагрузка: %s, клиентов %d, %d с%n", uri, concurrency, seconds);
+        Result result = run(client, request, concurrency, seconds);
+
+        long[] latencies = result.latenciesNanos();
+        Arrays.sort(latencies);
+        System.out.printf("Запросов: %d, ошибок: %d, пропускная способность: %.1f запр/с%n",
+                latencies.length, result.errors(), latencies.length / (double) seconds);
+        System.out.printf("p50 %.2f мс, p90 %.2f мс, p99 %.2f мс, p99.9 %.2f мс, max %.2f мс%n",
+                percentile(latencies, 0.50), percentile(latencies, 0.90), percentile(latencies, 0.99),
+                percentile(latencies, 0.999), percentile(latencies, 1.0));
+    }
+
+    private static Result run(HttpClient client, HttpRequest request, int concurrency, int seconds)
+            throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(pool.submit(() -> worker(client, request, deadline)));
+            }
+            long[] all = new long[0];
+            long errors = 0;
+            for (Future<Result> future : futures) {
+                Result part = future.get();
+                long[] merged = Arrays.copyOf(all, all.length + part.latenciesNanos().length);
+                System.arraycopy(part.latenciesNanos(), 0, merged, all.length, part.latenciesNanos().length);
+                all = merged;
+                errors += part.errors();
+            }
+            return new Result(all, errors);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private static Result worker(HttpClient client, HttpRequest request, long deadline) {
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() >= 400) {
+                    errors++;
+                    continue;
+                }
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - started;
+        }
+        return new Result(Arrays.copyOf(latencies, count), errors);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1_000_000.0;
+    }
+
+    private record Result(long[] latenciesNanos, long errors) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.dto.Journey;
+import com.railway.RailwayStation3.journey.JourneyPlanner;
+import com.railway.RailwayStation3.model.Train;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Задержка поиска маршрутов с пересадками в {@link JourneyPlanner} на синтетической «национальной» сети:
+ * 300 городов по 3 вокзала, несколько узловых городов с частыми поездами и неделя расписания.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JourneyPlannerBenchmark {
+
+    private static final int CITIES = 300;
+    private static final int HUBS = 12;
+    private static final int STATIONS = 3;
+    private static final int DAYS = 7;
+
+    @Param({"100000", "500000"})
+    public int trains;
+
+    private JourneyPlanner planner;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        planner = new JourneyPlanner(15, 60, 3, 48);
+        planner.finishLoad(IntStream.range(0, trains).mapToObj(JourneyPlannerBenchmark::train));
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Journey> plan() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(CITIES);
+        int to = (from + 1 + random.nextInt(CITIES - 1)) % CITIES;
+        LocalDateTime departure = LocalDateTime.of(SyntheticTimetable.BASE_DATE.plusDays(random.nextInt(DAYS - 2)),
+                LocalTime.of(random.nextInt(24), 0));
+        return planner.plan(city(from), city(to), departure, null, null);
+    }
+
+    /**
+     * Поезд сети: половина поездов связывает город с ближайшим узлом, остальные — узлы между собой
+     * или соседние города, что даёт маршруты в 1–4 поезда.
+     */
+    private static Train train(int i) {
+        SplittableRandom random = new SplittableRandom(i);
+        int from;
+        int to;
+        switch (i % 4) {
+            case 0, 1 -> {
+                int city = random.nextInt(CITIES);
+                int hub = city % HUBS;
+                boolean outbound = random.nextBoolean();
+                from = outbound ? city : hub;
+                to = outbound ? hub : city;
+            }
+            case 2 -> {
+                from = random.nextInt(HUBS);
+                to = (from + 1 + random.nextInt(HUBS - 1)) % HUBS;
+            }
+            default -> {
+                from = random.nextInt(CITIES);
+                to = (from + 1 + random.nextInt(3)) % CITIES;
+            }
+        }
+        if (from == to) {
+            to = (to + 1) % CITIES;
+        }
+        LocalDateTime departure = LocalDateTime.of(SyntheticTimetable.BASE_DATE, LocalTime.MIDNIGHT)
+                .plusMinutes(random.nextInt(DAYS * 24 * 60));
+        LocalDateTime arrival = departure.plusMinutes(45 + random.nextInt(12 * 60));
+
+        Train train = new Train();
+        train.setId((long) i + 1);
+        train.setNumber("J" + i);
+        train.setFromCity(city(from));
+        train.setToCity(city(to));
+        train.setDepartureStation(SyntheticTimetable.STATIONS[random.nextInt(STATIONS)]);
+        train.setArrivalStation(SyntheticTimetable.STATIONS[random.nextInt(STATIONS)]);
+        train.setDepartureDate(departure.toLocalDate());
+        train.setDepartureTime(departure.toLocalTime());
+        train.setArrivalDate(arrival.toLocalDate());
+        train.setArrivalTime(arrival.toLocalTime());
+        return train;
+    }
+
+    private static String city(int index) {
+        return (index < SyntheticTimetable.CITIES.length) ? SyntheticTimetable.CITIES[index] : "Город " + index;
+    }
+}
@@ -0,0 +1,97 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Генератор синтетического расписания для бенчмарков.
+ * Данные детерминированы: строка с номером i всегда получает одни и те же значения.
+ */
+final class SyntheticTimetable {
+
+    static final String[] CITIES = {
+            "Москва", "Санкт-Петербург", "Казань", "Нижний Новгород", "Екатеринбург",
+            "Новосибирск", "Самара", "Ростов-на-Дону", "Краснодар", "Воронеж",
+            "Пермь", "Уфа", "Челябинск", "Омск", "Волгоград",
+            "Саратов", "Тюмень", "Ярославль", "Тверь", "Тула",
+            "Рязань", "Владимир", "Иркутск", "Красноярск", "Хабаровск",
+            "Владивосток", "Калининград", "Мурманск", "Архангельск", "Сочи",
+            "Смоленск", "Брянск", "Курск", "Белгород", "Липецк",
+            "Пенза", "Ульяновск", "Оренбург", "Киров", "Вологда"
+    };
+
+    static final String[] STATIONS = {
+            "Главный вокзал", "Северный вокзал", "Южный вокзал", "Восточный вокзал", "Западный вокзал"
+    };
+
+    static final LocalDate BASE_DATE = LocalDate.now().plusDays(1);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private SyntheticTimetable() {
+    }
+
+    /**
+     * Возвращает поезд с номером i (без ID).
+     *
+     * @param i порядковый номер строки
+     * @return синтетический поезд
+     */
+    static Train train(int i) {
+        int from = i % CITIES.length;
+        int to = (from + 1 + (i / CITIES.length) % (CITIES.length - 1)) % CITIES.length;
+        LocalDateTime departure = LocalDateTime.of(BASE_DATE.plusDays(i % 365),
+                LocalTime.of((i * 7) % 24, (i * 13) % 60));
+        LocalDateTime arrival = departure.plusMinutes(60 + (i * 37L) % 1800);
+
+        Train train = new Train();
+        train.setNumber("T" + i);
+        train.setFromCity(CITIES[from]);
+        train.setToCity(CITIES[to]);
+        train.setDepartureStation(STATIONS[i % STATIONS.length]);
+        train.setArrivalStation(STATIONS[(i / 3) % STATIONS.length]);
+        train.setDepartureDate(departure.toLocalDate());
+        train.setDepartureTime(departure.toLocalTime());
+        train.setArrivalDate(arrival.toLocalDate());
+        train.setArrivalTime(arrival.toLocalTime());
+        return train;
+    }
+
+    /**
+     * Заполняет таблицу trains указанным количеством строк пакетными вставками.
+     *
+     * @param jdbc JdbcTemplate контекста бенчмарка
+     * @param rows количество строк
+     */
+    static void seed(JdbcTemplate jdbc, int rows) {
+        String sql = "INSERT INTO trains (number, from_city, to_city, departure_station, arrival_station, " +
+                "departure_date, departure_time, arrival_date, arrival_time, departure_at, arrival_at, travel_minutes, " +
+                "version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            Train t = train(i);
+            batch.add(new Object[]{
+                    t.getNumber(), t.getFromCity(), t.getToCity(), t.getDepartureStation(), t.getArrivalStation(),
+                    Date.valueOf(t.getDepartureDate()), Time.valueOf(t.getDepartureTime()),
+                    Date.valueOf(t.getArrivalDate()), Time.valueOf(t.getArrivalTime()),
+                    Timestamp.valueOf(t.getDepartureAt()), Timestamp.valueOf(t.getArrivalAt()), t.getTravelMinutes()
+            });
+            if (batch.size() == BATCH_SIZE) {
+                jdbc.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            jdbc.batchUpdate(sql, batch);
+        }
+    }
+}
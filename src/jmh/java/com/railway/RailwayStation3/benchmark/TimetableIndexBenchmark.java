@@ -0,0 +1,48 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.index.TimetableIndex;
+import com.railway.RailwayStation3.model.Train;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Задержка поиска по маршруту и дате в {@link TimetableIndex}.
+ * Режим SampleTime выводит перцентили (p0.99, p0.999) — целевое значение p99 меньше миллисекунды.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimetableIndexBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int rows;
+
+    private TimetableIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new TimetableIndex();
+        for (int i = 0; i < rows; i++) {
+            Train train = SyntheticTimetable.train(i);
+            train.setId((long) i + 1);
+            index.put(train);
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public List<Train> search() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(SyntheticTimetable.CITIES.length);
+        int to = (from + 1 + random.nextInt(SyntheticTimetable.CITIES.length - 1)) % SyntheticTimetable.CITIES.length;
+        LocalDate date = SyntheticTimetable.BASE_DATE.plusDays(random.nextInt(365));
+        return index.search(SyntheticTimetable.CITIES[from], SyntheticTimetable.CITIES[to], date, "departureTime");
+    }
+}
@@ -0,0 +1,45 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.RailwayStation3.model.Train;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков поездов в JSON с настройками Jackson, как в приложении.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainJsonBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<Train> trains;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        trains = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Train train = SyntheticTimetable.train(i);
+            train.setId((long) i + 1);
+            trains.add(train);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(trains);
+    }
+}
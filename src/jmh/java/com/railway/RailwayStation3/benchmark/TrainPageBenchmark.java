@@ -0,0 +1,67 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.dto.TrainPage;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.service.TrainService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает keyset-пагинацию GET /api с выгрузкой всей таблицы.
+ * Время и объём аллокаций на страницу (-prof gc, gc.alloc.rate.norm) не должны
+ * зависеть от размера таблицы, в отличие от findAll.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainPageBenchmark {
+
+    @Param({"10000", "100000", "500000"})
+    public int rows;
+
+    private ConfigurableApplicationContext context;
+    private TrainService trainService;
+    private String middleCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWithTrains(rows);
+        trainService = context.getBean(TrainService.class);
+        middleCursor = TrainPage.encodeCursor(rows / 2);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public TrainPage firstPage() {
+        return trainService.findPage(null, TrainService.DEFAULT_PAGE_SIZE, null, null, null);
+    }
+
+    @Benchmark
+    public TrainPage middlePage() {
+        return trainService.findPage(middleCursor, TrainService.DEFAULT_PAGE_SIZE, null, null, null);
+    }
+
+    @Benchmark
+    public TrainPage filteredPage() {
+        return trainService.findPage(null, TrainService.DEFAULT_PAGE_SIZE,
+                SyntheticTimetable.CITIES[0], SyntheticTimetable.CITIES[1], null);
+    }
+
+    /**
+     * Прежнее поведение GET /api — вся таблица одним списком.
+     */
+    @Benchmark
+    public List<Train> legacyFindAll() {
+        return trainService.findAll();
+    }
+}
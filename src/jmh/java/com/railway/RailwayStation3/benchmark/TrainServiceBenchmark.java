@@ -0,0 +1,106 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import com.railway.RailwayStation3.service.TrainService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Горячие пути {@link TrainService}: создание с проверкой данных, поиск и частичное обновление.
+ * Работает на базе бенчмарков PostgreSQL с синтетическим расписанием.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TrainServiceBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+    private TrainService trainService;
+    private TrainRepository trainRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.startWithTrains(rows);
+        trainService = context.getBean(TrainService.class);
+        trainRepository = context.getBean(TrainRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Создание поезда: проверка номера на уникальность, валидация полей и вставка.
+     */
+    @Benchmark
+    public Train createTrain() {
+        Train train = SyntheticTimetable.train(sequence.incrementAndGet());
+        train.setNumber("B" + sequence.get());
+        return trainService.createTrain(train);
+    }
+
+    /**
+     * Создание поезда с некорректным номером: только проверки, без вставки.
+     */
+    @Benchmark
+    public Object createTrainRejected() {
+        Train train = SyntheticTimetable.train(sequence.incrementAndGet());
+        train.setNumber("№-" + sequence.get());
+        try {
+            return trainService.createTrain(train);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    /**
+     * Поиск по маршруту и дате через сервис (индекс в памяти).
+     */
+    @Benchmark
+    public List<Train> findByFilters() {
+        Train sample = randomTrain();
+        return trainService.findByFilters(sample.getFromCity(), sample.getToCity(),
+                sample.getDepartureDate(), "departureTime");
+    }
+
+    /**
+     * Тот же поиск запросом к базе — для сравнения с индексом.
+     */
+    @Benchmark
+    public List<Train> findByFiltersDatabase() {
+        Train sample = randomTrain();
+        return trainRepository.findByFromCityAndToCityAndDepartureDate(sample.getFromCity(), sample.getToCity(),
+                sample.getDepartureDate(), Sort.by("departureTime"));
+    }
+
+    @Benchmark
+    public Train partialUpdate() {
+        long id = 1 + ThreadLocalRandom.current().nextInt(rows);
+        LocalDate date = SyntheticTimetable.BASE_DATE.plusDays(ThreadLocalRandom.current().nextInt(300));
+        return trainService.partialUpdate(id, Map.of(
+                "departureDate", date.toString(),
+                "arrivalDate", date.plusDays(2).toString()));
+    }
+
+    private Train randomTrain() {
+        return SyntheticTimetable.train(ThreadLocalRandom.current().nextInt(rows));
+    }
+}
@@ -0,0 +1,49 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Регистрация пользователя: проверки уникальности, валидация и хеширование пароля.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private final AtomicInteger sequence = new AtomicInteger();
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userService = context.getBean(UserService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User registerUser() {
+        int n = sequence.incrementAndGet();
+        User user = new User();
+        user.setUsername("bench" + n);
+        user.setEmail("bench" + n + "@railway.com");
+        user.setPhone(String.format("%010d", n));
+        user.setPassword("secret" + (n % 1000));
+        userService.registerUser(user);
+        return user;
+    }
+}
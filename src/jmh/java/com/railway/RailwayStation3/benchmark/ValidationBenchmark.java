@@ -0,0 +1,117 @@
+package com.railway.RailwayStation3.benchmark;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.validation.TrainValidator;
+import com.railway.RailwayStation3.validation.UserValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает единый движок правил с прежними проверками через {@code String.matches},
+ * которые компилируют регулярное выражение при каждом вызове.
+ * Запускать с -prof gc, чтобы увидеть аллокации на успешную проверку.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ValidationBenchmark {
+
+    private final TrainValidator trainValidator = new TrainValidator();
+    private final UserValidator userValidator = new UserValidator();
+
+    private Train train;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        train = SyntheticTimetable.train(42);
+        user = new User();
+        user.setUsername("passenger");
+        user.setEmail("passenger@railway.com");
+        user.setPhone("9991112233");
+        user.setPassword("secret");
+    }
+
+    @Benchmark
+    public Train trainRuleSet() {
+        trainValidator.validate(train);
+        return train;
+    }
+
+    @Benchmark
+    public Train trainLegacyMatches() {
+        legacyValidate(train);
+        return train;
+    }
+
+    @Benchmark
+    public User userRuleSet() {
+        userValidator.validate(user);
+        return user;
+    }
+
+    @Benchmark
+    public User userLegacyMatches() {
+        legacyValidate(user);
+        return user;
+    }
+
+    /**
+     * Проверки TrainService.createTrain до перехода на движок правил.
+     */
+    private static void legacyValidate(Train train) {
+        if (!train.getNumber().matches("^[a-zA-Z0-9]{2,10}$")) {
+            throw new IllegalArgumentException("number");
+        }
+        legacyPlace(train.getFromCity());
+        legacyPlace(train.getToCity());
+        legacyPlace(train.getDepartureStation());
+        legacyPlace(train.getArrivalStation());
+        if (train.getFromCity().equalsIgnoreCase(train.getToCity())) {
+            throw new IllegalArgumentException("cities");
+        }
+        if (train.getDepartureDate().isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("departureDate");
+        }
+        if (train.getArrivalDate().isBefore(train.getDepartureDate())) {
+            throw new IllegalArgumentException("arrivalDate");
+        }
+        if (train.getDepartureDate().equals(train.getArrivalDate())
+                && train.getArrivalTime().isBefore(train.getDepartureTime())) {
+            throw new IllegalArgumentException("arrivalTime");
+        }
+    }
+
+    private static void legacyPlace(String value) {
+        if (value == null || value.trim().isEmpty() || value.length() < 2 || value.length() > 30
+                || !value.matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
+            throw new IllegalArgumentException("place");
+        }
+    }
+
+    /**
+     * Проверки формата UserService.registerUser до перехода на движок правил.
+     */
+    private static void legacyValidate(User user) {
+        if (user.getEmail() == null || user.getEmail().trim().isEmpty()
+                || !user.getEmail().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
+            throw new IllegalArgumentException("email");
+        }
+        if (user.getPhone() == null || !user.getPhone().matches("\\d{10}")) {
+            throw new IllegalArgumentException("phone");
+        }
+        if (user.getPassword() == null || user.getPassword().trim().isEmpty()
+                || user.getPassword().length() > 20 || user.getPassword().length() < 4) {
+            throw new IllegalArgumentException("password");
+        }
+        if (user.getUsername() != null && user.getUsername().length() > 20) {
+            throw new IllegalArgumentException("username");
+        }
+    }
+}
@@ -35,7 +35,7 @@ public class DataInitializer implements CommandLineRunner {
                 "admin",
                 "admin",
                 "admin@railway.com",
-                "+79991112233",
+                "9991112233",
                 "ROLE_ADMIN"
         );
 
@@ -43,7 +43,7 @@ public class DataInitializer implements CommandLineRunner {
                 "user1",
                 "user1",
                 "user@railway.com",
-                "+79997778899",
+                "9997778899",
                 "ROLE_USER"
         );
     }
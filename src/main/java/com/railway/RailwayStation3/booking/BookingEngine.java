@@ -0,0 +1,419 @@
+package com.railway.RailwayStation3.booking;
+
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Booking;
+import com.railway.RailwayStation3.model.SeatInventory;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.BookingRepository;
+import com.railway.RailwayStation3.repository.SeatInventoryRepository;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Движок бронирования мест.
+ * <p>
+ * Места занимаются в памяти ({@link SeatMap}) без блокировок, а запись в базу выполняется
+ * отдельным потоком пакетами (group commit): все бронирования, накопившиеся за время записи
+ * предыдущего пакета, сохраняются одной транзакцией. Поэтому тысячи одновременных бронирований
+ * одного поезда не выстраиваются в очередь за блокировками строк базы.
+ * <p>
+ * Ответ клиенту отправляется только после фиксации пакета: подтверждённое бронирование
+ * не теряется при перезапуске. Карта мест поезда строится из базы при первом обращении к поезду,
+ * так что после перезапуска занятость восстанавливается по сохранённым бронированиям.
+ * Если место в базе уже занято (например, другим экземпляром приложения), ограничение уникальности
+ * не даёт записать его второй раз, и бронирование отклоняется.
+ */
+@Component
+public class BookingEngine implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(BookingEngine.class);
+
+    /**
+     * Место уже занято или в поезде нет свободных мест.
+     */
+    public static class SeatUnavailableException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public SeatUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Счётчики движка бронирования.
+     *
+     * @param trains поездов с картой мест в памяти
+     * @param booked подтверждённых бронирований с момента запуска
+     * @param batches записанных пакетов
+     * @param conflicts бронирований, отклонённых ограничением уникальности базы
+     * @param rejected бронирований, отклонённых из-за переполнения очереди записи
+     */
+    public record Stats(int trains, long booked, long batches, long conflicts, long rejected) {
+
+        /**
+         * Средний размер пакета записи.
+         */
+        public double averageBatch() {
+            return (batches == 0) ? 0.0 : (double) (booked + conflicts) / batches;
+        }
+    }
+
+    /**
+     * Бронирование, занятое в памяти и ожидающее записи в базу.
+     */
+    private record Pending(SeatMap seatMap, int position, Booking booking, CompletableFuture<Booking> result) {
+    }
+
+    private final Map<Long, CompletableFuture<SeatMap>> seatMaps = new ConcurrentHashMap<>();
+    private final BlockingQueue<Pending> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    private final TrainRepository trainRepository;
+    private final SeatInventoryRepository seatInventoryRepository;
+    private final BookingRepository bookingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int defaultCars;
+    private final int defaultSeatsPerCar;
+    private final int batchSize;
+    private final long timeoutMillis;
+
+    private final LongAdder booked = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public BookingEngine(TrainRepository trainRepository, SeatInventoryRepository seatInventoryRepository,
+                         BookingRepository bookingRepository, JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         @Value("${railway.booking.default-cars:10}") int defaultCars,
+                         @Value("${railway.booking.default-seats-per-car:60}") int defaultSeatsPerCar,
+                         @Value("${railway.booking.queue-capacity:10000}") int queueCapacity,
+                         @Value("${railway.booking.batch-size:500}") int batchSize,
+                         @Value("${railway.booking.timeout-ms:10000}") long timeoutMillis) {
+        this.trainRepository = trainRepository;
+        this.seatInventoryRepository = seatInventoryRepository;
+        this.bookingRepository = bookingRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.defaultCars = defaultCars;
+        this.defaultSeatsPerCar = defaultSeatsPerCar;
+        this.batchSize = batchSize;
+        this.timeoutMillis = timeoutMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::writeLoop, "booking-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Бронирует место и ждёт записи бронирования в базу.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона или null (любой вагон)
+     * @param seat номер места или null (любое место; требует указать вагон или не указывать ничего)
+     * @param username логин пользователя
+     * @return сохранённое бронирование
+     * @throws IllegalArgumentException если поезд не найден, уже отправился или такого места нет
+     * @throws SeatUnavailableException если место занято или свободных мест нет
+     * @throws IllegalStateException если очередь записи переполнена или запись не удалась
+     */
+    public Booking book(long trainId, Integer car, Integer seat, String username) {
+        SeatMap seatMap = seatMap(trainId);
+        if (seatMap == null) {
+            throw new IllegalArgumentException("Поезд не найден");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (seatMap.getDepartureAt() == null || !seatMap.getDepartureAt().isAfter(now)) {
+            throw new IllegalArgumentException("Поезд уже отправился");
+        }
+
+        if (!seatMap.beginClaim()) {
+            throw new IllegalStateException("Схема вагонов поезда меняется, повторите попытку позже");
+        }
+        Pending pending;
+        try {
+            int position;
+            if (seat != null) {
+                if (car == null) {
+                    throw new IllegalArgumentException("Для выбора места нужно указать вагон");
+                }
+                position = seatMap.claim(car, seat);
+                if (position < 0) {
+                    throw new SeatUnavailableException("Место уже занято");
+                }
+            } else {
+                position = (car != null) ? seatMap.claimInCar(car) : seatMap.claimAny();
+                if (position < 0) {
+                    throw new SeatUnavailableException("Свободных мест нет");
+                }
+            }
+
+            Booking booking = new Booking(trainId, seatMap.carOf(position), seatMap.seatOf(position), username, now);
+            pending = new Pending(seatMap, position, booking, new CompletableFuture<>());
+            if (!running || !queue.offer(pending)) {
+                seatMap.release(position);
+                rejected.increment();
+                throw new IllegalStateException("Слишком много бронирований, повторите попытку позже");
+            }
+        } catch (RuntimeException e) {
+            seatMap.endClaim();
+            throw e;
+        }
+        return await(pending.result());
+    }
+
+    /**
+     * Освобождает место в памяти после отмены бронирования в базе.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона
+     * @param seat номер места
+     */
+    public void release(long trainId, int car, int seat) {
+        CompletableFuture<SeatMap> loaded = seatMaps.get(trainId);
+        if (loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally()) {
+            SeatMap seatMap = loaded.join();
+            if (seatMap != null && car >= 1 && car <= seatMap.getCars() && seat >= 1 && seat <= seatMap.getSeatsPerCar()) {
+                seatMap.release(seatMap.position(car, seat));
+            }
+        }
+    }
+
+    /**
+     * Возвращает карту мест поезда, при первом обращении загружая её из базы.
+     *
+     * @param trainId ID поезда
+     * @return карта мест или null, если поезд не найден
+     */
+    public SeatMap seatMap(long trainId) {
+        CompletableFuture<SeatMap> created = new CompletableFuture<>();
+        CompletableFuture<SeatMap> existing = seatMaps.putIfAbsent(trainId, created);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw (e.getCause() instanceof RuntimeException cause) ? cause : e;
+            }
+        }
+        try {
+            SeatMap seatMap = load(trainId);
+            created.complete(seatMap);
+            if (seatMap == null) {
+                seatMaps.remove(trainId, created);
+            }
+            return seatMap;
+        } catch (RuntimeException e) {
+            seatMaps.remove(trainId, created);
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Удаляет карту мест поезда из памяти: она будет построена заново при следующем обращении.
+     *
+     * @param trainId ID поезда
+     */
+    public void evict(long trainId) {
+        seatMaps.remove(trainId);
+    }
+
+    /**
+     * Выполняет действие, пока бронирование мест поезда приостановлено: новые места не занимаются,
+     * а уже занятые сначала записываются в базу. Поэтому действие видит в базе все бронирования поезда.
+     * После успешного действия карта мест строится заново при следующем обращении (действие может
+     * изменить схему вагонов), а после ошибки бронирование возобновляется.
+     *
+     * @param trainId ID поезда
+     * @param action действие
+     * @return результат действия
+     * @throws IllegalArgumentException если поезд не найден
+     * @throws IllegalStateException если начатые бронирования не записаны вовремя
+     */
+    public synchronized <T> T withBookingPaused(long trainId, Supplier<T> action) {
+        SeatMap seatMap = seatMap(trainId);
+        if (seatMap == null) {
+            throw new IllegalArgumentException("Поезд не найден");
+        }
+        try {
+            if (!seatMap.pause(timeoutMillis)) {
+                seatMap.resume();
+                throw new IllegalStateException("Бронирования поезда ещё записываются, повторите попытку позже");
+            }
+        } catch (InterruptedException e) {
+            seatMap.resume();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание записи бронирований прервано");
+        }
+
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            seatMap.resume();
+            throw e;
+        }
+        // Старая карта остаётся приостановленной: бронирования, получившие её до сброса, отклоняются
+        evict(trainId);
+        return result;
+    }
+
+    /**
+     * Обновляет момент отправления в карте мест или удаляет карту удалённого поезда.
+     *
+     * @param event событие изменения поезда
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        if (event.isDeleted()) {
+            evict(event.before().getId());
+        } else if (!event.isCreated()) {
+            CompletableFuture<SeatMap> loaded = seatMaps.get(event.after().getId());
+            if (loaded != null && loaded.isDone() && !loaded.isCompletedExceptionally() && loaded.join() != null) {
+                loaded.join().setDepartureAt(event.after().getDepartureAt());
+            }
+        }
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    public Stats getStats() {
+        return new Stats(seatMaps.size(), booked.sum(), batches.sum(), conflicts.sum(), rejected.sum());
+    }
+
+    /**
+     * Прекращает приём бронирований и записывает уже принятые.
+     */
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(timeoutMillis);
+    }
+
+    /**
+     * Строит карту мест поезда по схеме вагонов и сохранённым бронированиям.
+     */
+    private SeatMap load(long trainId) {
+        Train train = trainRepository.findById(trainId).orElse(null);
+        if (train == null) {
+            return null;
+        }
+        SeatInventory inventory = seatInventoryRepository.findById(trainId)
+                .orElse(new SeatInventory(trainId, defaultCars, defaultSeatsPerCar));
+        SeatMap seatMap = new SeatMap(trainId, inventory.getCars(), inventory.getSeatsPerCar(), train.getDepartureAt());
+        for (Object[] row : bookingRepository.findSeatsByTrainId(trainId)) {
+            int car = ((Number) row[0]).intValue();
+            int seat = ((Number) row[1]).intValue();
+            if (car <= seatMap.getCars() && seat <= seatMap.getSeatsPerCar()) {
+                seatMap.claim(car, seat);
+            }
+        }
+        return seatMap;
+    }
+
+    private Booking await(CompletableFuture<Booking> result) {
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof RuntimeException cause) ? cause : new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Бронирование может быть записано позже: клиент проверит его в списке своих бронирований
+            throw new IllegalStateException("Бронирование не подтверждено вовремя, проверьте список бронирований");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Бронирование прервано");
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = running ? queue.take() : queue.poll();
+                if (first == null) {
+                    break;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                // Остановка: дописываем то, что уже в очереди
+                continue;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Записывает пакет одной транзакцией и завершает ожидания клиентов.
+     */
+    private void write(List<Pending> batch) {
+        int[] counts;
+        try {
+            List<Object[]> args = new ArrayList<>(batch.size());
+            for (Pending pending : batch) {
+                Booking b = pending.booking();
+                args.add(new Object[]{b.getTrainId(), b.getCar(), b.getSeat(), b.getUsername(),
+                        Timestamp.valueOf(b.getCreatedAt())});
+            }
+            counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(BookingRepository.INSERT_SQL, args));
+        } catch (RuntimeException e) {
+            log.warn("Не удалось записать пакет бронирований ({}): {}", batch.size(), e.getMessage());
+            for (Pending pending : batch) {
+                pending.seatMap().release(pending.position());
+                pending.result().completeExceptionally(
+                        new IllegalStateException("Не удалось сохранить бронирование, повторите попытку"));
+                pending.seatMap().endClaim();
+            }
+            return;
+        }
+
+        batches.increment();
+        for (int i = 0; i < batch.size(); i++) {
+            Pending pending = batch.get(i);
+            if (counts != null && counts[i] == 0) {
+                // Место уже занято в базе: в памяти оно остаётся занятым
+                conflicts.increment();
+                pending.result().completeExceptionally(new SeatUnavailableException("Место уже занято"));
+            } else {
+                booked.increment();
+                pending.result().complete(pending.booking());
+            }
+            pending.seatMap().endClaim();
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.railway.RailwayStation3.booking;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Занятость мест одного поезда в памяти: по биту на место.
+ * <p>
+ * Места каждого вагона занимают целое число 64-битных слов (лишние биты последнего слова
+ * заранее помечены занятыми), поэтому место занимается одной операцией compareAndSet
+ * без блокировок. Запросы «любое свободное место» начинают поиск со случайного вагона и слова,
+ * чтобы параллельные бронирования одного поезда не соревновались за одно и то же слово.
+ * <p>
+ * Позиция места — число (вагон - 1) * мест в вагоне + (место - 1).
+ */
+public final class SeatMap {
+    private final long trainId;
+    private final int cars;
+    private final int seatsPerCar;
+    private final int wordsPerCar;
+    private final AtomicLongArray words;
+    private final AtomicInteger free;
+    private volatile LocalDateTime departureAt;
+    // Бронирования, начатые на этой карте и ещё не записанные в базу или не отклонённые
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean paused;
+
+    /**
+     * Создаёт карту мест, в которой все места свободны.
+     *
+     * @param trainId ID поезда
+     * @param cars количество вагонов
+     * @param seatsPerCar количество мест в вагоне
+     * @param departureAt момент отправления поезда
+     */
+    public SeatMap(long trainId, int cars, int seatsPerCar, LocalDateTime departureAt) {
+        this.trainId = trainId;
+        this.cars = cars;
+        this.seatsPerCar = seatsPerCar;
+        this.wordsPerCar = (seatsPerCar + Long.SIZE - 1) / Long.SIZE;
+        this.words = new AtomicLongArray(cars * wordsPerCar);
+        this.free = new AtomicInteger(cars * seatsPerCar);
+        this.departureAt = departureAt;
+
+        int tail = seatsPerCar % Long.SIZE;
+        if (tail != 0) {
+            for (int car = 0; car < cars; car++) {
+                words.set(car * wordsPerCar + wordsPerCar - 1, -1L << tail);
+            }
+        }
+    }
+
+    /**
+     * Занимает конкретное место.
+     *
+     * @param car номер вагона (с 1)
+     * @param seat номер места (с 1)
+     * @return позиция места или -1, если место уже занято
+     * @throws IllegalArgumentException если такого места нет в поезде
+     */
+    public int claim(int car, int seat) {
+        checkSeat(car, seat);
+        int word = (car - 1) * wordsPerCar + (seat - 1) / Long.SIZE;
+        long bit = 1L << ((seat - 1) % Long.SIZE);
+        while (true) {
+            long current = words.get(word);
+            if ((current & bit) != 0) {
+                return -1;
+            }
+            if (words.compareAndSet(word, current, current | bit)) {
+                free.decrementAndGet();
+                return position(car, seat);
+            }
+        }
+    }
+
+    /**
+     * Занимает любое свободное место в указанном вагоне.
+     *
+     * @param car номер вагона (с 1)
+     * @return позиция места или -1, если в вагоне нет свободных мест
+     */
+    public int claimInCar(int car) {
+        if (car < 1 || car > cars) {
+            throw new IllegalArgumentException("В поезде нет вагона " + car);
+        }
+        return claimInCar(car - 1, ThreadLocalRandom.current().nextInt(wordsPerCar));
+    }
+
+    /**
+     * Занимает любое свободное место в поезде.
+     *
+     * @return позиция места или -1, если свободных мест нет
+     */
+    public int claimAny() {
+        int start = ThreadLocalRandom.current().nextInt(cars);
+        int startWord = ThreadLocalRandom.current().nextInt(wordsPerCar);
+        for (int i = 0; i < cars && free.get() > 0; i++) {
+            int position = claimInCar((start + i) % cars, startWord);
+            if (position >= 0) {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Освобождает место.
+     *
+     * @param position позиция места
+     */
+    public void release(int position) {
+        int seat = position % seatsPerCar;
+        int word = (position / seatsPerCar) * wordsPerCar + seat / Long.SIZE;
+        long bit = 1L << (seat % Long.SIZE);
+        while (true) {
+            long current = words.get(word);
+            if ((current & bit) == 0) {
+                return;
+            }
+            if (words.compareAndSet(word, current, current & ~bit)) {
+                free.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Начинает бронирование на этой карте. Каждому успешному вызову должен соответствовать
+     * {@link #endClaim()} после записи бронирования в базу или отказа в нём.
+     *
+     * @return false, если бронирование поезда приостановлено
+     */
+    public boolean beginClaim() {
+        inFlight.incrementAndGet();
+        if (paused) {
+            endClaim();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Завершает бронирование, начатое {@link #beginClaim()}.
+     */
+    public void endClaim() {
+        if (inFlight.decrementAndGet() == 0 && paused) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Приостанавливает бронирование и ждёт завершения уже начатых бронирований.
+     *
+     * @param timeoutMillis сколько ждать, мс
+     * @return true, если все начатые бронирования завершились вовремя
+     * @throws InterruptedException если ожидание прервано
+     */
+    public boolean pause(long timeoutMillis) throws InterruptedException {
+        paused = true;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this) {
+            while (inFlight.get() > 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, left);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возобновляет бронирование после {@link #pause(long)}.
+     */
+    public void resume() {
+        paused = false;
+    }
+
+    /**
+     * Количество свободных мест в каждом вагоне.
+     *
+     * @return массив, где элемент i — свободные места вагона i + 1
+     */
+    public int[] freeByCar() {
+        int[] result = new int[cars];
+        for (int car = 0; car < cars; car++) {
+            int taken = 0;
+            for (int w = 0; w < wordsPerCar; w++) {
+                taken += Long.bitCount(words.get(car * wordsPerCar + w));
+            }
+            result[car] = wordsPerCar * Long.SIZE - taken;
+        }
+        return result;
+    }
+
+    public int position(int car, int seat) {
+        return (car - 1) * seatsPerCar + (seat - 1);
+    }
+
+    public int carOf(int position) {
+        return position / seatsPerCar + 1;
+    }
+
+    public int seatOf(int position) {
+        return position % seatsPerCar + 1;
+    }
+
+    public long getTrainId() {
+        return trainId;
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    public int getSeatsPerCar() {
+        return seatsPerCar;
+    }
+
+    public int getFree() {
+        return free.get();
+    }
+
+    public LocalDateTime getDepartureAt() {
+        return departureAt;
+    }
+
+    public void setDepartureAt(LocalDateTime departureAt) {
+        this.departureAt = departureAt;
+    }
+
+    private int claimInCar(int carIndex, int startWord) {
+        for (int i = 0; i < wordsPerCar; i++) {
+            int word = carIndex * wordsPerCar + (startWord + i) % wordsPerCar;
+            while (true) {
+                long current = words.get(word);
+                if (current == -1L) {
+                    break;
+                }
+                int bit = Long.numberOfTrailingZeros(~current);
+                if (words.compareAndSet(word, current, current | (1L << bit))) {
+                    free.decrementAndGet();
+                    return carIndex * seatsPerCar + (word - carIndex * wordsPerCar) * Long.SIZE + bit;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private void checkSeat(int car, int seat) {
+        if (car < 1 || car > cars) {
+            throw new IllegalArgumentException("В поезде нет вагона " + car);
+        }
+        if (seat < 1 || seat > seatsPerCar) {
+            throw new IllegalArgumentException("В вагоне нет места " + seat);
+        }
+    }
+}
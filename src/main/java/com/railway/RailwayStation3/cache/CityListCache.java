@@ -0,0 +1,170 @@
+package com.railway.RailwayStation3.cache;
+
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Кэш списков уникальных городов отправления и прибытия для подсказок в формах добавления
+ * и редактирования поезда: администратор выбирает уже известное написание города.
+ * <p>
+ * Списки хранятся как неизменяемые снимки. Снимок сбрасывается только тогда, когда изменение
+ * расписания действительно добавляет новый город или удаляет последний поезд города.
+ */
+@Component
+public class CityListCache {
+
+    /**
+     * Счётчики работы кэша.
+     *
+     * @param hits количество обращений, обслуженных из кэша
+     * @param misses количество обращений, потребовавших запроса к базе
+     * @param invalidations количество сбросов снимков
+     */
+    public record Stats(long hits, long misses, long invalidations) {
+
+        /**
+         * Доля попаданий в кэш, %.
+         */
+        public double hitRatePercent() {
+            long total = hits + misses;
+            return (total == 0) ? 0.0 : hits * 100.0 / total;
+        }
+    }
+
+    private final TrainRepository trainRepository;
+    private final Snapshot fromCities;
+    private final Snapshot toCities;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public CityListCache(TrainRepository trainRepository) {
+        this.trainRepository = trainRepository;
+        this.fromCities = new Snapshot(trainRepository::findDistinctFromCities);
+        this.toCities = new Snapshot(trainRepository::findDistinctToCities);
+    }
+
+    /**
+     * Возвращает отсортированный неизменяемый список городов отправления.
+     *
+     * @return список городов
+     */
+    public List<String> getFromCities() {
+        return fromCities.get();
+    }
+
+    /**
+     * Возвращает отсортированный неизменяемый список городов прибытия.
+     *
+     * @return список городов
+     */
+    public List<String> getToCities() {
+        return toCities.get();
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum());
+    }
+
+    /**
+     * Сбрасывает снимки, состав которых изменился после записи в расписание.
+     *
+     * @param event событие изменения поезда
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        applyChange(fromCities, event, Train::getFromCity, trainRepository::existsByFromCity);
+        applyChange(toCities, event, Train::getToCity, trainRepository::existsByToCity);
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    private void applyChange(Snapshot snapshot, TrainChangedEvent event,
+                             Function<Train, String> city, Predicate<String> stillServed) {
+        CityList current = snapshot.value;
+        if (current == null) {
+            return;
+        }
+
+        String oldCity = event.isCreated() ? null : city.apply(event.before());
+        String newCity = event.isDeleted() ? null : city.apply(event.after());
+        if (Objects.equals(oldCity, newCity)) {
+            return;
+        }
+
+        boolean added = newCity != null && !current.members().contains(newCity);
+        // Город исчезает из списка, только если у него не осталось ни одного поезда
+        boolean removed = oldCity != null && !stillServed.test(oldCity);
+        if (added || removed) {
+            snapshot.invalidate();
+        }
+    }
+
+    private record CityList(List<String> sorted, Set<String> members) {
+    }
+
+    /**
+     * Неизменяемый снимок списка, загружаемый из базы при первом обращении после сброса.
+     * Счётчик поколений не даёт сохранить снимок, прочитанный до конкурентного сброса.
+     */
+    private final class Snapshot {
+        private final Supplier<List<String>> loader;
+        private volatile CityList value;
+        private long generation;
+
+        Snapshot(Supplier<List<String>> loader) {
+            this.loader = loader;
+        }
+
+        List<String> get() {
+            CityList current = value;
+            if (current != null) {
+                hits.increment();
+                return current.sorted();
+            }
+
+            misses.increment();
+            long loadGeneration;
+            synchronized (this) {
+                loadGeneration = generation;
+            }
+            // Колонки городов допускают NULL, а неизменяемые списки null не принимают
+            List<String> sorted = loader.get().stream().filter(Objects::nonNull).toList();
+            CityList loaded = new CityList(sorted, new HashSet<>(sorted));
+            synchronized (this) {
+                if (generation == loadGeneration) {
+                    value = loaded;
+                }
+            }
+            return sorted;
+        }
+
+        synchronized void invalidate() {
+            generation++;
+            value = null;
+            invalidations.increment();
+        }
+    }
+}
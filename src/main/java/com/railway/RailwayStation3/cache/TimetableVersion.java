@@ -0,0 +1,159 @@
+package com.railway.RailwayStation3.cache;
+
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.event.TrainScheduleChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Глобальная версия расписания для условных HTTP-запросов (ETag / Last-Modified).
+ * <p>
+ * Версия увеличивается после каждого изменения поезда, поэтому ответы списка, поиска и выгрузки
+ * можно проверять на актуальность без обращения к базе данных: если клиент прислал текущий ETag,
+ * ему возвращается 304 Not Modified.
+ * <p>
+ * ETag содержит метку запуска приложения, чтобы после перезапуска (когда счётчик начинается
+ * заново) старые ETag клиентов не совпали с новыми версиями.
+ */
+@Component
+public class TimetableVersion {
+
+    /**
+     * Ответы проверяются при каждом запросе, но могут храниться у клиента.
+     */
+    public static final CacheControl CACHE_CONTROL = CacheControl.noCache();
+
+    /**
+     * Счётчики условных запросов.
+     *
+     * @param version текущая версия расписания
+     * @param lastModified время последнего изменения расписания
+     * @param notModified количество ответов 304 Not Modified
+     * @param fullResponses количество полных ответов
+     */
+    public record Stats(long version, Instant lastModified, long notModified, long fullResponses) {
+
+        /**
+         * Доля ответов 304, %.
+         */
+        public double notModifiedPercent() {
+            long total = notModified + fullResponses;
+            return (total == 0) ? 0.0 : notModified * 100.0 / total;
+        }
+    }
+
+    /**
+     * @param observed отдавался ли уже клиентам ответ с этим Last-Modified
+     */
+    private record State(long version, Instant lastModified, boolean observed) {
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final AtomicReference<State> state =
+            new AtomicReference<>(new State(0, Instant.now().truncatedTo(ChronoUnit.SECONDS), false));
+
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder fullResponses = new LongAdder();
+
+    /**
+     * Увеличивает версию после фиксации изменения расписания.
+     * Выполняется после обновления индексов в памяти (иначе клиент мог бы получить старые данные
+     * под новым ETag), но до уведомления клиентов живой ленты.
+     *
+     * @param event событие изменения поезда
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        bump();
+    }
+
+    /**
+     * Увеличивает версию после изменения регулярного расписания: меняются рейсы в результатах поиска.
+     *
+     * @param event событие изменения расписания
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(TrainScheduleChangedEvent event) {
+        bump();
+    }
+
+    /**
+     * Увеличивает версию один раз на порцию поездов, перенесённых в архив.
+     *
+     * @param event событие переноса порции
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        bump();
+    }
+
+    /**
+     * Увеличивает версию расписания.
+     * Last-Modified передаётся с точностью до секунды. Если время в пределах секунды уже отдавалось
+     * клиентам, новая версия получает время на секунду больше — иначе клиенты, присылающие только
+     * If-Modified-Since, не увидели бы изменение. Серия изменений без чтений между ними
+     * время вперёд не сдвигает.
+     */
+    public void bump() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        state.updateAndGet(current -> {
+            Instant next;
+            if (now.isAfter(current.lastModified())) {
+                next = now;
+            } else if (current.observed()) {
+                next = current.lastModified().plusSeconds(1);
+            } else {
+                next = current.lastModified();
+            }
+            return new State(current.version() + 1, next, false);
+        });
+    }
+
+    /**
+     * Возвращает текущую версию расписания.
+     *
+     * @return номер версии
+     */
+    public long getVersion() {
+        return state.get().version();
+    }
+
+    /**
+     * Проверяет условный запрос по текущей версии расписания.
+     * Если данные у клиента актуальны, ответ переводится в статус 304; в любом случае
+     * в ответ добавляются заголовки ETag и Last-Modified.
+     *
+     * @param request текущий запрос
+     * @param variant вариант представления, если оно зависит не только от URL (например, от пользователя),
+     *                или null
+     * @return true, если отвечать телом не нужно
+     */
+    public boolean checkNotModified(WebRequest request, String variant) {
+        State current = state.updateAndGet(s -> s.observed() ? s : new State(s.version(), s.lastModified(), true));
+        String etag = "\"" + epoch + "-" + current.version() + (variant == null ? "" : "-" + variant) + "\"";
+        if (request.checkNotModified(etag, current.lastModified().toEpochMilli())) {
+            notModified.increment();
+            return true;
+        }
+        fullResponses.increment();
+        return false;
+    }
+
+    public Stats getStats() {
+        State current = state.get();
+        return new Stats(current.version(), current.lastModified(), notModified.sum(), fullResponses.sum());
+    }
+}
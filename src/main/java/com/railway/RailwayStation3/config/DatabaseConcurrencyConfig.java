@@ -0,0 +1,44 @@
+package com.railway.RailwayStation3.config;
+
+import com.railway.RailwayStation3.db.ConcurrencyLimitingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Ограничение одновременных обращений к базе данных в режиме виртуальных потоков.
+ * Включается вместе с виртуальными потоками Spring Boot: {@code spring.threads.virtual.enabled=true}
+ * при запуске на Java 21+.
+ * Размер ограничителя равен размеру пула соединений Hikari.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class DatabaseConcurrencyConfig {
+
+    /**
+     * Оборачивает пул соединений в {@link ConcurrencyLimitingDataSource}.
+     *
+     * @param environment окружение для чтения тайм-аута ожидания
+     * @return постпроцессор бина DataSource
+     */
+    @Bean
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(Environment environment) {
+        long acquireTimeoutMillis = environment.getProperty(
+                "railway.db.limiter.acquire-timeout-ms", Long.class, 30_000L);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConcurrencyLimitingDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -1,19 +1,30 @@
 package com.railway.RailwayStation3.config;
 
+import com.railway.RailwayStation3.security.ApiTokenAuthenticationFilter;
+import com.railway.RailwayStation3.security.ApiTokenService;
+import com.railway.RailwayStation3.security.OffloadingPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.Map;
 
 /**
  * Конфигурация безопасности Spring Security.
  * Настраивает доступ к страницам и API по-разному:
- * - /api/** — без авторизации (для REST)
+ * - /api/** — чтение без авторизации, изменения по токену с ролью ADMIN (для REST)
  * - Остальные пути — через форму входа
  */
 @Configuration
@@ -22,21 +33,39 @@ public class SecurityConfig {
 
     /**
      * Безопасность для REST API (/api/**).
-     * Полностью отключает защиту, сессии и CSRF.
+     * Без сессий и CSRF: GET-запросы открыты, POST/PUT/PATCH/DELETE требуют токен с ролью ADMIN,
+     * выданный через /api/auth/token. Бронирование, отмена и список своих бронирований доступны
+     * любому пользователю с токеном. Токен проверяется по подписи без обращения к базе.
      *
      * @param http HTTP security builder
+     * @param apiTokenService сервис проверки токенов
      * @return настроенная цепочка фильтров
      */
     @Bean
     @Order(1)
-    public SecurityFilterChain apiFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, ApiTokenService apiTokenService) throws Exception {
         http
                 .securityMatcher("/api/**")
-                .authorizeHttpRequests(auth -> auth.anyRequest().permitAll())
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers(HttpMethod.POST, "/api/auth/token").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/bookings").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/bookings").authenticated()
+                        .requestMatchers(HttpMethod.DELETE, "/api/bookings/trains/*/cars/*/seats/*").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PUT, "/api/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.PATCH, "/api/**").hasRole("ADMIN")
+                        .requestMatchers(HttpMethod.DELETE, "/api/**").hasRole("ADMIN")
+                        .anyRequest().permitAll()
+                )
+                .addFilterBefore(new ApiTokenAuthenticationFilter(apiTokenService),
+                        UsernamePasswordAuthenticationFilter.class)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
                 .csrf(csrf -> csrf.disable())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
-                .formLogin(form -> form.disable());
+                .formLogin(form -> form.disable())
+                .httpBasic(basic -> basic.disable());
 
         return http.build();
     }
@@ -52,7 +81,7 @@ public class SecurityConfig {
     public SecurityFilterChain webFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/login", "/register", "/style.css").permitAll()
+                        .requestMatchers("/login", "/register", "/register/check", "/style.css").permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
@@ -61,6 +90,7 @@ public class SecurityConfig {
                         .successHandler((request, response, auth) -> {
                             response.sendRedirect("/");
                         })
+                        .failureHandler(loginFailureHandler())
                 )
                 .logout(logout -> logout
                         .logoutSuccessUrl("/login?logout=true")
@@ -69,14 +99,39 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * Перенаправляет на страницу входа после неудачной попытки. Перегрузка пула хеширования
+     * паролей ({@link AuthenticationServiceException}) отличается от неверного пароля,
+     * чтобы пользователь знал, что попытку стоит повторить.
+     */
+    private AuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error");
+        handler.setExceptionMappings(Map.of(AuthenticationServiceException.class.getName(), "/login?busy"));
+        return handler;
+    }
+
     /**
      * Бин для шифрования паролей.
-     * Используется при регистрации и сохранении пользователей.
+     * Используется при регистрации и входе; BCrypt выполняется на отдельном ограниченном пуле потоков.
+     * Если задано целевое время хеширования, стоимость подбирается под него при запуске.
      *
+     * @param strength стоимость BCrypt (если калибровка выключена)
+     * @param targetMillis целевое время хеширования, мс (0 — без калибровки)
+     * @param threads число потоков хеширования (0 — по числу процессоров)
+     * @param queueCapacity размер очереди ожидающих операций
+     * @param timeoutMillis максимальное ожидание результата, мс
      * @return PasswordEncoder
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadingPasswordEncoder passwordEncoder(
+            @Value("${railway.security.bcrypt.strength:10}") int strength,
+            @Value("${railway.security.bcrypt.target-ms:0}") long targetMillis,
+            @Value("${railway.security.bcrypt.threads:0}") int threads,
+            @Value("${railway.security.bcrypt.queue-capacity:64}") int queueCapacity,
+            @Value("${railway.security.bcrypt.timeout-ms:10000}") long timeoutMillis) {
+        int effectiveStrength = (targetMillis > 0) ? OffloadingPasswordEncoder.calibrateStrength(targetMillis) : strength;
+        int effectiveThreads = (threads > 0) ? threads : Runtime.getRuntime().availableProcessors();
+        return new OffloadingPasswordEncoder(effectiveStrength, effectiveThreads, queueCapacity, timeoutMillis);
     }
-}
\ No newline at end of file
+}
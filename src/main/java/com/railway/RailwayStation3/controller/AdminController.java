@@ -1,9 +1,10 @@
 package com.railway.RailwayStation3.controller;
 
+import com.railway.RailwayStation3.dto.UserPage;
 import com.railway.RailwayStation3.model.Train;
-import com.railway.RailwayStation3.model.User;
 import com.railway.RailwayStation3.service.TrainService;
 import com.railway.RailwayStation3.service.UserService;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
@@ -41,6 +42,7 @@ public class AdminController {
         if (!model.containsAttribute("train")) {
             model.addAttribute("train", new Train());
         }
+        addKnownCities(model);
         return "control/add-train";
     }
 
@@ -112,12 +114,24 @@ public class AdminController {
     public String showUpdateForm(@PathVariable Long id, Model model) {
         Train train = trainService.getTrainById(id);
         model.addAttribute("train", train);
+        addKnownCities(model);
         return "control/update-train";
     }
 
+    /**
+     * Добавляет в модель известные города для подсказок в полях формы поезда.
+     *
+     * @param model модель данных
+     */
+    private void addKnownCities(Model model) {
+        model.addAttribute("fromCities", trainService.getAllUniqueFromCities());
+        model.addAttribute("toCities", trainService.getAllUniqueToCities());
+    }
+
     /**
      * Обновляет данные поезда.
-     * При ошибке валидации возвращает пользователя к той же форме с сообщением.
+     * При ошибке валидации или если поезд уже изменил другой администратор, возвращает пользователя
+     * к той же форме (с актуальными данными) и сообщением.
      *
      * @param train обновлённые данные поезда
      * @param id ID поезда
@@ -134,7 +148,7 @@ public class AdminController {
             trainService.updateTrain(train);
             redirectAttributes.addFlashAttribute("success", "Поезд успешно обновлён");
             return "redirect:/";
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | OptimisticLockingFailureException e) {
             redirectAttributes.addFlashAttribute("error", e.getMessage());
             redirectAttributes.addFlashAttribute("train", train);
             return "redirect:/update-form/" + id;
@@ -142,17 +156,32 @@ public class AdminController {
     }
 
     /**
-     * Отображает панель администратора с пользователями.
+     * Отображает панель администратора с постраничным списком пользователей.
+     * Поддерживает поиск по началу логина, email или телефона.
      * Требует роли ADMIN.
      *
+     * @param q начало логина, email или телефона (необязательно)
+     * @param field поле поиска: username, email или phone
+     * @param cursor курсор страницы
      * @param model модель данных
      * @return имя шаблона "admin-panel"
      */
     @PreAuthorize("hasRole('ADMIN')")
     @GetMapping("/admin")
-    public String adminForm(Model model) {
-        List<User> users = userService.findAll();
-        model.addAttribute("users", users);
+    public String adminForm(@RequestParam(required = false) String q,
+                            @RequestParam(required = false, defaultValue = "username") String field,
+                            @RequestParam(required = false) String cursor,
+                            Model model) {
+        try {
+            UserPage page = userService.findUserPage(q, field, cursor, null);
+            model.addAttribute("users", page.items());
+            model.addAttribute("nextCursor", page.nextCursor());
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("users", List.of());
+            model.addAttribute("error", e.getMessage());
+        }
+        model.addAttribute("q", q);
+        model.addAttribute("field", field);
         return "main/admin-panel";
     }
 
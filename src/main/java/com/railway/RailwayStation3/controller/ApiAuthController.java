@@ -0,0 +1,51 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.dto.TokenRequest;
+import com.railway.RailwayStation3.dto.TokenResponse;
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.security.ApiTokenService;
+import com.railway.RailwayStation3.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+
+/**
+ * REST контроллер выдачи токенов доступа к API.
+ * Токен передаётся в заголовке {@code Authorization: Bearer <токен>} при изменяющих запросах.
+ */
+@RestController
+@RequestMapping(path = "api/auth", produces = "application/json")
+public class ApiAuthController {
+    private final UserService userService;
+    private final ApiTokenService apiTokenService;
+
+    public ApiAuthController(UserService userService, ApiTokenService apiTokenService) {
+        this.userService = userService;
+        this.apiTokenService = apiTokenService;
+    }
+
+    /**
+     * Выдаёт токен по логину и паролю.
+     *
+     * @param request учётные данные
+     * @return ResponseEntity с токеном или сообщением об ошибке
+     */
+    @PostMapping("/token")
+    public ResponseEntity<?> issueToken(@RequestBody TokenRequest request) {
+        try {
+            User user = userService.authenticate(request.username(), request.password());
+            String token = apiTokenService.issue(user);
+            return new ResponseEntity<>(
+                    new TokenResponse(token, "Bearer", apiTokenService.getTtl().toSeconds()), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.UNAUTHORIZED);
+        } catch (AuthenticationServiceException e) {
+            return new ResponseEntity<>("Сервис перегружен, повторите попытку позже", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -1,35 +1,164 @@
 package com.railway.RailwayStation3.controller;
 
+import com.railway.RailwayStation3.cache.TimetableVersion;
+import com.railway.RailwayStation3.dto.TrainPage;
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
 import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.service.TrainExportService;
 import com.railway.RailwayStation3.service.TrainService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 /**
  * REST контроллер для работы с поездами через JSON.
  * Предоставляет полный набор HTTP-методов: GET, POST, PUT, PATCH, DELETE, HEAD, OPTIONS.
+ * Ответы чтения помечаются версией расписания ({@link TimetableVersion}) и поддерживают
+ * условные запросы: при совпадении If-None-Match возвращается 304 без обращения к базе.
  */
 @RestController
 @RequestMapping(path = "api", produces = "application/json")
 public class ApiController {
+    /**
+     * Заголовок с количеством поездов в ответе на HEAD-запрос.
+     */
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
     private final TrainService trainService;
+    private final TrainExportService trainExportService;
+    private final TimetableVersion timetableVersion;
 
-    public ApiController(TrainService trainService) {
+    public ApiController(TrainService trainService, TrainExportService trainExportService,
+                         TimetableVersion timetableVersion) {
         this.trainService = trainService;
+        this.trainExportService = trainExportService;
+        this.timetableVersion = timetableVersion;
     }
 
     /**
-     * Возвращает список всех поездов в формате JSON.
+     * Возвращает страницу поездов в формате JSON.
+     * Для перехода к следующей странице передаётся курсор nextCursor из предыдущего ответа.
      *
-     * @return ResponseEntity со списком поездов
+     * @param cursor курсор страницы (для первой страницы не указывается)
+     * @param size размер страницы
+     * @param fromCity город отправления (необязательно)
+     * @param toCity город прибытия (необязательно)
+     * @param departureDate дата отправления (необязательно)
+     * @param request текущий запрос (для проверки If-None-Match / If-Modified-Since)
+     * @return ResponseEntity со страницей поездов, 304 или сообщение об ошибке
      */
     @GetMapping
-    public ResponseEntity<List<Train>> findAll() {
-        return new ResponseEntity<>(trainService.findAll(), HttpStatus.OK);
+    public ResponseEntity<?> findAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fromCity,
+            @RequestParam(required = false) String toCity,
+            @RequestParam(required = false) LocalDate departureDate,
+            WebRequest request) {
+        if (timetableVersion.checkNotModified(request, null)) {
+            return null;
+        }
+        try {
+            TrainPage page = trainService.findPage(cursor, size, fromCity, toCity, departureDate);
+            return ResponseEntity.ok().cacheControl(TimetableVersion.CACHE_CONTROL).body(page);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Возвращает поезда, отправляющиеся в интервале времени, в порядке отправления.
+     * Интервал может переходить через полночь, например from=2025-06-01T18:00&to=2025-06-02T06:00.
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param city город отправления (необязательно)
+     * @param cursor курсор страницы (для первой страницы не указывается)
+     * @param size размер страницы
+     * @return ResponseEntity со страницей поездов или сообщение об ошибке
+     */
+    @GetMapping("/departures")
+    public ResponseEntity<?> departures(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            TrainPage page = trainService.findDepartures(from, to, city, cursor, size);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Возвращает поезда, прибывающие в интервале времени, в порядке прибытия.
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param city город прибытия (необязательно)
+     * @param cursor курсор страницы (для первой страницы не указывается)
+     * @param size размер страницы
+     * @return ResponseEntity со страницей поездов или сообщение об ошибке
+     */
+    @GetMapping("/arrivals")
+    public ResponseEntity<?> arrivals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        try {
+            TrainPage page = trainService.findArrivals(from, to, city, cursor, size);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Выгружает всё расписание потоком в формате NDJSON (по одному поезду в строке) или CSV.
+     * Ответ формируется по мере чтения из базы и не собирается в памяти целиком.
+     *
+     * @param format формат выгрузки: ndjson (по умолчанию) или csv
+     * @param request текущий запрос (для проверки If-None-Match / If-Modified-Since)
+     * @return ResponseEntity с потоковым телом ответа
+     */
+    @GetMapping(path = "/export", produces = {"application/x-ndjson", "text/csv", "text/plain"})
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false, defaultValue = "ndjson") String format,
+            WebRequest request) {
+        TrainExportService.Format exportFormat;
+        try {
+            exportFormat = TrainExportService.Format.of(format);
+        } catch (IllegalArgumentException e) {
+            byte[] message = e.getMessage().getBytes(StandardCharsets.UTF_8);
+            return ResponseEntity.badRequest()
+                    .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                    .body(out -> out.write(message));
+        }
+
+        if (timetableVersion.checkNotModified(request, null)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .cacheControl(TimetableVersion.CACHE_CONTROL)
+                .contentType(new MediaType(MediaType.parseMediaType(exportFormat.getMediaType()), StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"trains." + exportFormat.getExtension() + "\"")
+                .body(out -> trainExportService.export(exportFormat, out));
     }
 
     /**
@@ -61,20 +190,45 @@ public class ApiController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    /**
+     * Возвращает поезд по ID. Версия поезда передаётся в заголовке ETag
+     * и используется в If-Match при обновлении.
+     *
+     * @param id ID поезда
+     * @return ResponseEntity с поездом или 404, если поезд не найден
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getTrain(@PathVariable Long id) {
+        Train train = trainService.getTrainById(id);
+        if (train == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return ResponseEntity.ok().eTag(versionTag(train)).body(train);
+    }
+
     /**
      * Полностью обновляет поезд по ID.
      * Если данные некорректны, возвращает сообщение об ошибке.
+     * Заголовок If-Match (ETag поезда) или поле version в теле включают проверку версии:
+     * если поезд уже изменён другим клиентом, возвращается 412 (или 409 при проверке по телу).
      *
      * @param id ID поезда
      * @param train обновлённые данные
+     * @param ifMatch ETag версии, которую видел клиент (необязательно)
      * @return ResponseEntity с обновлённым поездом или сообщением об ошибке
      */
     @PutMapping("/update/{id}")
-    public ResponseEntity<?> updateTrain(@PathVariable Long id, @RequestBody Train train) {
+    public ResponseEntity<?> updateTrain(@PathVariable Long id, @RequestBody Train train,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
             train.setId(id);
+            if (ifMatch != null) {
+                train.setVersion(parseVersion(ifMatch));
+            }
             Train updatedTrain = trainService.updateTrain(train);
-            return new ResponseEntity<>(updatedTrain, HttpStatus.OK);
+            return ResponseEntity.ok().eTag(versionTag(updatedTrain)).body(updatedTrain);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(e.getMessage(), conflictStatus(ifMatch));
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -83,31 +237,55 @@ public class ApiController {
     /**
      * Частично обновляет поезд по ID.
      * Принимает Map с полями, которые нужно изменить.
+     * Заголовок If-Match (ETag поезда) включает проверку версии; в любом случае изменения
+     * не перезапишут правки, сделанные другим клиентом между чтением и записью.
      *
      * @param id ID поезда
      * @param updates поля для обновления
+     * @param ifMatch ETag версии, которую видел клиент (необязательно)
      * @return ResponseEntity с обновлённым поездом или сообщением об ошибке
      */
     @PatchMapping("/{id}")
     public ResponseEntity<?> partialUpdateTrain(
             @PathVariable Long id,
-            @RequestBody Map<String, Object> updates) {
+            @RequestBody Map<String, Object> updates,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         try {
-            Train updatedTrain = trainService.partialUpdate(id, updates);
-            return new ResponseEntity<>(updatedTrain, HttpStatus.OK);
+            Long expectedVersion = (ifMatch == null) ? null : parseVersion(ifMatch);
+            Train updatedTrain = trainService.partialUpdate(id, updates, expectedVersion);
+            return ResponseEntity.ok().eTag(versionTag(updatedTrain)).body(updatedTrain);
+        } catch (OptimisticLockingFailureException e) {
+            return new ResponseEntity<>(e.getMessage(), conflictStatus(ifMatch));
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
     /**
-     * Возвращает только заголовки ответа без тела.
+     * Возвращает только заголовки ответа без тела: ETag и Last-Modified текущей версии расписания
+     * и количество подходящих поездов в заголовке X-Total-Count.
+     * Позволяет клиенту дёшево проверить, изменилось ли расписание.
      *
-     * @return пустой ответ с метаданными
+     * @param fromCity город отправления (необязательно)
+     * @param toCity город прибытия (необязательно)
+     * @param departureDate дата отправления (необязательно)
+     * @param request текущий запрос (для проверки If-None-Match / If-Modified-Since)
+     * @return пустой ответ с метаданными или 304
      */
     @RequestMapping(method = RequestMethod.HEAD)
-    public ResponseEntity<?> headTrains() {
-        return ResponseEntity.ok().build();
+    public ResponseEntity<?> headTrains(
+            @RequestParam(required = false) String fromCity,
+            @RequestParam(required = false) String toCity,
+            @RequestParam(required = false) LocalDate departureDate,
+            WebRequest request) {
+        if (timetableVersion.checkNotModified(request, null)) {
+            return null;
+        }
+        long total = trainService.countByFilters(TrainSearchCriteria.route(fromCity, toCity, departureDate));
+        return ResponseEntity.ok()
+                .cacheControl(TimetableVersion.CACHE_CONTROL)
+                .header(TOTAL_COUNT_HEADER, Long.toString(total))
+                .build();
     }
 
     /**
@@ -133,4 +311,31 @@ public class ApiController {
                 .header("Allow", "GET, PUT, PATCH, DELETE, HEAD, OPTIONS")
                 .build();
     }
-}
\ No newline at end of file
+
+    private static String versionTag(Train train) {
+        return "\"" + train.getVersion() + "\"";
+    }
+
+    /**
+     * Разбирает If-Match: ETag поезда ("3", W/"3") или * (любая версия).
+     * Нераспознанное значение не совпадёт ни с одной версией.
+     */
+    private static Long parseVersion(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private static HttpStatus conflictStatus(String ifMatch) {
+        return (ifMatch != null) ? HttpStatus.PRECONDITION_FAILED : HttpStatus.CONFLICT;
+    }
+}
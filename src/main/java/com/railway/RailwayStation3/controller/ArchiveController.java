@@ -0,0 +1,51 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.dto.ArchivePage;
+import com.railway.RailwayStation3.service.TrainArchiver;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * REST контроллер архива прибывших поездов (только чтение).
+ */
+@RestController
+@RequestMapping(path = "api/archive", produces = "application/json")
+public class ArchiveController {
+    private final TrainArchiver trainArchiver;
+
+    public ArchiveController(TrainArchiver trainArchiver) {
+        this.trainArchiver = trainArchiver;
+    }
+
+    /**
+     * Возвращает страницу архивных поездов в формате JSON.
+     * Для перехода к следующей странице передаётся курсор nextCursor из предыдущего ответа.
+     *
+     * @param cursor курсор страницы (для первой страницы не указывается)
+     * @param size размер страницы
+     * @param fromCity город отправления (необязательно)
+     * @param toCity город прибытия (необязательно)
+     * @param departureDate дата отправления (необязательно)
+     * @return ResponseEntity со страницей архива или сообщением об ошибке
+     */
+    @GetMapping
+    public ResponseEntity<?> findAll(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(required = false) String fromCity,
+            @RequestParam(required = false) String toCity,
+            @RequestParam(required = false) LocalDate departureDate) {
+        try {
+            ArchivePage page = trainArchiver.findPage(cursor, size, fromCity, toCity, departureDate);
+            return new ResponseEntity<>(page, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package com.railway.RailwayStation3.controller;
 
 import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.service.UserAvailabilityService;
 import com.railway.RailwayStation3.service.UserService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.util.Map;
 
 /**
  * Контроллер, отвечающий за аутентификацию(вход/регистрация).
@@ -15,9 +22,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 public class AuthController {
 
     private final UserService userService;
+    private final UserAvailabilityService userAvailabilityService;
 
-    public AuthController(UserService userService) {
+    public AuthController(UserService userService, UserAvailabilityService userAvailabilityService) {
         this.userService = userService;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     /**
@@ -62,4 +71,23 @@ public class AuthController {
             return "auth/register";
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Проверяет, свободен ли логин или email, во время ввода на странице регистрации.
+     * Свободные значения определяются по фильтру Блума без обращения к базе.
+     *
+     * @param field поле: username или email
+     * @param value проверяемое значение
+     * @return JSON с полем available или сообщение об ошибке
+     */
+    @GetMapping(path = "/register/check", produces = "application/json")
+    @ResponseBody
+    public ResponseEntity<?> checkAvailability(@RequestParam String field, @RequestParam String value) {
+        try {
+            boolean available = userAvailabilityService.isAvailable(UserAvailabilityService.Field.of(field), value);
+            return new ResponseEntity<>(Map.of("field", field, "available", available), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("error", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
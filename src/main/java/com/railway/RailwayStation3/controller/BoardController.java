@@ -0,0 +1,43 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.dto.DepartureBoard;
+import com.railway.RailwayStation3.service.DepartureBoardService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST контроллер табло отправлений вокзала.
+ */
+@RestController
+@RequestMapping(path = "api/board", produces = "application/json")
+public class BoardController {
+    private final DepartureBoardService departureBoardService;
+
+    public BoardController(DepartureBoardService departureBoardService) {
+        this.departureBoardService = departureBoardService;
+    }
+
+    /**
+     * Возвращает ближайшие отправления с вокзала.
+     *
+     * @param city город вокзала
+     * @param station вокзал отправления
+     * @param limit количество поездов (необязательно)
+     * @return ResponseEntity с табло или сообщением об ошибке
+     */
+    @GetMapping
+    public ResponseEntity<?> board(@RequestParam(required = false) String city,
+                                   @RequestParam(required = false) String station,
+                                   @RequestParam(required = false) Integer limit) {
+        try {
+            DepartureBoard board = departureBoardService.board(city, station, limit);
+            return new ResponseEntity<>(board, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.service.DepartureBoardService;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Контроллер страницы табло отправлений.
+ * Страница обновляет табло сама, запрашивая /api/board.
+ */
+@Controller
+public class BoardPageController {
+    private final DepartureBoardService departureBoardService;
+
+    public BoardPageController(DepartureBoardService departureBoardService) {
+        this.departureBoardService = departureBoardService;
+    }
+
+    /**
+     * Отображает табло отправлений выбранного вокзала.
+     *
+     * @param city город вокзала
+     * @param station вокзал отправления (если город или вокзал не указан — только форма выбора вокзала)
+     * @param model модель данных для представления
+     * @return имя шаблона "board"
+     */
+    @GetMapping("/board")
+    public String showBoard(@RequestParam(required = false) String city,
+                            @RequestParam(required = false) String station, Model model) {
+        if (city != null && !city.isBlank() && station != null && !station.isBlank()) {
+            try {
+                model.addAttribute("board", departureBoardService.board(city, station, null));
+            } catch (IllegalArgumentException e) {
+                model.addAttribute("error", e.getMessage());
+            }
+        }
+        model.addAttribute("city", city);
+        model.addAttribute("station", station);
+        return "main/board";
+    }
+}
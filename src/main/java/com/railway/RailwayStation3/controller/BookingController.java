@@ -0,0 +1,114 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.booking.BookingEngine;
+import com.railway.RailwayStation3.dto.BookingRequest;
+import com.railway.RailwayStation3.model.Booking;
+import com.railway.RailwayStation3.model.SeatInventory;
+import com.railway.RailwayStation3.service.BookingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST контроллер бронирования мест.
+ * Бронировать и отменять бронирования может любой пользователь с токеном API,
+ * схему вагонов задаёт администратор.
+ */
+@RestController
+@RequestMapping(path = "api/bookings", produces = "application/json")
+public class BookingController {
+    private final BookingService bookingService;
+
+    public BookingController(BookingService bookingService) {
+        this.bookingService = bookingService;
+    }
+
+    /**
+     * Бронирует место. Ответ отправляется после сохранения бронирования в базе.
+     *
+     * @param request поезд и, при необходимости, вагон и место
+     * @param authentication текущий пользователь
+     * @return ResponseEntity с бронированием или сообщением об ошибке
+     */
+    @PostMapping
+    public ResponseEntity<?> book(@RequestBody BookingRequest request, Authentication authentication) {
+        try {
+            Booking booking = bookingService.book(request, authentication.getName());
+            return new ResponseEntity<>(booking, HttpStatus.CREATED);
+        } catch (BookingEngine.SeatUnavailableException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.CONFLICT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Возвращает бронирования текущего пользователя.
+     *
+     * @param authentication текущий пользователь
+     * @return ResponseEntity со списком бронирований
+     */
+    @GetMapping
+    public ResponseEntity<?> myBookings(Authentication authentication) {
+        return new ResponseEntity<>(bookingService.findByUsername(authentication.getName()), HttpStatus.OK);
+    }
+
+    /**
+     * Возвращает свободные места поезда.
+     *
+     * @param trainId ID поезда
+     * @return ResponseEntity со свободными местами или сообщением об ошибке
+     */
+    @GetMapping("/trains/{trainId}")
+    public ResponseEntity<?> availability(@PathVariable Long trainId) {
+        try {
+            return new ResponseEntity<>(bookingService.availability(trainId), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * Задаёт схему вагонов поезда (только для администратора).
+     *
+     * @param trainId ID поезда
+     * @param inventory количество вагонов и мест в вагоне
+     * @return ResponseEntity со схемой или сообщением об ошибке
+     */
+    @PutMapping("/trains/{trainId}/inventory")
+    public ResponseEntity<?> updateInventory(@PathVariable Long trainId, @RequestBody SeatInventory inventory) {
+        try {
+            SeatInventory saved = bookingService.updateInventory(trainId, inventory.getCars(), inventory.getSeatsPerCar());
+            return new ResponseEntity<>(saved, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    /**
+     * Отменяет бронирование места.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона
+     * @param seat номер места
+     * @param authentication текущий пользователь
+     * @return ResponseEntity без тела или с сообщением об ошибке
+     */
+    @DeleteMapping("/trains/{trainId}/cars/{car}/seats/{seat}")
+    public ResponseEntity<?> cancel(@PathVariable Long trainId, @PathVariable int car, @PathVariable int seat,
+                                    Authentication authentication) {
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        try {
+            bookingService.cancel(trainId, car, seat, authentication.getName(), admin);
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.NOT_FOUND);
+        }
+    }
+}
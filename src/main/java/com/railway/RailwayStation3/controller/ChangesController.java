@@ -0,0 +1,47 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.dto.TrainChanges;
+import com.railway.RailwayStation3.service.TrainChangeLog;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST контроллер дельта-синхронизации расписания.
+ */
+@RestController
+@RequestMapping(path = "api/changes", produces = "application/json")
+public class ChangesController {
+    private final TrainChangeLog trainChangeLog;
+
+    public ChangesController(TrainChangeLog trainChangeLog) {
+        this.trainChangeLog = trainChangeLog;
+    }
+
+    /**
+     * Возвращает поезда, созданные, изменённые или удалённые после указанного номера изменения.
+     * Первая синхронизация выполняется с since=0; следующий запрос передаёт nextSince из ответа.
+     * Если hasMore = true, порцию нужно сразу запросить ещё раз.
+     *
+     * @param since последний номер изменения, известный клиенту (по умолчанию 0)
+     * @param limit размер порции (необязательно)
+     * @return ResponseEntity с изменениями, 410 если клиенту нужна полная синхронизация,
+     * или сообщение об ошибке
+     */
+    @GetMapping
+    public ResponseEntity<?> changes(
+            @RequestParam(required = false, defaultValue = "0") long since,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            TrainChanges changes = trainChangeLog.changesSince(since, limit);
+            return new ResponseEntity<>(changes, HttpStatus.OK);
+        } catch (TrainChangeLog.ChangesExpiredException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.GONE);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.event.TrainChangeFeed;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST контроллер живой ленты изменений расписания (Server-Sent Events).
+ */
+@RestController
+@RequestMapping(path = "api/feed")
+public class FeedController {
+    private final TrainChangeFeed trainChangeFeed;
+
+    public FeedController(TrainChangeFeed trainChangeFeed) {
+        this.trainChangeFeed = trainChangeFeed;
+    }
+
+    /**
+     * Открывает поток событий created, updated и deleted по поездам.
+     * Без фильтров приходят все изменения расписания.
+     *
+     * @param city город отправления или прибытия (необязательно)
+     * @param station вокзал отправления или прибытия (необязательно)
+     * @return ResponseEntity с потоком событий или 503, если подписчиков слишком много
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribe(
+            @RequestParam(required = false) String city,
+            @RequestParam(required = false) String station) {
+        try {
+            SseEmitter emitter = trainChangeFeed.subscribe(city, station);
+            // Прокси (nginx) не должен буферизовать поток событий
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.dto.Journey;
+import com.railway.RailwayStation3.journey.JourneyPlanner;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * REST контроллер планирования маршрутов с пересадками.
+ */
+@RestController
+@RequestMapping(path = "api/journeys", produces = "application/json")
+public class JourneyController {
+    private final JourneyPlanner journeyPlanner;
+
+    public JourneyController(JourneyPlanner journeyPlanner) {
+        this.journeyPlanner = journeyPlanner;
+    }
+
+    /**
+     * Ищет маршруты между городами с отправлением не раньше указанного времени.
+     * Возвращает Парето-оптимальные варианты: каждый следующий с большим числом пересадок прибывает раньше.
+     *
+     * @param fromCity город отправления
+     * @param toCity город прибытия
+     * @param departureDate дата отправления
+     * @param departureTime самое раннее время отправления (по умолчанию 00:00)
+     * @param maxTransfers максимальное число пересадок (необязательно)
+     * @param minTransferMinutes минимальное время пересадки в минутах (необязательно)
+     * @return ResponseEntity со списком маршрутов или сообщением об ошибке
+     */
+    @GetMapping
+    public ResponseEntity<?> findJourneys(
+            @RequestParam String fromCity,
+            @RequestParam String toCity,
+            @RequestParam LocalDate departureDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime departureTime,
+            @RequestParam(required = false) Integer maxTransfers,
+            @RequestParam(required = false) Integer minTransferMinutes) {
+        try {
+            LocalDateTime departure = LocalDateTime.of(departureDate,
+                    (departureTime == null) ? LocalTime.MIDNIGHT : departureTime);
+            List<Journey> journeys = journeyPlanner.plan(fromCity, toCity, departure, maxTransfers, minTransferMinutes);
+            return new ResponseEntity<>(journeys, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+}
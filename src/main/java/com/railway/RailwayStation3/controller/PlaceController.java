@@ -0,0 +1,46 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.index.PlaceSuggestions;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST контроллер подсказок для ввода городов и вокзалов.
+ */
+@RestController
+@RequestMapping(path = "api/places", produces = "application/json")
+public class PlaceController {
+    private static final int MAX_LIMIT = 50;
+
+    private final PlaceSuggestions placeSuggestions;
+
+    public PlaceController(PlaceSuggestions placeSuggestions) {
+        this.placeSuggestions = placeSuggestions;
+    }
+
+    /**
+     * Возвращает города и вокзалы, название которых начинается с префикса (без учёта регистра),
+     * по убыванию количества поездов.
+     *
+     * @param prefix начало названия
+     * @param type city или station (необязательно)
+     * @param limit количество подсказок (по умолчанию 10)
+     * @return ResponseEntity со списком подсказок или сообщением об ошибке
+     */
+    @GetMapping
+    public ResponseEntity<?> suggest(@RequestParam String prefix,
+                                     @RequestParam(required = false) String type,
+                                     @RequestParam(required = false, defaultValue = "10") int limit) {
+        if (type != null && !type.equals(PlaceSuggestions.CITY) && !type.equals(PlaceSuggestions.STATION)) {
+            return new ResponseEntity<>("Неизвестный тип места: " + type, HttpStatus.BAD_REQUEST);
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            return new ResponseEntity<>("Количество подсказок должно быть от 1 до " + MAX_LIMIT, HttpStatus.BAD_REQUEST);
+        }
+        return new ResponseEntity<>(placeSuggestions.suggest(prefix, type, limit), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,95 @@
+package com.railway.RailwayStation3.controller;
+
+import com.railway.RailwayStation3.model.TrainSchedule;
+import com.railway.RailwayStation3.service.TrainScheduleService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST контроллер регулярных расписаний поездов.
+ * Рейсы по расписаниям не хранятся отдельно: они появляются в результатах поиска поездов
+ * на даты, в которые поезд отправляется.
+ */
+@RestController
+@RequestMapping(path = "api/schedules", produces = "application/json")
+public class ScheduleController {
+    private final TrainScheduleService trainScheduleService;
+
+    public ScheduleController(TrainScheduleService trainScheduleService) {
+        this.trainScheduleService = trainScheduleService;
+    }
+
+    /**
+     * Возвращает все регулярные расписания.
+     *
+     * @return ResponseEntity со списком расписаний
+     */
+    @GetMapping
+    public ResponseEntity<List<TrainSchedule>> findAll() {
+        return new ResponseEntity<>(trainScheduleService.findAll(), HttpStatus.OK);
+    }
+
+    /**
+     * Возвращает расписание по ID.
+     *
+     * @param id ID расписания
+     * @return ResponseEntity с расписанием или 404, если расписание не найдено
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<?> getSchedule(@PathVariable Long id) {
+        TrainSchedule schedule = trainScheduleService.getScheduleById(id);
+        if (schedule == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        return new ResponseEntity<>(schedule, HttpStatus.OK);
+    }
+
+    /**
+     * Добавляет новое расписание из JSON-тела запроса.
+     *
+     * @param schedule данные расписания
+     * @return ResponseEntity с созданным расписанием или сообщением об ошибке
+     */
+    @PostMapping
+    public ResponseEntity<?> createSchedule(@RequestBody TrainSchedule schedule) {
+        try {
+            TrainSchedule saved = trainScheduleService.createSchedule(schedule);
+            return new ResponseEntity<>(saved, HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Полностью обновляет расписание по ID.
+     *
+     * @param id ID расписания
+     * @param schedule обновлённые данные
+     * @return ResponseEntity с обновлённым расписанием или сообщением об ошибке
+     */
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateSchedule(@PathVariable Long id, @RequestBody TrainSchedule schedule) {
+        try {
+            schedule.setId(id);
+            TrainSchedule updated = trainScheduleService.updateSchedule(schedule);
+            return new ResponseEntity<>(updated, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Удаляет расписание по ID.
+     *
+     * @param id ID расписания
+     * @return ResponseEntity без тела
+     */
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteSchedule(@PathVariable Long id) {
+        trainScheduleService.deleteSchedule(id);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
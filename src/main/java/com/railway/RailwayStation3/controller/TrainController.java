@@ -1,16 +1,25 @@
 package com.railway.RailwayStation3.controller;
 
+import com.railway.RailwayStation3.cache.TimetableVersion;
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
 import com.railway.RailwayStation3.model.Train;
 import com.railway.RailwayStation3.service.StatsService;
 import com.railway.RailwayStation3.service.TrainService;
 import com.railway.RailwayStation3.service.UserService;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Контроллер для отображения расписания поездов.
@@ -21,41 +30,66 @@ public class TrainController {
     private final TrainService trainService;
     private final UserService userService;
     private final StatsService statsService;
+    private final TimetableVersion timetableVersion;
 
-    public TrainController(TrainService trainService, UserService userService, StatsService statsService) {
+    public TrainController(TrainService trainService, UserService userService, StatsService statsService,
+                           TimetableVersion timetableVersion) {
         this.trainService = trainService;
         this.userService = userService;
         this.statsService = statsService;
+        this.timetableVersion = timetableVersion;
     }
 
     /**
      * Отображает таблицу с расписанием поездов.
-     * Может применять фильтры (город отправления, город прибытия, дата) и сортировку по любому из столбцов.
+     * Может применять любую комбинацию фильтров (города, вокзалы, диапазон дат, окно времени отправления)
+     * и сортировку по любому из столбцов.
+     * Если расписание не менялось с прошлого запроса этого же пользователя, возвращает 304.
      *
      * @param fromCity город отправления
      * @param toCity город прибытия
-     * @param departureDate дата отправления
+     * @param departureStation вокзал отправления
+     * @param arrivalStation вокзал прибытия
+     * @param departureDate дата отправления (или начало диапазона дат)
+     * @param departureDateTo конец диапазона дат (если не указан — только дата departureDate)
+     * @param departureTimeFrom начало окна времени отправления
+     * @param departureTimeTo конец окна времени отправления
      * @param sortBy поле для сортировки (по умолчанию — id)
+     * @param webRequest текущий запрос (для проверки If-None-Match / If-Modified-Since)
      * @param model модель данных для представления
-     * @return имя шаблона "index"
+     * @return имя шаблона "index" или null, если отправлен ответ 304
      */
     @GetMapping
     public String findAll(
             @RequestParam(required = false) String fromCity,
             @RequestParam(required = false) String toCity,
+            @RequestParam(required = false) String departureStation,
+            @RequestParam(required = false) String arrivalStation,
             @RequestParam(required = false) LocalDate departureDate,
+            @RequestParam(required = false) LocalDate departureDateTo,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime departureTimeFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.TIME) LocalTime departureTimeTo,
             @RequestParam(required = false, defaultValue = "id") String sortBy,
             RedirectAttributes redirectAttributes,
+            ServletWebRequest webRequest,
             Model model) {
 
+        // Страница с сообщением об ошибке показывается один раз и не должна заменяться копией из кэша
+        if (!model.containsAttribute("error")) {
+            if (timetableVersion.checkNotModified(webRequest, pageVariant(webRequest))) {
+                return null;
+            }
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL,
+                    CacheControl.noCache().cachePrivate().getHeaderValue());
+        }
+
         try {
-            List<Train> trains = trainService.findByFilters(fromCity, toCity, departureDate, sortBy);
-            List<String> allFromCities = trainService.getAllUniqueFromCities();
-            List<String> allToCities = trainService.getAllUniqueToCities();
+            TrainSearchCriteria criteria = new TrainSearchCriteria(fromCity, toCity, departureStation, arrivalStation,
+                    departureDate, (departureDateTo != null) ? departureDateTo : departureDate,
+                    departureTimeFrom, departureTimeTo);
+            List<Train> trains = trainService.findByFilters(criteria, sortBy);
 
             model.addAttribute("trains", trains);
-            model.addAttribute("allFromCities", allFromCities);
-            model.addAttribute("allToCities", allToCities);
             model.addAttribute("fromCity", fromCity);
             model.addAttribute("toCity", toCity);
             model.addAttribute("departureDate", departureDate);
@@ -68,4 +102,14 @@ public class TrainController {
         }
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Вариант страницы для ETag: разметка зависит от пользователя (кнопки администратора)
+     * и его сессии (CSRF-токен в формах).
+     */
+    private String pageVariant(ServletWebRequest webRequest) {
+        HttpSession session = webRequest.getRequest().getSession(false);
+        String sessionId = (session == null) ? null : session.getId();
+        return Integer.toHexString(Objects.hash(webRequest.getRemoteUser(), sessionId));
+    }
+}
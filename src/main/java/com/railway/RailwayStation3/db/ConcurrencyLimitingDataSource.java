@@ -0,0 +1,148 @@
+package com.railway.RailwayStation3.db;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Источник данных, ограничивающий число одновременно выданных соединений.
+ * <p>
+ * При обработке запросов в виртуальных потоках число ожидающих соединения потоков не ограничено
+ * размером пула Tomcat. Семафор размером с пул соединений ставит их в справедливую очередь
+ * до обращения к пулу и позволяет измерять время ожидания.
+ * Закрытие источника закрывает пул, поэтому обёртка может заменять бин пула в контексте.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource implements Closeable {
+
+    /**
+     * Показатели работы ограничителя.
+     *
+     * @param permits размер ограничителя (число соединений)
+     * @param inUse занятые разрешения
+     * @param waiting потоки в очереди
+     * @param acquisitions выданные соединения
+     * @param timeouts отказы по тайм-ауту ожидания
+     * @param averageWaitMillis среднее время ожидания, мс
+     * @param maxWaitMillis максимальное время ожидания, мс
+     */
+    public record Stats(int permits, int inUse, int waiting, long acquisitions, long timeouts,
+                        double averageWaitMillis, double maxWaitMillis) {
+    }
+
+    private final Semaphore semaphore;
+    private final int permits;
+    private final long acquireTimeoutMillis;
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public ConcurrencyLimitingDataSource(DataSource target, int permits, long acquireTimeoutMillis) {
+        super(target);
+        this.semaphore = new Semaphore(permits, true);
+        this.permits = permits;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        acquire();
+        try {
+            return releasingOnClose(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    public Stats getStats() {
+        long count = acquisitions.sum();
+        double averageWait = (count == 0) ? 0.0 : totalWaitNanos.sum() / 1_000_000.0 / count;
+        return new Stats(permits, permits - semaphore.availablePermits(), semaphore.getQueueLength(),
+                count, timeouts.sum(), averageWait, maxWaitNanos.get() / 1_000_000.0);
+    }
+
+    /**
+     * Закрывает пул соединений, если он поддерживает закрытие.
+     */
+    @Override
+    public void close() {
+        if (getTargetDataSource() instanceof Closeable pool) {
+            try {
+                pool.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void acquire() throws SQLException {
+        long started = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Прервано ожидание соединения с базой данных", e);
+        }
+        long waited = System.nanoTime() - started;
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException(
+                    "Не удалось получить соединение с базой данных за " + acquireTimeoutMillis + " мс");
+        }
+        acquisitions.increment();
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulate(waited);
+    }
+
+    /**
+     * Оборачивает соединение так, чтобы его закрытие (возврат в пул) освобождало разрешение ровно один раз.
+     */
+    private Connection releasingOnClose(Connection connection) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            semaphore.release();
+                        }
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,16 @@
+package com.railway.RailwayStation3.dto;
+
+import com.railway.RailwayStation3.model.ArchivedTrain;
+
+import java.util.List;
+
+/**
+ * Страница архива поездов для постраничной выдачи через REST API.
+ * Курсор кодируется так же, как в {@link TrainPage}.
+ *
+ * @param items архивные поезда текущей страницы, упорядоченные по ID
+ * @param nextCursor курсор для запроса следующей страницы или null, если страница последняя
+ * @param size количество поездов на странице
+ */
+public record ArchivePage(List<ArchivedTrain> items, String nextCursor, int size) {
+}
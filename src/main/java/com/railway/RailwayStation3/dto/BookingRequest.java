@@ -0,0 +1,11 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Запрос на бронирование места.
+ *
+ * @param trainId ID поезда
+ * @param car номер вагона или null (любой вагон)
+ * @param seat номер места или null (любое свободное место)
+ */
+public record BookingRequest(Long trainId, Integer car, Integer seat) {
+}
@@ -0,0 +1,17 @@
+package com.railway.RailwayStation3.dto;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Табло отправлений вокзала.
+ *
+ * @param city город вокзала
+ * @param station вокзал отправления
+ * @param generatedAt момент, начиная с которого показаны отправления
+ * @param departures ближайшие поезда в порядке отправления
+ */
+public record DepartureBoard(String city, String station, LocalDateTime generatedAt, List<Train> departures) {
+}
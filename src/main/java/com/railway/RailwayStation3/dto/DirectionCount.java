@@ -0,0 +1,10 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Направление и количество поездов по нему.
+ *
+ * @param direction направление в формате «Город отправления → Город прибытия»
+ * @param count количество поездов
+ */
+public record DirectionCount(String direction, long count) {
+}
@@ -0,0 +1,17 @@
+package com.railway.RailwayStation3.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Маршрут с пересадками.
+ *
+ * @param legs участки маршрута в порядке следования
+ * @param transfers число пересадок
+ * @param departure отправление с первого участка
+ * @param arrival прибытие последнего участка
+ * @param durationMinutes время в пути от отправления до прибытия, мин
+ */
+public record Journey(List<JourneyLeg> legs, int transfers,
+                      LocalDateTime departure, LocalDateTime arrival, long durationMinutes) {
+}
@@ -0,0 +1,21 @@
+package com.railway.RailwayStation3.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Участок маршрута — поездка на одном поезде.
+ *
+ * @param trainId ID поезда
+ * @param number номер поезда
+ * @param fromCity город отправления
+ * @param departureStation вокзал отправления
+ * @param toCity город прибытия
+ * @param arrivalStation вокзал прибытия
+ * @param departure дата и время отправления
+ * @param arrival дата и время прибытия
+ */
+public record JourneyLeg(Long trainId, String number,
+                         String fromCity, String departureStation,
+                         String toCity, String arrivalStation,
+                         LocalDateTime departure, LocalDateTime arrival) {
+}
@@ -0,0 +1,12 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Подсказка для ввода города или вокзала.
+ *
+ * @param name название
+ * @param type тип: city или station
+ * @param city город вокзала (для городов совпадает с названием)
+ * @param trains количество поездов, обслуживающих место
+ */
+public record PlaceSuggestion(String name, String type, String city, long trains) {
+}
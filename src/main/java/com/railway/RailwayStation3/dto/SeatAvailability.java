@@ -0,0 +1,13 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Свободные места поезда.
+ *
+ * @param trainId ID поезда
+ * @param cars количество вагонов
+ * @param seatsPerCar количество мест в вагоне
+ * @param free свободных мест всего
+ * @param freeByCar свободных мест по вагонам (первый элемент — вагон 1)
+ */
+public record SeatAvailability(long trainId, int cars, int seatsPerCar, int free, int[] freeByCar) {
+}
@@ -0,0 +1,10 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Учётные данные для получения токена доступа к API.
+ *
+ * @param username логин
+ * @param password пароль
+ */
+public record TokenRequest(String username, String password) {
+}
@@ -0,0 +1,11 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Выданный токен доступа к API.
+ *
+ * @param accessToken подписанный токен для заголовка Authorization
+ * @param tokenType тип токена (Bearer)
+ * @param expiresIn срок действия в секундах
+ */
+public record TokenResponse(String accessToken, String tokenType, long expiresIn) {
+}
@@ -0,0 +1,16 @@
+package com.railway.RailwayStation3.dto;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.util.List;
+
+/**
+ * Изменения расписания после номера изменения, известного клиенту (дельта-синхронизация).
+ *
+ * @param updated созданные или изменённые поезда в порядке номеров изменений
+ * @param deleted ID удалённых поездов
+ * @param nextSince номер изменения для следующего запроса (параметр since)
+ * @param hasMore true, если изменений больше, чем поместилось в ответ, и нужно запросить следующую порцию
+ */
+public record TrainChanges(List<Train> updated, List<Long> deleted, long nextSince, boolean hasMore) {
+}
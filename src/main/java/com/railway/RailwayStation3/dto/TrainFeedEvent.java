@@ -0,0 +1,13 @@
+package com.railway.RailwayStation3.dto;
+
+import com.railway.RailwayStation3.model.Train;
+
+/**
+ * Событие живой ленты изменений расписания (/api/feed).
+ *
+ * @param type тип изменения: created, updated или deleted
+ * @param trainId ID поезда
+ * @param train состояние поезда после изменения (null при удалении)
+ */
+public record TrainFeedEvent(String type, Long trainId, Train train) {
+}
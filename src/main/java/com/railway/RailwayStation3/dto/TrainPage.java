@@ -0,0 +1,88 @@
+package com.railway.RailwayStation3.dto;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Страница списка поездов для постраничной выдачи через REST API.
+ *
+ * @param items поезда текущей страницы, упорядоченные по ID
+ * @param nextCursor курсор для запроса следующей страницы или null, если страница последняя
+ * @param size количество поездов на странице
+ */
+public record TrainPage(List<Train> items, String nextCursor, int size) {
+
+    /**
+     * Кодирует ID последнего поезда страницы в непрозрачный курсор.
+     *
+     * @param lastId ID последнего поезда страницы
+     * @return курсор следующей страницы
+     */
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Раскодирует курсор страницы.
+     *
+     * @param cursor курсор или null для первой страницы
+     * @return ID, после которого начинается страница
+     */
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+
+    /**
+     * Позиция страницы при выдаче в порядке времени: момент и ID последнего поезда страницы.
+     *
+     * @param at момент отправления или прибытия
+     * @param id ID поезда
+     */
+    public record TimeCursor(LocalDateTime at, long id) {
+    }
+
+    /**
+     * Кодирует позицию последнего поезда страницы, упорядоченной по времени, в непрозрачный курсор.
+     *
+     * @param at момент отправления или прибытия последнего поезда страницы
+     * @param lastId ID последнего поезда страницы
+     * @return курсор следующей страницы
+     */
+    public static String encodeCursor(LocalDateTime at, long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((at + "|" + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Раскодирует курсор страницы, упорядоченной по времени.
+     *
+     * @param cursor курсор или null для первой страницы
+     * @return позиция, после которой начинается страница, или null для первой страницы
+     */
+    public static TimeCursor decodeTimeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+            int separator = value.indexOf('|');
+            return new TimeCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+}
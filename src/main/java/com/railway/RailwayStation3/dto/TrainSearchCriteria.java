@@ -0,0 +1,63 @@
+package com.railway.RailwayStation3.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Условия поиска поездов. Любое поле может быть пустым (null) — тогда оно не ограничивает выборку.
+ *
+ * @param fromCity город отправления
+ * @param toCity город прибытия
+ * @param departureStation вокзал отправления
+ * @param arrivalStation вокзал прибытия
+ * @param departureDateFrom начало диапазона дат отправления (включительно)
+ * @param departureDateTo конец диапазона дат отправления (включительно)
+ * @param departureTimeFrom начало окна времени отправления (включительно)
+ * @param departureTimeTo конец окна времени отправления (включительно); если раньше начала — окно через полночь
+ */
+public record TrainSearchCriteria(String fromCity, String toCity,
+                                  String departureStation, String arrivalStation,
+                                  LocalDate departureDateFrom, LocalDate departureDateTo,
+                                  LocalTime departureTimeFrom, LocalTime departureTimeTo) {
+
+    /**
+     * Условия поиска по маршруту и одной дате.
+     */
+    public static TrainSearchCriteria route(String fromCity, String toCity, LocalDate departureDate) {
+        return new TrainSearchCriteria(fromCity, toCity, null, null, departureDate, departureDate, null, null);
+    }
+
+    /**
+     * Возвращает копию условий с обрезанными пробелами и пустыми строками, заменёнными на null.
+     */
+    public TrainSearchCriteria normalized() {
+        return new TrainSearchCriteria(trimToNull(fromCity), trimToNull(toCity),
+                trimToNull(departureStation), trimToNull(arrivalStation),
+                departureDateFrom, departureDateTo, departureTimeFrom, departureTimeTo);
+    }
+
+    /**
+     * @return true, если не задано ни одного условия
+     */
+    public boolean isEmpty() {
+        return fromCity == null && toCity == null && departureStation == null && arrivalStation == null
+                && departureDateFrom == null && departureDateTo == null
+                && departureTimeFrom == null && departureTimeTo == null;
+    }
+
+    /**
+     * Совпадает ли запрос с формой, которую обслуживает индекс в памяти: маршрут и ровно одна дата.
+     *
+     * @return true для поиска по (город отправления, город прибытия, дата)
+     */
+    public boolean isExactRouteAndDate() {
+        return fromCity != null && toCity != null
+                && departureDateFrom != null && departureDateFrom.equals(departureDateTo)
+                && departureStation == null && arrivalStation == null
+                && departureTimeFrom == null && departureTimeTo == null;
+    }
+
+    private static String trimToNull(String s) {
+        return (s == null || s.trim().isEmpty()) ? null : s.trim();
+    }
+}
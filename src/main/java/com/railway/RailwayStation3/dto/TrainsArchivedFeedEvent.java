@@ -0,0 +1,12 @@
+package com.railway.RailwayStation3.dto;
+
+import java.util.List;
+
+/**
+ * Событие живой ленты о переносе порции поездов в архив (/api/feed).
+ *
+ * @param type тип изменения: archived
+ * @param trainIds ID перенесённых поездов, подходящих под фильтр подписчика
+ */
+public record TrainsArchivedFeedEvent(String type, List<Long> trainIds) {
+}
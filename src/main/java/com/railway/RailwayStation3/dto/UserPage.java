@@ -0,0 +1,41 @@
+package com.railway.RailwayStation3.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Страница списка пользователей для панели администратора.
+ *
+ * @param items пользователи текущей страницы
+ * @param nextCursor курсор следующей страницы или null, если страница последняя
+ */
+public record UserPage(List<UserSummary> items, String nextCursor) {
+
+    /**
+     * Кодирует ключ сортировки последнего пользователя страницы в непрозрачный курсор.
+     *
+     * @param lastKey ключ последней строки (ID, логин, email или телефон)
+     * @return курсор следующей страницы
+     */
+    public static String encodeCursor(String lastKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(lastKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Раскодирует курсор страницы.
+     *
+     * @param cursor курсор или null для первой страницы
+     * @return ключ, после которого начинается страница, или null
+     */
+    public static String decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор страницы");
+        }
+    }
+}
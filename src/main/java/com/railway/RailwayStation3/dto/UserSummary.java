@@ -0,0 +1,13 @@
+package com.railway.RailwayStation3.dto;
+
+/**
+ * Краткие данные пользователя для панели администратора (без хеша пароля).
+ *
+ * @param id ID пользователя
+ * @param username логин
+ * @param phone телефон
+ * @param email адрес электронной почты
+ * @param role роль
+ */
+public record UserSummary(Long id, String username, String phone, String email, String role) {
+}
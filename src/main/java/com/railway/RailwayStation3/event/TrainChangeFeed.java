@@ -0,0 +1,394 @@
+package com.railway.RailwayStation3.event;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.RailwayStation3.dto.TrainFeedEvent;
+import com.railway.RailwayStation3.dto.TrainsArchivedFeedEvent;
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Живая лента изменений расписания по Server-Sent Events.
+ * <p>
+ * Подписчик не занимает поток: соединение удерживается асинхронным запросом ({@link SseEmitter}).
+ * Событие сериализуется один раз и раскладывается по ограниченным очередям подходящих подписчиков,
+ * а отправку выполняет небольшой общий пул потоков — не более одной задачи на подписчика.
+ * Поток, фиксирующий транзакцию, никогда не ждёт сети.
+ * <p>
+ * Подписчик, чья очередь переполнилась (клиент не успевает читать), отключается; браузерный
+ * EventSource переподключится сам, а пропущенное можно получить через /api/changes.
+ * <p>
+ * Запись в сокет блокирующая: клиент, переставший читать, но не закрывший соединение, держит
+ * поток отправки, пока контейнер не прервёт запись по своему тайм-ауту. Такой подписчик отключается,
+ * как только запись длится дольше {@code railway.feed.send-timeout-ms}, а пул отправки на время
+ * зависшей записи получает дополнительный поток, чтобы остальные подписчики продолжали получать
+ * события и пульс.
+ * Периодические комментарии-«пульс» не дают прокси закрыть простаивающее соединение
+ * и выявляют оборванные.
+ */
+@Component
+public class TrainChangeFeed implements DisposableBean {
+
+    /**
+     * Счётчики ленты.
+     *
+     * @param subscribers текущее количество подписчиков
+     * @param published количество опубликованных событий
+     * @param delivered количество отправленных сообщений (события и пульс)
+     * @param evicted количество отключённых медленных подписчиков
+     * @param stalled количество подписчиков, отключённых из-за зависшей записи в сокет
+     */
+    public record Stats(int subscribers, long published, long delivered, long evicted, long stalled) {
+    }
+
+    private static final String CREATED = "created";
+    private static final String UPDATED = "updated";
+    private static final String DELETED = "deleted";
+    private static final String ARCHIVED = "archived";
+
+    /**
+     * Сколько дополнительных потоков отправки можно добавить взамен занятых зависшими записями.
+     */
+    private static final int MAX_REPLACEMENT_THREADS = 64;
+
+    /**
+     * Метка «запись зависла, взамен потока добавлен дополнительный».
+     */
+    private static final long STALLED = -1L;
+
+    private final ObjectMapper objectMapper;
+    private final int queueCapacity;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final int senderThreads;
+    private final long sendTimeoutNanos;
+    private final ThreadPoolExecutor sender;
+    private int replacementThreads;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    public TrainChangeFeed(ObjectMapper objectMapper,
+                           @Value("${railway.feed.sender-threads:4}") int senderThreads,
+                           @Value("${railway.feed.queue-capacity:256}") int queueCapacity,
+                           @Value("${railway.feed.max-subscribers:10000}") int maxSubscribers,
+                           @Value("${railway.feed.timeout-ms:1800000}") long timeoutMillis,
+                           @Value("${railway.feed.send-timeout-ms:10000}") long sendTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.queueCapacity = queueCapacity;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeoutMillis;
+        this.senderThreads = senderThreads;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMillis);
+        AtomicInteger counter = new AtomicInteger();
+        this.sender = new ThreadPoolExecutor(senderThreads, senderThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "train-feed-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Подписывает клиента на изменения расписания.
+     * Фильтры сравниваются с состоянием поезда до и после изменения, поэтому клиент узнаёт
+     * и о поезде, который перестал подходить под фильтр.
+     *
+     * @param city город отправления или прибытия (необязательно)
+     * @param station вокзал отправления или прибытия (необязательно)
+     * @return поток событий для ответа
+     * @throws IllegalStateException если достигнуто максимальное количество подписчиков
+     */
+    public SseEmitter subscribe(String city, String station) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("Слишком много подписчиков, повторите попытку позже");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, trimToNull(city), trimToNull(station));
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscriber.close());
+        subscribers.add(subscriber);
+
+        subscriber.offer(SseEmitter.event().comment("connected").build());
+        return emitter;
+    }
+
+    /**
+     * Рассылает изменение поезда подписчикам после фиксации транзакции.
+     * Выполняется после увеличения версии расписания, чтобы клиент, перезапросивший данные
+     * по событию, не получил 304 со старой копией.
+     *
+     * @param event событие изменения поезда
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        String type = event.isCreated() ? CREATED : event.isDeleted() ? DELETED : UPDATED;
+        Long trainId = event.isDeleted() ? event.before().getId() : event.after().getId();
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new TrainFeedEvent(type, trainId, event.after()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие ленты", e);
+        }
+
+        // Кадр собирается один раз и только читается при отправке каждому подписчику
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event()
+                .name(type)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.matches(event.before()) || subscriber.matches(event.after())) {
+                subscriber.offer(frame);
+            }
+        }
+    }
+
+    /**
+     * Рассылает перенос порции поездов в архив одним кадром {@code archived} со списком ID
+     * вместо отдельного удаления на каждый поезд: иначе одна порция заполняла бы очередь
+     * подписчика без фильтра и отключала бы медленных клиентов.
+     *
+     * @param event событие переноса порции
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        // Подписчики с одинаковым набором подходящих поездов получают один и тот же кадр
+        Map<List<Long>, Set<ResponseBodyEmitter.DataWithMediaType>> frames = new HashMap<>();
+        for (Subscriber subscriber : subscribers) {
+            List<Long> trainIds = event.trains().stream()
+                    .filter(subscriber::matches)
+                    .map(Train::getId)
+                    .toList();
+            if (!trainIds.isEmpty()) {
+                subscriber.offer(frames.computeIfAbsent(trainIds, this::archivedFrame));
+            }
+        }
+        if (!frames.isEmpty()) {
+            published.increment();
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> archivedFrame(List<Long> trainIds) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(new TrainsArchivedFeedEvent(ARCHIVED, trainIds));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать событие ленты", e);
+        }
+        return SseEmitter.event()
+                .name(ARCHIVED)
+                .data(json, MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    /**
+     * Отправляет всем подписчикам комментарий-«пульс».
+     */
+    @Scheduled(fixedDelayString = "${railway.feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(frame);
+        }
+    }
+
+    /**
+     * Отключает подписчиков, запись которым длится дольше допустимого, и возвращает пулу отправки
+     * занятые ими потоки.
+     */
+    @Scheduled(fixedDelayString = "${railway.feed.send-timeout-ms:10000}")
+    public void evictStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.evictIfStalled(now);
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(subscribers.size(), published.sum(), delivered.sum(), evicted.sum(), stalled.sum());
+    }
+
+    @Override
+    public void destroy() {
+        sender.shutdownNow();
+    }
+
+    /**
+     * Изменяет размер пула отправки на время зависшей записи: поток, ждущий сокет, не должен
+     * уменьшать число потоков, доступных остальным подписчикам.
+     *
+     * @param delta +1, когда запись зависла, и -1, когда она завершилась
+     */
+    private synchronized void adjustReplacementThreads(int delta) {
+        replacementThreads += delta;
+        // Завершение записи может быть учтено раньше, чем её зависание: счётчик кратковременно отрицателен
+        int size = senderThreads + Math.max(0, Math.min(replacementThreads, MAX_REPLACEMENT_THREADS));
+        if (size > sender.getMaximumPoolSize()) {
+            sender.setMaximumPoolSize(size);
+            sender.setCorePoolSize(size);
+        } else if (size < sender.getCorePoolSize()) {
+            sender.setCorePoolSize(size);
+            sender.setMaximumPoolSize(size);
+        }
+    }
+
+    private static String trimToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s.trim();
+    }
+
+    /**
+     * Подписчик с собственной ограниченной очередью кадров.
+     * Очередь разбирается задачей в пуле отправки; флаг scheduled гарантирует,
+     * что для подписчика одновременно выполняется не больше одной задачи.
+     */
+    private final class Subscriber implements Runnable {
+        private final SseEmitter emitter;
+        private final String city;
+        private final String station;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Момент начала текущей записи (System.nanoTime), 0 — записи нет, STALLED — запись зависла
+        private final AtomicLong sendStartedAt = new AtomicLong();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter, String city, String station) {
+            this.emitter = emitter;
+            this.city = city;
+            this.station = station;
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        }
+
+        boolean matches(Train train) {
+            if (train == null) {
+                return false;
+            }
+            boolean cityMatches = city == null
+                    || city.equalsIgnoreCase(train.getFromCity()) || city.equalsIgnoreCase(train.getToCity());
+            boolean stationMatches = station == null
+                    || station.equalsIgnoreCase(Objects.toString(train.getDepartureStation(), ""))
+                    || station.equalsIgnoreCase(Objects.toString(train.getArrivalStation(), ""));
+            return cityMatches && stationMatches;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (closed) {
+                return;
+            }
+            if (!queue.offer(frame)) {
+                // Клиент не успевает читать: отключаем, а не копим события без ограничения
+                evicted.increment();
+                close();
+            }
+            schedule();
+        }
+
+        void close() {
+            closed = true;
+            subscribers.remove(this);
+            queue.clear();
+        }
+
+        /**
+         * Отключает подписчика, если текущая запись длится дольше допустимого.
+         * Поток записи остаётся занят до тайм-аута контейнера, поэтому взамен добавляется другой.
+         *
+         * @param now текущий момент (System.nanoTime)
+         */
+        void evictIfStalled(long now) {
+            long started = sendStartedAt.get();
+            if (started != 0 && started != STALLED && now - started > sendTimeoutNanos
+                    && sendStartedAt.compareAndSet(started, STALLED)) {
+                stalled.increment();
+                close();
+                adjustReplacementThreads(1);
+            }
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                }
+            }
+        }
+
+        /**
+         * Отправляет накопленные кадры. Отключение также завершается здесь, а не в потоке
+         * публикации: методы SseEmitter синхронизированы и могут ждать медленную запись в сокет.
+         */
+        @Override
+        public void run() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame;
+                while (!closed && (frame = queue.poll()) != null) {
+                    sendStartedAt.set(System.nanoTime());
+                    try {
+                        emitter.send(frame);
+                        delivered.increment();
+                    } catch (IOException | IllegalStateException e) {
+                        close();
+                    } finally {
+                        if (sendStartedAt.getAndSet(0) == STALLED) {
+                            adjustReplacementThreads(-1);
+                        }
+                    }
+                }
+                if (closed) {
+                    emitter.complete();
+                    return;
+                }
+                scheduled.set(false);
+            } while (!queue.isEmpty() && scheduled.compareAndSet(false, true));
+        }
+    }
+}
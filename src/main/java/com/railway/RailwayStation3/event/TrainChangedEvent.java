@@ -0,0 +1,34 @@
+package com.railway.RailwayStation3.event;
+
+import com.railway.RailwayStation3.model.Train;
+
+/**
+ * Событие изменения расписания, публикуемое {@code TrainService} после каждой записи.
+ * Содержит копии поезда до и после изменения, поэтому подписчики могут безопасно
+ * хранить их у себя.
+ *
+ * @param before состояние поезда до изменения (null при создании)
+ * @param after состояние поезда после изменения (null при удалении)
+ */
+public record TrainChangedEvent(Train before, Train after) {
+
+    public static TrainChangedEvent created(Train after) {
+        return new TrainChangedEvent(null, new Train(after));
+    }
+
+    public static TrainChangedEvent updated(Train before, Train after) {
+        return new TrainChangedEvent(new Train(before), new Train(after));
+    }
+
+    public static TrainChangedEvent deleted(Train before) {
+        return new TrainChangedEvent(new Train(before), null);
+    }
+
+    public boolean isCreated() {
+        return before == null;
+    }
+
+    public boolean isDeleted() {
+        return after == null;
+    }
+}
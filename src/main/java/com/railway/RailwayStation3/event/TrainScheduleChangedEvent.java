@@ -0,0 +1,10 @@
+package com.railway.RailwayStation3.event;
+
+/**
+ * Событие изменения регулярного расписания, публикуемое {@code TrainScheduleService}
+ * после создания, обновления или удаления расписания.
+ *
+ * @param scheduleId ID изменённого расписания
+ */
+public record TrainScheduleChangedEvent(Long scheduleId) {
+}
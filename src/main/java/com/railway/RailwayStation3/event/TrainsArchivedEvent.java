@@ -0,0 +1,28 @@
+package com.railway.RailwayStation3.event;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.util.List;
+
+/**
+ * Событие переноса порции поездов в архив, публикуемое {@code TrainArchiver} один раз на порцию.
+ * Для подписчиков перенос равносилен удалению каждого поезда; структуры, которые дорого
+ * перестраивать по одному поезду, применяют порцию целиком.
+ *
+ * @param trains перенесённые поезда, восстановленные из удалённых строк
+ */
+public record TrainsArchivedEvent(List<Train> trains) {
+
+    public TrainsArchivedEvent {
+        trains = List.copyOf(trains);
+    }
+
+    /**
+     * Представляет перенос как отдельные события удаления поездов.
+     *
+     * @return события удаления в порядке переноса
+     */
+    public List<TrainChangedEvent> deletions() {
+        return trains.stream().map(TrainChangedEvent::deleted).toList();
+    }
+}
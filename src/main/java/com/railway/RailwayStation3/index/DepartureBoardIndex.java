@@ -0,0 +1,247 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Табло отправлений в памяти: для каждого вокзала — поезда, упорядоченные по моменту отправления.
+ * Вокзал определяется городом и названием: вокзалы с одинаковыми названиями есть во многих городах.
+ * <p>
+ * Хранятся только поезда из скользящего окна: от текущего момента до горизонта, до которого
+ * загружено расписание ({@link DepartureBoardLoader}). Ближайшие N отправлений находятся
+ * за O(log n + N) без блокировок чтения. Ушедшие поезда периодически удаляются, а окно
+ * продлевается вперёд.
+ * <p>
+ * Изменения расписания применяются по событиям {@link TrainChangedEvent}. Пока загрузчик читает
+ * очередную часть окна из базы, события дополнительно запоминаются и повторяются после загрузки,
+ * чтобы прочитанная до изменения копия поезда не заменила более новую.
+ */
+@Component
+public class DepartureBoardIndex {
+
+    /**
+     * Состояние табло.
+     *
+     * @param stations количество вокзалов с поездами
+     * @param trains количество поездов в окне
+     * @param loadedUntil до какого момента загружены отправления (null до первой загрузки)
+     * @param purged удалено ушедших поездов с момента запуска
+     */
+    public record Stats(int stations, int trains, LocalDateTime loadedUntil, long purged) {
+    }
+
+    /**
+     * Вокзал отправления: город и название.
+     */
+    private record Station(String city, String name) {
+    }
+
+    /**
+     * Поезд на табло; упорядочивается по моменту отправления, затем по ID.
+     */
+    private record Entry(LocalDateTime departureAt, long id, Station station, Train train) {
+    }
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.comparing(Entry::departureAt).thenComparingLong(Entry::id);
+
+    private final Map<Station, ConcurrentSkipListSet<Entry>> byStation = new ConcurrentHashMap<>();
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final LongAdder purged = new LongAdder();
+
+    // Изменяются только под блокировкой this
+    private LocalDateTime acceptFrom;
+    private LocalDateTime acceptUntil;
+    private List<TrainChangedEvent> pending;
+    private volatile LocalDateTime loadedUntil;
+
+    /**
+     * Готово ли табло (завершена ли первая загрузка).
+     *
+     * @return true, если табло загружено
+     */
+    public boolean isReady() {
+        return loadedUntil != null;
+    }
+
+    /**
+     * До какого момента на табло есть отправления.
+     *
+     * @return горизонт загрузки или null до первой загрузки
+     */
+    public LocalDateTime getLoadedUntil() {
+        return loadedUntil;
+    }
+
+    /**
+     * Возвращает ближайшие отправления с вокзала начиная с указанного момента.
+     *
+     * @param city город вокзала
+     * @param station вокзал отправления
+     * @param after момент, с которого показываются отправления (включительно)
+     * @param limit максимальное количество поездов
+     * @return поезда в порядке отправления
+     */
+    public List<Train> next(String city, String station, LocalDateTime after, int limit) {
+        ConcurrentSkipListSet<Entry> entries = byStation.get(new Station(city, station));
+        if (entries == null) {
+            return new ArrayList<>();
+        }
+        List<Train> result = new ArrayList<>(Math.min(limit, 64));
+        Iterator<Entry> it = entries.tailSet(new Entry(after, Long.MIN_VALUE, null, null)).iterator();
+        while (it.hasNext() && result.size() < limit) {
+            result.add(new Train(it.next().train()));
+        }
+        return result;
+    }
+
+    /**
+     * Применяет изменение поезда после фиксации транзакции.
+     * Выполняется до увеличения версии расписания, как и обновление {@link TimetableIndex}.
+     *
+     * @param event событие изменения поезда
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTrainChanged(TrainChangedEvent event) {
+        apply(event);
+        if (pending != null) {
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    /**
+     * Начинает загрузку отправлений до нового горизонта: с этого момента изменения поездов
+     * в продлеваемой части окна применяются и запоминаются до {@link #finishLoad(List)}.
+     *
+     * @param from начало окна (ушедшие раньше поезда не принимаются)
+     * @param until новый горизонт окна
+     */
+    public synchronized void beginLoad(LocalDateTime from, LocalDateTime until) {
+        acceptFrom = from;
+        acceptUntil = until;
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Завершает загрузку: добавляет прочитанные из базы поезда и повторяет изменения,
+     * произошедшие за время чтения.
+     *
+     * @param trains поезда, отправляющиеся в продлеваемой части окна
+     */
+    public synchronized void finishLoad(List<Train> trains) {
+        for (Train train : trains) {
+            put(train);
+        }
+        for (TrainChangedEvent event : pending) {
+            apply(event);
+        }
+        pending = null;
+        loadedUntil = acceptUntil;
+    }
+
+    /**
+     * Отменяет незавершённую загрузку: окно остаётся прежним, а поезда, добавленные событиями
+     * за прежним горизонтом, удаляются.
+     */
+    public synchronized void abortLoad() {
+        pending = null;
+        acceptUntil = loadedUntil;
+        byId.values().removeIf(entry -> {
+            if (loadedUntil != null && !entry.departureAt().isAfter(loadedUntil)) {
+                return false;
+            }
+            ConcurrentSkipListSet<Entry> entries = byStation.get(entry.station());
+            if (entries != null) {
+                entries.remove(entry);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Удаляет поезда, отправившиеся раньше указанного момента, и сдвигает начало окна.
+     *
+     * @param cutoff начало окна
+     * @return количество удалённых поездов
+     */
+    public synchronized int purgeBefore(LocalDateTime cutoff) {
+        acceptFrom = cutoff;
+        int removed = 0;
+        Entry bound = new Entry(cutoff, Long.MIN_VALUE, null, null);
+        for (ConcurrentSkipListSet<Entry> entries : byStation.values()) {
+            Iterator<Entry> it = entries.headSet(bound).iterator();
+            while (it.hasNext()) {
+                Entry entry = it.next();
+                it.remove();
+                byId.remove(entry.id(), entry);
+                removed++;
+            }
+        }
+        byStation.values().removeIf(ConcurrentSkipListSet::isEmpty);
+        purged.add(removed);
+        return removed;
+    }
+
+    public Stats getStats() {
+        return new Stats(byStation.size(), byId.size(), loadedUntil, purged.sum());
+    }
+
+    private void apply(TrainChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.before().getId());
+        } else {
+            put(event.after());
+        }
+    }
+
+    private void put(Train train) {
+        remove(train.getId());
+        LocalDateTime departureAt = train.getDepartureAt();
+        if (departureAt == null || train.getFromCity() == null || train.getDepartureStation() == null
+                || acceptUntil == null
+                || departureAt.isBefore(acceptFrom) || departureAt.isAfter(acceptUntil)) {
+            return;
+        }
+        Station station = new Station(train.getFromCity(), train.getDepartureStation());
+        Entry entry = new Entry(departureAt, train.getId(), station, new Train(train));
+        byStation.computeIfAbsent(station, s -> new ConcurrentSkipListSet<>(ORDER)).add(entry);
+        byId.put(entry.id(), entry);
+    }
+
+    private void remove(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            ConcurrentSkipListSet<Entry> entries = byStation.get(entry.station());
+            if (entries != null) {
+                entries.remove(entry);
+            }
+        }
+    }
+}
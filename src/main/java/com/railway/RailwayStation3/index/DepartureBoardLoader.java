@@ -0,0 +1,99 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поддерживает скользящее окно {@link DepartureBoardIndex}: после старта загружает отправления
+ * на горизонт вперёд, а затем периодически удаляет ушедшие поезда и догружает новую часть окна.
+ * Отправления читаются порциями по индексу моментов отправления.
+ */
+@Component
+public class DepartureBoardLoader {
+    private static final Logger log = LoggerFactory.getLogger(DepartureBoardLoader.class);
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final DepartureBoardIndex departureBoardIndex;
+    private final TrainRepository trainRepository;
+    private final long horizonHours;
+
+    public DepartureBoardLoader(DepartureBoardIndex departureBoardIndex, TrainRepository trainRepository,
+                                @Value("${railway.board.horizon-hours:48}") long horizonHours) {
+        this.departureBoardIndex = departureBoardIndex;
+        this.trainRepository = trainRepository;
+        this.horizonHours = horizonHours;
+    }
+
+    /**
+     * Загружает табло после старта приложения.
+     * Выполняется после заполнения departure_at у старых поездов ({@code TrainTimestampBackfill}):
+     * следующие сдвиги окна читают только новую его часть, и поезда, пропущенные первой загрузкой,
+     * на табло бы уже не попали.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        int loaded = roll();
+        log.info("Departure board loaded: {} trains in {} ms", loaded, System.currentTimeMillis() - started);
+    }
+
+    /**
+     * Сдвигает окно табло: удаляет ушедшие поезда и загружает отправления до нового горизонта.
+     */
+    @Scheduled(initialDelayString = "${railway.board.refresh-ms:60000}", fixedDelayString = "${railway.board.refresh-ms:60000}")
+    public void refresh() {
+        roll();
+    }
+
+    private synchronized int roll() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plusHours(horizonHours);
+        departureBoardIndex.purgeBefore(now);
+
+        // Уже загруженная часть окна поддерживается событиями, читается только новая
+        LocalDateTime loadedUntil = departureBoardIndex.getLoadedUntil();
+        boolean extending = loadedUntil != null && loadedUntil.isAfter(now);
+        LocalDateTime from = extending ? loadedUntil : now;
+        if (!from.isBefore(until)) {
+            return 0;
+        }
+
+        departureBoardIndex.beginLoad(now, until);
+        List<Train> trains = new ArrayList<>();
+        try {
+            // Поезда ровно в момент loadedUntil уже загружены, поэтому курсор начинается после них
+            LocalDateTime afterAt = from;
+            long afterId = extending ? Long.MAX_VALUE : 0;
+            List<Train> batch;
+            do {
+                batch = trainRepository.findDeparturesBetween(from, until, afterAt, afterId, BATCH_SIZE);
+                trains.addAll(batch);
+                if (!batch.isEmpty()) {
+                    Train last = batch.get(batch.size() - 1);
+                    afterAt = last.getDepartureAt();
+                    afterId = last.getId();
+                }
+            } while (batch.size() == BATCH_SIZE);
+        } catch (RuntimeException e) {
+            departureBoardIndex.abortLoad();
+            throw e;
+        }
+        departureBoardIndex.finishLoad(trains);
+        return trains.size();
+    }
+}
@@ -0,0 +1,164 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.dto.DirectionCount;
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Рейтинг популярных направлений, поддерживаемый в памяти.
+ * <p>
+ * Счётчики поездов по направлениям обновляются событиями {@link TrainChangedEvent}, а упорядоченное
+ * множество (по убыванию количества) позволяет получить топ-K за O(K) без запроса к базе.
+ * Периодическая сверка с базой исправляет возможное расхождение счётчиков.
+ */
+@Component
+public class DirectionRanking {
+    private static final Logger log = LoggerFactory.getLogger(DirectionRanking.class);
+
+    private static final Comparator<DirectionCount> BY_COUNT_DESC =
+            Comparator.comparingLong(DirectionCount::count).reversed()
+                    .thenComparing(DirectionCount::direction);
+
+    private final TrainRepository trainRepository;
+
+    private final Map<String, Long> counts = new HashMap<>();
+    private final TreeSet<DirectionCount> ranking = new TreeSet<>(BY_COUNT_DESC);
+    private volatile boolean ready;
+
+    public DirectionRanking(TrainRepository trainRepository) {
+        this.trainRepository = trainRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Возвращает K самых популярных направлений.
+     *
+     * @param k количество направлений
+     * @return направления по убыванию количества поездов
+     */
+    public synchronized List<DirectionCount> top(int k) {
+        List<DirectionCount> result = new ArrayList<>(k);
+        Iterator<DirectionCount> iterator = ranking.iterator();
+        while (iterator.hasNext() && result.size() < k) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    /**
+     * Обновляет счётчики направлений после изменения поезда.
+     *
+     * @param event событие изменения поезда
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        String oldDirection = event.isCreated() ? null : direction(event.before());
+        String newDirection = event.isDeleted() ? null : direction(event.after());
+        if (Objects.equals(oldDirection, newDirection)) {
+            return;
+        }
+        synchronized (this) {
+            if (oldDirection != null) {
+                add(oldDirection, -1);
+            }
+            if (newDirection != null) {
+                add(newDirection, 1);
+            }
+        }
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    /**
+     * Сверяет счётчики с базой данных: при старте и затем периодически.
+     * Изменения, зафиксированные во время чтения из базы, могут быть учтены неточно —
+     * такое расхождение исправляется следующей сверкой.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${railway.stats.reconcile-interval-ms:600000}",
+            fixedDelayString = "${railway.stats.reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<Object[]> rows = trainRepository.findPopularDirections();
+
+        Map<String, Long> actual = new HashMap<>();
+        for (Object[] row : rows) {
+            actual.put((String) row[0], ((Number) row[1]).longValue());
+        }
+
+        int corrected = 0;
+        synchronized (this) {
+            if (ready) {
+                Set<String> directions = new HashSet<>(counts.keySet());
+                directions.addAll(actual.keySet());
+                for (String direction : directions) {
+                    if (!Objects.equals(counts.get(direction), actual.get(direction))) {
+                        corrected++;
+                    }
+                }
+            }
+            counts.clear();
+            ranking.clear();
+            actual.forEach((direction, count) -> {
+                counts.put(direction, count);
+                ranking.add(new DirectionCount(direction, count));
+            });
+            ready = true;
+        }
+
+        if (corrected > 0) {
+            log.warn("Direction counters drifted, corrected {} directions", corrected);
+        }
+    }
+
+    private void add(String direction, long delta) {
+        Long current = counts.get(direction);
+        long updated = (current == null ? 0 : current) + delta;
+        if (current != null) {
+            ranking.remove(new DirectionCount(direction, current));
+        }
+        if (updated > 0) {
+            counts.put(direction, updated);
+            ranking.add(new DirectionCount(direction, updated));
+        } else {
+            counts.remove(direction);
+        }
+    }
+
+    /**
+     * Формирует название направления так же, как запрос {@link TrainRepository#findPopularDirections()}.
+     */
+    private static String direction(Train train) {
+        return Objects.toString(train.getFromCity(), "") + " → " + Objects.toString(train.getToCity(), "");
+    }
+}
@@ -0,0 +1,274 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.dto.PlaceSuggestion;
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Автодополнение городов и вокзалов по началу названия.
+ * <p>
+ * Места хранятся в отсортированной карте по названию в нижнем регистре, поэтому все названия
+ * с заданным префиксом образуют один непрерывный диапазон. Из диапазона выбираются N мест
+ * с наибольшим числом поездов. Счётчики загружаются одним чтением поездов при старте
+ * и поддерживаются событиями {@link TrainChangedEvent}. Изменения, пришедшие во время загрузки,
+ * запоминаются и повторяются после неё; по номеру изменения (change_seq) видно, попало ли
+ * изменение в прочитанные данные, поэтому оно не учитывается дважды.
+ */
+@Component
+public class PlaceSuggestions {
+    private static final Logger log = LoggerFactory.getLogger(PlaceSuggestions.class);
+
+    public static final String CITY = "city";
+    public static final String STATION = "station";
+
+    private static final Comparator<Place> BY_TRAINS =
+            Comparator.comparingLong((Place place) -> place.trains).thenComparing(place -> place.key, Comparator.reverseOrder());
+
+    /**
+     * Место с изменяемым счётчиком поездов.
+     */
+    private static final class Place {
+        final String key;
+        final String name;
+        final String type;
+        final String city;
+        long trains;
+
+        Place(String key, String name, String type, String city) {
+            this.key = key;
+            this.name = name;
+            this.type = type;
+            this.city = city;
+        }
+    }
+
+    private final TrainRepository trainRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final TreeMap<String, Place> places = new TreeMap<>();
+    // Изменяется только под блокировкой записи
+    private List<TrainChangedEvent> pending;
+    private volatile boolean ready;
+
+    public PlaceSuggestions(TrainRepository trainRepository) {
+        this.trainRepository = trainRepository;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Загружает счётчики городов и вокзалов из базы данных.
+     * Изменения, зафиксированные до начала чтения, в него попадают; пришедшие во время чтения
+     * применяются после него, если прочитанная версия поезда была старше.
+     * Выполняется после присвоения номеров изменений старым поездам.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Object[]> rows;
+        try {
+            rows = trainRepository.findPlaceRows();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            places.clear();
+            // Номер изменения каждого прочитанного поезда
+            Map<Long, Long> loaded = new HashMap<>();
+            for (Object[] row : rows) {
+                String fromCity = (String) row[2];
+                String toCity = (String) row[3];
+                adjust(CITY, fromCity, fromCity, 1);
+                adjust(CITY, toCity, toCity, 1);
+                adjust(STATION, (String) row[4], fromCity, 1);
+                adjust(STATION, (String) row[5], toCity, 1);
+                loaded.put((Long) row[0], (Long) row[1]);
+            }
+            int replayed = 0;
+            for (TrainChangedEvent event : pending) {
+                if (replay(loaded, event)) {
+                    replayed++;
+                }
+            }
+            pending = null;
+            ready = true;
+            log.info("Place suggestions loaded: {} places, {} changes replayed", places.size(), replayed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Обновляет счётчики после изменения поезда. Во время загрузки изменение запоминается
+     * и применяется после неё.
+     *
+     * @param event событие изменения поезда
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else if (ready) {
+                apply(event);
+            }
+            // До начала загрузки изменение уже зафиксировано и будет прочитано ею
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    /**
+     * Ищет места, название которых начинается с префикса (без учёта регистра).
+     *
+     * @param prefix начало названия
+     * @param type city, station или null для обоих типов
+     * @param limit максимальное количество подсказок
+     * @return подсказки по убыванию числа поездов
+     */
+    public List<PlaceSuggestion> suggest(String prefix, String type, int limit) {
+        String from = normalize(prefix);
+        if (from.isEmpty()) {
+            return List.of();
+        }
+        PriorityQueue<Place> top = new PriorityQueue<>(limit + 1, BY_TRAINS);
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Place> range = places.subMap(from, true, from + Character.MAX_VALUE, false);
+            for (Place place : range.values()) {
+                if (type != null && !type.equals(place.type)) {
+                    continue;
+                }
+                top.add(place);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+            List<PlaceSuggestion> result = new ArrayList<>(top.size());
+            while (!top.isEmpty()) {
+                Place place = top.poll();
+                result.add(new PlaceSuggestion(place.name, place.type, place.city, place.trains));
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет изменение, пришедшее во время загрузки, если прочитанные данные его ещё не содержат:
+     * поезд прочитан в состоянии до изменения или (при создании) не прочитан вовсе.
+     *
+     * @param loaded номера изменений прочитанных поездов, обновляются по мере повтора
+     * @return true, если изменение применено
+     */
+    private boolean replay(Map<Long, Long> loaded, TrainChangedEvent event) {
+        Train before = event.before();
+        Train after = event.after();
+        Long id = event.isCreated() ? after.getId() : before.getId();
+        boolean reflected = event.isCreated()
+                ? loaded.containsKey(id)
+                : !loaded.containsKey(id) || !Objects.equals(loaded.get(id), before.getChangeSeq());
+        if (reflected) {
+            return false;
+        }
+        apply(event);
+        if (event.isDeleted()) {
+            loaded.remove(id);
+        } else {
+            loaded.put(id, after.getChangeSeq());
+        }
+        return true;
+    }
+
+    private void apply(TrainChangedEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    private void apply(Train train, long delta) {
+        adjust(CITY, train.getFromCity(), train.getFromCity(), delta);
+        adjust(CITY, train.getToCity(), train.getToCity(), delta);
+        adjust(STATION, train.getDepartureStation(), train.getFromCity(), delta);
+        adjust(STATION, train.getArrivalStation(), train.getToCity(), delta);
+    }
+
+    private void adjust(String type, String name, String city, long delta) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        // Ключ начинается с названия, поэтому префиксный диапазон карты совпадает с префиксом названия
+        String key = normalize(name) + '\u0000' + type + '\u0000' + (city == null ? "" : city);
+        Place place = places.get(key);
+        if (place == null) {
+            if (delta <= 0) {
+                return;
+            }
+            place = new Place(key, name, type, city);
+            places.put(key, place);
+        }
+        place.trains += delta;
+        if (place.trains <= 0) {
+            places.remove(key);
+        }
+    }
+
+    private static String normalize(String value) {
+        return (value == null) ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,67 @@
+package com.railway.RailwayStation3.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Словарь строк: присваивает каждой уникальной строке целочисленный код.
+ * Позволяет хранить повторяющиеся названия городов и вокзалов один раз.
+ * Коды не переиспользуются. Класс не потокобезопасен — синхронизацию обеспечивает владелец.
+ */
+class StringDictionary {
+
+    /**
+     * Код для значения null.
+     */
+    static final int NULL_CODE = -1;
+
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    /**
+     * Возвращает код строки, добавляя её в словарь при необходимости.
+     *
+     * @param value строка или null
+     * @return код строки
+     */
+    int encode(String value) {
+        if (value == null) {
+            return NULL_CODE;
+        }
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Возвращает код строки без добавления в словарь.
+     *
+     * @param value строка
+     * @return код строки или {@link #NULL_CODE}, если строка неизвестна
+     */
+    int lookup(String value) {
+        Integer code = (value == null) ? null : codes.get(value);
+        return (code == null) ? NULL_CODE : code;
+    }
+
+    /**
+     * Возвращает строку по коду.
+     *
+     * @param code код строки
+     * @return строка или null для {@link #NULL_CODE}
+     */
+    String decode(int code) {
+        return (code == NULL_CODE) ? null : values.get(code);
+    }
+
+    void clear() {
+        codes.clear();
+        values.clear();
+    }
+}
@@ -0,0 +1,446 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Collator;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * Индекс расписания в памяти для поиска по (город отправления, город прибытия, дата отправления).
+ * <p>
+ * Названия городов и вокзалов кодируются словарём, а поля поездов хранятся в параллельных
+ * массивах примитивов (одна «строка» — одна позиция во всех массивах). Поиск выполняется
+ * по хеш-таблице ключей маршрута без обращения к базе данных.
+ * <p>
+ * Индекс заполняется при старте {@link TimetableIndexLoader} и поддерживается в актуальном
+ * состоянии событиями {@link TrainChangedEvent}.
+ */
+@Component
+public class TimetableIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NO_VALUE = -1;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StringDictionary cities = new StringDictionary();
+    private final StringDictionary stations = new StringDictionary();
+
+    // Столбцы строк индекса
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private String[] numbers = new String[INITIAL_CAPACITY];
+    private int[] fromCities = new int[INITIAL_CAPACITY];
+    private int[] toCities = new int[INITIAL_CAPACITY];
+    private int[] departureStations = new int[INITIAL_CAPACITY];
+    private int[] arrivalStations = new int[INITIAL_CAPACITY];
+    private int[] departureDates = new int[INITIAL_CAPACITY];
+    private int[] departureTimes = new int[INITIAL_CAPACITY];
+    private int[] arrivalDates = new int[INITIAL_CAPACITY];
+    private int[] arrivalTimes = new int[INITIAL_CAPACITY];
+
+    private int rowCount;
+    private int[] freeRows = new int[16];
+    private int freeCount;
+
+    private final Map<Long, Integer> rowsById = new HashMap<>();
+    private final Map<Long, RowList> rowsByRoute = new HashMap<>();
+
+    // Изменения, пришедшие во время загрузки; изменяется только под блокировкой записи
+    private List<TrainChangedEvent> pending;
+    private volatile boolean ready;
+
+    /**
+     * Готов ли индекс обслуживать поиск (завершена ли начальная загрузка).
+     *
+     * @return true, если индекс загружен
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Количество поездов в индексе.
+     *
+     * @return число поездов
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Начинает загрузку индекса: изменения расписания, пришедшие с этого момента,
+     * запоминаются и применяются в {@link #finishLoad(Stream)}. Вызывается до запроса к базе.
+     */
+    public void beginLoad() {
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Полностью перезагружает индекс из переданных поездов и применяет изменения, пришедшие
+     * после {@link #beginLoad()}, если прочитанная версия поезда была старше.
+     * На время загрузки изменения расписания ожидают её завершения.
+     *
+     * @param trains все поезда расписания
+     */
+    public void finishLoad(Stream<Train> trains) {
+        lock.writeLock().lock();
+        try {
+            ready = false;
+            clearUnlocked();
+            // Номер изменения каждого прочитанного поезда
+            Map<Long, Long> loaded = new HashMap<>();
+            trains.forEach(train -> {
+                putUnlocked(train);
+                loaded.put(train.getId(), train.getChangeSeq());
+            });
+            if (pending != null) {
+                for (TrainChangedEvent event : pending) {
+                    replay(loaded, event);
+                }
+            }
+            pending = null;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Прекращает запоминание изменений после неудачной загрузки.
+     */
+    public void abortLoad() {
+        lock.writeLock().lock();
+        try {
+            pending = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет или заменяет поезд в индексе.
+     *
+     * @param train поезд с заполненным ID
+     */
+    public void put(Train train) {
+        lock.writeLock().lock();
+        try {
+            putUnlocked(train);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Удаляет поезд из индекса.
+     *
+     * @param id ID поезда
+     */
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет изменение расписания к индексу после фиксации транзакции.
+     * Выполняется раньше увеличения {@link com.railway.RailwayStation3.cache.TimetableVersion},
+     * чтобы под новым ETag отдавались уже обновлённые данные.
+     *
+     * @param event событие изменения поезда
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainChanged(TrainChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Применяет перенос порции поездов в архив как удаление каждого из них.
+     *
+     * @param event событие переноса порции
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTrainsArchived(TrainsArchivedEvent event) {
+        event.deletions().forEach(this::onTrainChanged);
+    }
+
+    /**
+     * Ищет поезда по маршруту и дате отправления.
+     *
+     * @param fromCity город отправления
+     * @param toCity город прибытия
+     * @param departureDate дата отправления
+     * @param sortBy поле сортировки (имя свойства {@link Train})
+     * @return новый список найденных поездов
+     */
+    public List<Train> search(String fromCity, String toCity, LocalDate departureDate, String sortBy) {
+        Comparator<Train> comparator = comparatorFor(sortBy);
+        List<Train> result;
+
+        lock.readLock().lock();
+        try {
+            int from = cities.lookup(fromCity);
+            int to = cities.lookup(toCity);
+            if (from == StringDictionary.NULL_CODE || to == StringDictionary.NULL_CODE) {
+                return new ArrayList<>();
+            }
+            RowList rows = rowsByRoute.get(routeKey(from, to, (int) departureDate.toEpochDay()));
+            if (rows == null) {
+                return new ArrayList<>();
+            }
+            result = new ArrayList<>(rows.size);
+            for (int i = 0; i < rows.size; i++) {
+                result.add(materialize(rows.rows[i]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        result.sort(comparator);
+        return result;
+    }
+
+    /**
+     * Применяет изменение, пришедшее во время загрузки, если прочитанные данные его ещё не содержат:
+     * поезд прочитан в состоянии до изменения или (при создании) не прочитан вовсе.
+     *
+     * @param loaded номера изменений прочитанных поездов, обновляются по мере повтора
+     */
+    private void replay(Map<Long, Long> loaded, TrainChangedEvent event) {
+        Train before = event.before();
+        Train after = event.after();
+        Long id = event.isCreated() ? after.getId() : before.getId();
+        boolean reflected = event.isCreated()
+                ? loaded.containsKey(id)
+                : !loaded.containsKey(id) || !Objects.equals(loaded.get(id), before.getChangeSeq());
+        if (reflected) {
+            return;
+        }
+        apply(event);
+        if (event.isDeleted()) {
+            loaded.remove(id);
+        } else {
+            loaded.put(id, after.getChangeSeq());
+        }
+    }
+
+    private void apply(TrainChangedEvent event) {
+        if (event.isDeleted()) {
+            removeUnlocked(event.before().getId());
+        } else {
+            putUnlocked(event.after());
+        }
+    }
+
+    private void putUnlocked(Train train) {
+        removeUnlocked(train.getId());
+        if (train.getFromCity() == null || train.getToCity() == null || train.getDepartureDate() == null) {
+            return;
+        }
+
+        int row = allocateRow();
+        ids[row] = train.getId();
+        numbers[row] = train.getNumber();
+        fromCities[row] = cities.encode(train.getFromCity());
+        toCities[row] = cities.encode(train.getToCity());
+        departureStations[row] = stations.encode(train.getDepartureStation());
+        arrivalStations[row] = stations.encode(train.getArrivalStation());
+        departureDates[row] = (int) train.getDepartureDate().toEpochDay();
+        departureTimes[row] = encodeTime(train.getDepartureTime());
+        arrivalDates[row] = train.getArrivalDate() == null ? NO_VALUE : (int) train.getArrivalDate().toEpochDay();
+        arrivalTimes[row] = encodeTime(train.getArrivalTime());
+
+        rowsById.put(train.getId(), row);
+        rowsByRoute.computeIfAbsent(routeKey(fromCities[row], toCities[row], departureDates[row]), k -> new RowList())
+                .add(row);
+    }
+
+    private void removeUnlocked(Long id) {
+        Integer row = rowsById.remove(id);
+        if (row == null) {
+            return;
+        }
+        long key = routeKey(fromCities[row], toCities[row], departureDates[row]);
+        RowList rows = rowsByRoute.get(key);
+        rows.remove(row);
+        if (rows.size == 0) {
+            rowsByRoute.remove(key);
+        }
+        numbers[row] = null;
+        releaseRow(row);
+    }
+
+    private void clearUnlocked() {
+        rowsById.clear();
+        rowsByRoute.clear();
+        cities.clear();
+        stations.clear();
+        Arrays.fill(numbers, 0, rowCount, null);
+        rowCount = 0;
+        freeCount = 0;
+    }
+
+    private Train materialize(int row) {
+        return new Train(
+                ids[row],
+                numbers[row],
+                cities.decode(fromCities[row]),
+                cities.decode(toCities[row]),
+                stations.decode(departureStations[row]),
+                stations.decode(arrivalStations[row]),
+                LocalDate.ofEpochDay(departureDates[row]),
+                decodeTime(departureTimes[row]),
+                arrivalDates[row] == NO_VALUE ? null : LocalDate.ofEpochDay(arrivalDates[row]),
+                decodeTime(arrivalTimes[row]));
+    }
+
+    private int allocateRow() {
+        if (freeCount > 0) {
+            return freeRows[--freeCount];
+        }
+        if (rowCount == ids.length) {
+            grow();
+        }
+        return rowCount++;
+    }
+
+    private void releaseRow(int row) {
+        if (freeCount == freeRows.length) {
+            freeRows = Arrays.copyOf(freeRows, freeRows.length * 2);
+        }
+        freeRows[freeCount++] = row;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        numbers = Arrays.copyOf(numbers, capacity);
+        fromCities = Arrays.copyOf(fromCities, capacity);
+        toCities = Arrays.copyOf(toCities, capacity);
+        departureStations = Arrays.copyOf(departureStations, capacity);
+        arrivalStations = Arrays.copyOf(arrivalStations, capacity);
+        departureDates = Arrays.copyOf(departureDates, capacity);
+        departureTimes = Arrays.copyOf(departureTimes, capacity);
+        arrivalDates = Arrays.copyOf(arrivalDates, capacity);
+        arrivalTimes = Arrays.copyOf(arrivalTimes, capacity);
+    }
+
+    /**
+     * Упаковывает коды городов (до 2^21) и дату (дни от эпохи, до 2^22) в один ключ.
+     */
+    private static long routeKey(int fromCity, int toCity, int epochDay) {
+        return ((long) fromCity << 43) | ((long) toCity << 22) | (epochDay & 0x3FFFFFL);
+    }
+
+    private static int encodeTime(LocalTime time) {
+        return (time == null) ? NO_VALUE : time.toSecondOfDay();
+    }
+
+    private static LocalTime decodeTime(int secondOfDay) {
+        return (secondOfDay == NO_VALUE) ? null : LocalTime.ofSecondOfDay(secondOfDay);
+    }
+
+    /**
+     * Возвращает компаратор, повторяющий сортировку базы данных (по возрастанию, null в конце).
+     * Строки сравниваются по правилам русского языка, как при сортировке в базе с русской локалью,
+     * а не по кодам символов. При равенстве значений поезда упорядочиваются по ID; рейсы без ID
+     * (из регулярных расписаний) — после поездов с ID, по номеру.
+     *
+     * @param sortBy поле сортировки (имя свойства {@link Train})
+     * @return компаратор поездов
+     */
+    public static Comparator<Train> comparatorFor(String sortBy) {
+        // Экземпляр Collator не потокобезопасен, поэтому у каждого компаратора свой
+        Comparator<String> text = Comparator.nullsLast(Collator.getInstance(Locale.forLanguageTag("ru-RU"))::compare);
+        Comparator<Train> byField = switch (sortBy) {
+            case "id" -> Comparator.comparing(Train::getId, Comparator.nullsLast(Comparator.naturalOrder()));
+            case "number" -> Comparator.comparing(Train::getNumber, text);
+            case "fromCity" -> Comparator.comparing(Train::getFromCity, text);
+            case "toCity" -> Comparator.comparing(Train::getToCity, text);
+            case "departureStation" -> Comparator.comparing(Train::getDepartureStation, text);
+            case "arrivalStation" -> Comparator.comparing(Train::getArrivalStation, text);
+            case "departureDate" -> Comparator.comparing(Train::getDepartureDate,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "departureTime" -> Comparator.comparing(Train::getDepartureTime,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "arrivalDate" -> Comparator.comparing(Train::getArrivalDate,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "arrivalTime" -> Comparator.comparing(Train::getArrivalTime,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "departureAt" -> Comparator.comparing(Train::getDepartureAt,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "arrivalAt" -> Comparator.comparing(Train::getArrivalAt,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            case "travelMinutes" -> Comparator.comparing(Train::getTravelMinutes,
+                    Comparator.nullsLast(Comparator.naturalOrder()));
+            default -> throw new IllegalArgumentException("Неизвестное поле сортировки: " + sortBy);
+        };
+        return byField.thenComparing(Train::getId, Comparator.nullsLast(Comparator.naturalOrder()))
+                .thenComparing(Train::getNumber, Comparator.nullsLast(Comparator.naturalOrder()));
+    }
+
+    /**
+     * Расширяемый список номеров строк индекса без упаковки в Integer.
+     */
+    private static final class RowList {
+        private int[] rows = new int[4];
+        private int size;
+
+        void add(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        void remove(int row) {
+            for (int i = 0; i < size; i++) {
+                if (rows[i] == row) {
+                    rows[i] = rows[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
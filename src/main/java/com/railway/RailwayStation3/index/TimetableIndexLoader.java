@@ -0,0 +1,52 @@
+package com.railway.RailwayStation3.index;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Загружает {@link TimetableIndex} из базы данных после старта приложения.
+ * До завершения загрузки поиск выполняется запросами к базе.
+ */
+@Component
+public class TimetableIndexLoader {
+    private static final Logger log = LoggerFactory.getLogger(TimetableIndexLoader.class);
+
+    private final TimetableIndex timetableIndex;
+    private final TrainRepository trainRepository;
+    private final EntityManager entityManager;
+
+    public TimetableIndexLoader(TimetableIndex timetableIndex, TrainRepository trainRepository,
+                                EntityManager entityManager) {
+        this.timetableIndex = timetableIndex;
+        this.trainRepository = trainRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Читает все поезда потоком и строит индекс. Изменения, зафиксированные во время чтения,
+     * индекс запоминает и применяет после него.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.currentTimeMillis();
+        timetableIndex.beginLoad();
+        try (Stream<Train> trains = trainRepository.streamAllOrderById()) {
+            timetableIndex.finishLoad(trains.peek(entityManager::detach));
+        } catch (RuntimeException e) {
+            timetableIndex.abortLoad();
+            throw e;
+        }
+        log.info("Timetable index loaded: {} trains in {} ms",
+                timetableIndex.size(), System.currentTimeMillis() - started);
+    }
+}
@@ -0,0 +1,329 @@
+package com.railway.RailwayStation3.journey;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Неизменяемый снимок сети для планировщика маршрутов.
+ * <p>
+ * Остановка — пара (город, вокзал). Каждый поезд — одно соединение между двумя остановками;
+ * соединения хранятся в параллельных массивах, упорядоченных по времени отправления
+ * (в минутах от эпохи), как того требует алгоритм Connection Scan.
+ * Изменения создают новый снимок копированием массивов со вставкой или удалением одного соединения,
+ * без повторной сортировки; читатели продолжают работать со старым снимком.
+ */
+final class JourneyNetwork {
+
+    static final JourneyNetwork EMPTY = new JourneyNetwork(new String[0], new String[0], Map.of(), Map.of(),
+            new long[0], new long[0], new int[0], new int[0], new long[0], new String[0]);
+
+    // Остановки
+    final String[] stopCities;
+    final String[] stopStations;
+    private final Map<String, Integer> stopIndex;
+    private final Map<String, int[]> stopsByCity;
+    /** Остановки того же города для каждой остановки (включая её саму). */
+    final int[][] siblings;
+
+    // Соединения, упорядоченные по (отправление, ID поезда)
+    final long[] departures;
+    final long[] arrivals;
+    final int[] fromStops;
+    final int[] toStops;
+    final long[] trainIds;
+    final String[] numbers;
+
+    private JourneyNetwork(String[] stopCities, String[] stopStations,
+                           Map<String, Integer> stopIndex, Map<String, int[]> stopsByCity,
+                           long[] departures, long[] arrivals, int[] fromStops, int[] toStops,
+                           long[] trainIds, String[] numbers) {
+        this.stopCities = stopCities;
+        this.stopStations = stopStations;
+        this.stopIndex = stopIndex;
+        this.stopsByCity = stopsByCity;
+        this.siblings = new int[stopCities.length][];
+        for (int stop = 0; stop < stopCities.length; stop++) {
+            siblings[stop] = stopsByCity.get(stopCities[stop]);
+        }
+        this.departures = departures;
+        this.arrivals = arrivals;
+        this.fromStops = fromStops;
+        this.toStops = toStops;
+        this.trainIds = trainIds;
+        this.numbers = numbers;
+    }
+
+    /**
+     * Строит снимок по всем поездам. Поезда без дат и времени или с прибытием раньше отправления пропускаются.
+     *
+     * @param trains поток поездов
+     * @return новый снимок
+     */
+    static JourneyNetwork build(Stream<Train> trains) {
+        List<Train> usable = trains.filter(JourneyNetwork::isUsable)
+                .sorted(Comparator.comparingLong(JourneyNetwork::departureMinute).thenComparing(Train::getId))
+                .toList();
+
+        StopTable stops = new StopTable(new String[0], new String[0], new HashMap<>(), new HashMap<>());
+        int size = usable.size();
+        long[] departures = new long[size];
+        long[] arrivals = new long[size];
+        int[] fromStops = new int[size];
+        int[] toStops = new int[size];
+        long[] trainIds = new long[size];
+        String[] numbers = new String[size];
+        for (int i = 0; i < size; i++) {
+            Train train = usable.get(i);
+            departures[i] = departureMinute(train);
+            arrivals[i] = arrivalMinute(train);
+            fromStops[i] = stops.stop(train.getFromCity(), train.getDepartureStation());
+            toStops[i] = stops.stop(train.getToCity(), train.getArrivalStation());
+            trainIds[i] = train.getId();
+            numbers[i] = train.getNumber();
+        }
+        return new JourneyNetwork(stops.cities, stops.stations, stops.index, stops.byCity,
+                departures, arrivals, fromStops, toStops, trainIds, numbers);
+    }
+
+    /**
+     * Возвращает снимок с добавленным соединением поезда.
+     *
+     * @param train поезд
+     * @return новый снимок или этот же, если поезд не может участвовать в маршрутах
+     */
+    JourneyNetwork with(Train train) {
+        if (!isUsable(train)) {
+            return this;
+        }
+        StopTable stops = new StopTable(stopCities, stopStations, new HashMap<>(stopIndex), new HashMap<>(stopsByCity));
+        int from = stops.stop(train.getFromCity(), train.getDepartureStation());
+        int to = stops.stop(train.getToCity(), train.getArrivalStation());
+
+        long departure = departureMinute(train);
+        int position = insertionPoint(departure, train.getId());
+        int size = departures.length;
+
+        long[] newDepartures = insert(departures, position, departure);
+        long[] newArrivals = insert(arrivals, position, arrivalMinute(train));
+        int[] newFromStops = insert(fromStops, position, from);
+        int[] newToStops = insert(toStops, position, to);
+        long[] newTrainIds = insert(trainIds, position, train.getId());
+        String[] newNumbers = Arrays.copyOf(numbers, size + 1);
+        System.arraycopy(numbers, position, newNumbers, position + 1, size - position);
+        newNumbers[position] = train.getNumber();
+
+        return new JourneyNetwork(stops.cities, stops.stations, stops.index, stops.byCity,
+                newDepartures, newArrivals, newFromStops, newToStops, newTrainIds, newNumbers);
+    }
+
+    /**
+     * Возвращает снимок без соединения поезда.
+     *
+     * @param train прежнее состояние поезда (по нему находится позиция соединения)
+     * @return новый снимок или этот же, если соединения нет
+     */
+    JourneyNetwork without(Train train) {
+        if (!isUsable(train)) {
+            return this;
+        }
+        int position = insertionPoint(departureMinute(train), train.getId());
+        if (position >= trainIds.length || trainIds[position] != train.getId()) {
+            return this;
+        }
+        return new JourneyNetwork(stopCities, stopStations, stopIndex, stopsByCity,
+                remove(departures, position), remove(arrivals, position),
+                remove(fromStops, position), remove(toStops, position),
+                remove(trainIds, position), remove(numbers, position));
+    }
+
+    /**
+     * Возвращает снимок без соединений нескольких поездов. Массивы копируются один раз
+     * независимо от числа удаляемых поездов.
+     *
+     * @param trains прежние состояния поездов
+     * @return новый снимок или этот же, если ни одного соединения нет
+     */
+    JourneyNetwork withoutAll(Collection<Train> trains) {
+        boolean[] removed = new boolean[trainIds.length];
+        int count = 0;
+        for (Train train : trains) {
+            if (!isUsable(train)) {
+                continue;
+            }
+            int position = insertionPoint(departureMinute(train), train.getId());
+            if (position < trainIds.length && trainIds[position] == train.getId() && !removed[position]) {
+                removed[position] = true;
+                count++;
+            }
+        }
+        if (count == 0) {
+            return this;
+        }
+
+        int size = trainIds.length - count;
+        long[] keptDepartures = new long[size];
+        long[] keptArrivals = new long[size];
+        int[] keptFromStops = new int[size];
+        int[] keptToStops = new int[size];
+        long[] keptTrainIds = new long[size];
+        String[] keptNumbers = new String[size];
+        int next = 0;
+        for (int i = 0; i < trainIds.length; i++) {
+            if (removed[i]) {
+                continue;
+            }
+            keptDepartures[next] = departures[i];
+            keptArrivals[next] = arrivals[i];
+            keptFromStops[next] = fromStops[i];
+            keptToStops[next] = toStops[i];
+            keptTrainIds[next] = trainIds[i];
+            keptNumbers[next] = numbers[i];
+            next++;
+        }
+        return new JourneyNetwork(stopCities, stopStations, stopIndex, stopsByCity,
+                keptDepartures, keptArrivals, keptFromStops, keptToStops, keptTrainIds, keptNumbers);
+    }
+
+    int stopCount() {
+        return stopCities.length;
+    }
+
+    int connectionCount() {
+        return departures.length;
+    }
+
+    /**
+     * @param city город
+     * @return остановки (вокзалы) города; пустой массив, если город неизвестен
+     */
+    int[] stopsOf(String city) {
+        return stopsByCity.getOrDefault(city, new int[0]);
+    }
+
+    /**
+     * @param departure время в минутах от эпохи
+     * @return индекс первого соединения, отправляющегося не раньше указанного времени
+     */
+    int firstDepartureAtOrAfter(long departure) {
+        int low = 0;
+        int high = departures.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[mid] < departure) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static long toMinute(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    static LocalDateTime fromMinute(long minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60, 0, ZoneOffset.UTC);
+    }
+
+    private int insertionPoint(long departure, long trainId) {
+        int position = firstDepartureAtOrAfter(departure);
+        while (position < departures.length && departures[position] == departure && trainIds[position] < trainId) {
+            position++;
+        }
+        return position;
+    }
+
+    private static boolean isUsable(Train train) {
+        return train != null && train.getId() != null
+                && train.getFromCity() != null && train.getToCity() != null
+                && train.getDepartureDate() != null && train.getDepartureTime() != null
+                && train.getArrivalDate() != null && train.getArrivalTime() != null
+                && arrivalMinute(train) >= departureMinute(train);
+    }
+
+    private static long departureMinute(Train train) {
+        return toMinute(LocalDateTime.of(train.getDepartureDate(), train.getDepartureTime()));
+    }
+
+    private static long arrivalMinute(Train train) {
+        return toMinute(LocalDateTime.of(train.getArrivalDate(), train.getArrivalTime()));
+    }
+
+    private static long[] insert(long[] array, int position, long value) {
+        long[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, position, copy, position + 1, array.length - position);
+        copy[position] = value;
+        return copy;
+    }
+
+    private static int[] insert(int[] array, int position, int value) {
+        int[] copy = Arrays.copyOf(array, array.length + 1);
+        System.arraycopy(array, position, copy, position + 1, array.length - position);
+        copy[position] = value;
+        return copy;
+    }
+
+    private static long[] remove(long[] array, int position) {
+        long[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, position + 1, copy, position, array.length - position - 1);
+        return copy;
+    }
+
+    private static int[] remove(int[] array, int position) {
+        int[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, position + 1, copy, position, array.length - position - 1);
+        return copy;
+    }
+
+    private static String[] remove(String[] array, int position) {
+        String[] copy = Arrays.copyOf(array, array.length - 1);
+        System.arraycopy(array, position + 1, copy, position, array.length - position - 1);
+        return copy;
+    }
+
+    /**
+     * Таблица остановок, пополняемая при построении снимка. Массивы копируются только при добавлении остановки.
+     */
+    private static final class StopTable {
+        String[] cities;
+        String[] stations;
+        final Map<String, Integer> index;
+        final Map<String, int[]> byCity;
+
+        StopTable(String[] cities, String[] stations, Map<String, Integer> index, Map<String, int[]> byCity) {
+            this.cities = cities;
+            this.stations = stations;
+            this.index = index;
+            this.byCity = byCity;
+        }
+
+        int stop(String city, String station) {
+            String key = city + "|" + (station == null ? "" : station);
+            Integer existing = index.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            int stop = cities.length;
+            cities = Arrays.copyOf(cities, stop + 1);
+            stations = Arrays.copyOf(stations, stop + 1);
+            cities[stop] = city;
+            stations[stop] = station;
+            index.put(key, stop);
+            int[] cityStops = byCity.getOrDefault(city, new int[0]);
+            int[] extended = Arrays.copyOf(cityStops, cityStops.length + 1);
+            extended[cityStops.length] = stop;
+            byCity.put(city, extended);
+            return stop;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.railway.RailwayStation3.journey;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.stream.Stream;
+
+/**
+ * Загружает сеть {@link JourneyPlanner} из базы данных после старта приложения.
+ */
+@Component
+public class JourneyNetworkLoader {
+    private static final Logger log = LoggerFactory.getLogger(JourneyNetworkLoader.class);
+
+    private final JourneyPlanner journeyPlanner;
+    private final TrainRepository trainRepository;
+    private final EntityManager entityManager;
+
+    public JourneyNetworkLoader(JourneyPlanner journeyPlanner, TrainRepository trainRepository,
+                                EntityManager entityManager) {
+        this.journeyPlanner = journeyPlanner;
+        this.trainRepository = trainRepository;
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Читает все поезда потоком и строит сеть соединений. Изменения, зафиксированные во время
+     * чтения, планировщик запоминает и применяет после него.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        long started = System.currentTimeMillis();
+        journeyPlanner.beginLoad();
+        try (Stream<Train> trains = trainRepository.streamAllOrderById()) {
+            journeyPlanner.finishLoad(trains.peek(entityManager::detach));
+        } catch (RuntimeException e) {
+            journeyPlanner.abortLoad();
+            throw e;
+        }
+        log.info("Journey network loaded: {} connections in {} ms",
+                journeyPlanner.size(), System.currentTimeMillis() - started);
+    }
+}
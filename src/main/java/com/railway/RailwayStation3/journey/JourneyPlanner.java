@@ -0,0 +1,356 @@
+package com.railway.RailwayStation3.journey;
+
+import com.railway.RailwayStation3.dto.Journey;
+import com.railway.RailwayStation3.dto.JourneyLeg;
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Планировщик маршрутов с пересадками по алгоритму Connection Scan.
+ * <p>
+ * Соединения просматриваются один раз за раунд в порядке отправления; раунд k находит
+ * самое раннее прибытие не более чем на k поездах. Каждый раунд, улучшивший прибытие
+ * в город назначения, даёт маршрут Парето-множества «время прибытия / число пересадок».
+ * Пересадка на том же вокзале требует минимального времени, переход на другой вокзал города —
+ * отдельного (большего) времени, которое заменяет минимальную пересадку. Поиск ограничен горизонтом от времени отправления.
+ * <p>
+ * Сеть загружается при старте {@link JourneyNetworkLoader} и обновляется событиями
+ * {@link TrainChangedEvent}: каждое изменение публикует новый неизменяемый снимок.
+ */
+@Component
+public class JourneyPlanner {
+
+    public static final int MAX_TRANSFERS_LIMIT = 5;
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final int NO_PARENT = Integer.MIN_VALUE;
+
+    private final long minTransferMinutes;
+    private final long stationChangeMinutes;
+    private final int defaultMaxTransfers;
+    private final long horizonMinutes;
+
+    private volatile JourneyNetwork network = JourneyNetwork.EMPTY;
+    private volatile boolean ready;
+    // Изменения, пришедшие во время загрузки; изменяется только под монитором планировщика
+    private List<TrainChangedEvent> pending;
+
+    public JourneyPlanner(@Value("${railway.journey.min-transfer-minutes:15}") long minTransferMinutes,
+                          @Value("${railway.journey.station-change-minutes:60}") long stationChangeMinutes,
+                          @Value("${railway.journey.max-transfers:3}") int defaultMaxTransfers,
+                          @Value("${railway.journey.horizon-hours:48}") long horizonHours) {
+        this.minTransferMinutes = minTransferMinutes;
+        this.stationChangeMinutes = stationChangeMinutes;
+        this.defaultMaxTransfers = defaultMaxTransfers;
+        this.horizonMinutes = horizonHours * 60;
+    }
+
+    /**
+     * Готов ли планировщик (завершена ли начальная загрузка сети).
+     *
+     * @return true, если сеть загружена
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Количество соединений в сети.
+     *
+     * @return число поездов, участвующих в маршрутах
+     */
+    public int size() {
+        return network.connectionCount();
+    }
+
+    /**
+     * Начинает загрузку сети: изменения расписания, пришедшие с этого момента,
+     * запоминаются и применяются в {@link #finishLoad(Stream)}. Вызывается до запроса к базе.
+     */
+    public synchronized void beginLoad() {
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Полностью перестраивает сеть и применяет изменения, пришедшие после {@link #beginLoad()},
+     * если прочитанная версия поезда была старше.
+     *
+     * @param trains поток всех поездов
+     */
+    public synchronized void finishLoad(Stream<Train> trains) {
+        // Номер изменения каждого прочитанного поезда
+        Map<Long, Long> loaded = new HashMap<>();
+        JourneyNetwork built = JourneyNetwork.build(
+                trains.peek(train -> loaded.put(train.getId(), train.getChangeSeq())));
+        if (pending != null) {
+            for (TrainChangedEvent event : pending) {
+                built = replay(built, loaded, event);
+            }
+        }
+        pending = null;
+        network = built;
+        ready = true;
+    }
+
+    /**
+     * Прекращает запоминание изменений после неудачной загрузки.
+     */
+    public synchronized void abortLoad() {
+        pending = null;
+    }
+
+    /**
+     * Применяет изменение расписания к сети после фиксации транзакции.
+     * Во время загрузки изменение запоминается и применяется после неё.
+     *
+     * @param event событие изменения поезда
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTrainChanged(TrainChangedEvent event) {
+        if (pending != null) {
+            pending.add(event);
+        } else {
+            network = apply(network, event);
+        }
+    }
+
+    /**
+     * Удаляет из сети соединения порции поездов, перенесённых в архив, одной перестройкой массивов.
+     *
+     * @param event событие переноса порции
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onTrainsArchived(TrainsArchivedEvent event) {
+        if (pending != null) {
+            pending.addAll(event.deletions());
+        } else {
+            network = network.withoutAll(event.trains());
+        }
+    }
+
+    /**
+     * Ищет маршруты из одного города в другой.
+     *
+     * @param fromCity город отправления
+     * @param toCity город прибытия
+     * @param earliestDeparture самое раннее время отправления
+     * @param maxTransfers максимальное число пересадок или null для значения по умолчанию
+     * @param minTransfer минимальное время пересадки на том же вокзале в минутах или null для значения по умолчанию
+     * @return маршруты Парето-множества по возрастанию числа пересадок; последний прибывает раньше всех
+     */
+    public List<Journey> plan(String fromCity, String toCity, LocalDateTime earliestDeparture,
+                              Integer maxTransfers, Integer minTransfer) {
+        if (!ready) {
+            throw new IllegalStateException("Сеть маршрутов ещё загружается");
+        }
+        if (isBlank(fromCity) || isBlank(toCity) || earliestDeparture == null) {
+            throw new IllegalArgumentException("Необходимо указать города отправления, прибытия и дату");
+        }
+        if (fromCity.equals(toCity)) {
+            throw new IllegalArgumentException("Города отправления и прибытия совпадают");
+        }
+        int transfers = (maxTransfers == null) ? defaultMaxTransfers : maxTransfers;
+        if (transfers < 0 || transfers > MAX_TRANSFERS_LIMIT) {
+            throw new IllegalArgumentException("Число пересадок должно быть от 0 до " + MAX_TRANSFERS_LIMIT);
+        }
+        long transferBuffer = (minTransfer == null) ? minTransferMinutes : minTransfer;
+        if (transferBuffer < 0) {
+            throw new IllegalArgumentException("Время пересадки не может быть отрицательным");
+        }
+
+        JourneyNetwork net = network;
+        int[] origins = net.stopsOf(fromCity);
+        int[] targets = net.stopsOf(toCity);
+        if (origins.length == 0 || targets.length == 0) {
+            return List.of();
+        }
+        return scan(net, origins, targets, JourneyNetwork.toMinute(earliestDeparture), transfers + 1, transferBuffer);
+    }
+
+    private List<Journey> scan(JourneyNetwork net, int[] origins, int[] targets, long start,
+                               int maxLegs, long transferBuffer) {
+        int stopCount = net.stopCount();
+        boolean[] isOrigin = new boolean[stopCount];
+        boolean[] isTarget = new boolean[stopCount];
+        for (int stop : origins) {
+            isOrigin[stop] = true;
+        }
+        for (int stop : targets) {
+            isTarget[stop] = true;
+        }
+
+        // ready[k][s] — самое раннее время, с которого можно уехать с остановки s не более чем на k поездах:
+        // прибытие плюс минимальная пересадка или плюс переход с другого вокзала города (переход заменяет
+        // пересадку, а не добавляется к ней). Сравнивается именно готовность, а не прибытие: более позднее
+        // прибытие на соседний вокзал может дать более раннюю готовность, чем прибытие на этот.
+        // parent[k][s] — соединение, которым достигнута остановка, или -(c+2), если после соединения c
+        // был переход с другого вокзала
+        long[][] ready = new long[maxLegs + 1][];
+        int[][] parent = new int[maxLegs + 1][];
+        ready[0] = new long[stopCount];
+        parent[0] = new int[stopCount];
+        Arrays.fill(ready[0], UNREACHED);
+        Arrays.fill(parent[0], NO_PARENT);
+        for (int stop : origins) {
+            ready[0][stop] = start;
+        }
+
+        long[] bestAtTarget = new long[maxLegs + 1];
+        int[] bestTargetConnection = new int[maxLegs + 1];
+        // Маршруты с прибытием позже горизонта поиска не рассматриваются
+        bestAtTarget[0] = start + horizonMinutes;
+
+        // Новые отправления возможны только с остановок, улучшенных в предыдущем раунде,
+        // поэтому раунд начинается с самой ранней готовности на них и пропускает остальные остановки
+        boolean[] improved = new boolean[stopCount];
+        for (int stop : origins) {
+            improved[stop] = true;
+        }
+        long scanFrom = start;
+        int rounds = 0;
+
+        for (int k = 1; k <= maxLegs; k++) {
+            long[] previous = ready[k - 1];
+            long[] current = previous.clone();
+            int[] currentParent = parent[k - 1].clone();
+            boolean[] improvedNow = new boolean[stopCount];
+            long earliestImproved = UNREACHED;
+            long bound = bestAtTarget[k - 1];
+            int targetConnection = NO_PARENT;
+
+            for (int c = net.firstDepartureAtOrAfter(scanFrom); c < net.departures.length && net.departures[c] < bound; c++) {
+                int from = net.fromStops[c];
+                if (!improved[from] || previous[from] > net.departures[c]) {
+                    continue;
+                }
+                int to = net.toStops[c];
+                long arrivedAt = net.arrivals[c];
+                if (isTarget[to]) {
+                    if (arrivedAt < bound) {
+                        bound = arrivedAt;
+                        targetConnection = c;
+                    }
+                    continue;
+                }
+                long readyAt = arrivedAt + transferBuffer;
+                if (readyAt < current[to]) {
+                    current[to] = readyAt;
+                    currentParent[to] = c;
+                    improvedNow[to] = true;
+                    earliestImproved = Math.min(earliestImproved, readyAt);
+                }
+                // Переход на другие вокзалы того же города
+                for (int sibling : net.siblings[to]) {
+                    long walkedAt = arrivedAt + stationChangeMinutes;
+                    if (sibling != to && walkedAt < current[sibling]) {
+                        current[sibling] = walkedAt;
+                        currentParent[sibling] = -(c + 2);
+                        improvedNow[sibling] = true;
+                        earliestImproved = Math.min(earliestImproved, walkedAt);
+                    }
+                }
+            }
+
+            ready[k] = current;
+            parent[k] = currentParent;
+            bestAtTarget[k] = bound;
+            bestTargetConnection[k] = targetConnection;
+            rounds = k;
+            if (earliestImproved == UNREACHED) {
+                break;
+            }
+            improved = improvedNow;
+            scanFrom = earliestImproved;
+        }
+
+        List<Journey> journeys = new ArrayList<>();
+        for (int k = 1; k <= rounds; k++) {
+            if (bestTargetConnection[k] != NO_PARENT) {
+                journeys.add(reconstruct(net, parent, k, bestTargetConnection[k]));
+            }
+        }
+        return journeys;
+    }
+
+    private Journey reconstruct(JourneyNetwork net, int[][] parent, int round, int lastConnection) {
+        List<JourneyLeg> legs = new ArrayList<>();
+        int c = lastConnection;
+        for (int k = round; ; k--) {
+            legs.add(leg(net, c));
+            int p = parent[k - 1][net.fromStops[c]];
+            if (p == NO_PARENT) {
+                break;
+            }
+            c = (p < 0) ? -p - 2 : p;
+        }
+        Collections.reverse(legs);
+
+        LocalDateTime departure = legs.get(0).departure();
+        LocalDateTime arrival = legs.get(legs.size() - 1).arrival();
+        return new Journey(legs, legs.size() - 1, departure, arrival,
+                JourneyNetwork.toMinute(arrival) - JourneyNetwork.toMinute(departure));
+    }
+
+    private static JourneyLeg leg(JourneyNetwork net, int c) {
+        int from = net.fromStops[c];
+        int to = net.toStops[c];
+        return new JourneyLeg(net.trainIds[c], net.numbers[c],
+                net.stopCities[from], net.stopStations[from],
+                net.stopCities[to], net.stopStations[to],
+                JourneyNetwork.fromMinute(net.departures[c]), JourneyNetwork.fromMinute(net.arrivals[c]));
+    }
+
+    /**
+     * Применяет изменение, пришедшее во время загрузки, если прочитанные данные его ещё не содержат:
+     * поезд прочитан в состоянии до изменения или (при создании) не прочитан вовсе.
+     *
+     * @param loaded номера изменений прочитанных поездов, обновляются по мере повтора
+     * @return сеть с применённым изменением или та же сеть
+     */
+    private static JourneyNetwork replay(JourneyNetwork network, Map<Long, Long> loaded, TrainChangedEvent event) {
+        Train before = event.before();
+        Train after = event.after();
+        Long id = event.isCreated() ? after.getId() : before.getId();
+        boolean reflected = event.isCreated()
+                ? loaded.containsKey(id)
+                : !loaded.containsKey(id) || !Objects.equals(loaded.get(id), before.getChangeSeq());
+        if (reflected) {
+            return network;
+        }
+        if (event.isDeleted()) {
+            loaded.remove(id);
+        } else {
+            loaded.put(id, after.getChangeSeq());
+        }
+        return apply(network, event);
+    }
+
+    private static JourneyNetwork apply(JourneyNetwork network, TrainChangedEvent event) {
+        JourneyNetwork updated = network;
+        if (event.before() != null) {
+            updated = updated.without(event.before());
+        }
+        if (event.after() != null) {
+            updated = updated.with(event.after());
+        }
+        return updated;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,98 @@
+package com.railway.RailwayStation3.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Поезд, перенесённый в архив после прибытия.
+ * Архив доступен только для чтения; ID совпадает с ID поезда в основной таблице.
+ */
+@Entity
+@Table(name = "trains_archive", indexes = {
+        @Index(name = "idx_trains_archive_route_date", columnList = "from_city, to_city, departure_date"),
+        @Index(name = "idx_trains_archive_date", columnList = "departure_date")
+})
+public class ArchivedTrain {
+
+    @Id
+    private Long id;
+
+    private String number;
+
+    @Column(name = "from_city")
+    private String fromCity;
+
+    @Column(name = "to_city")
+    private String toCity;
+
+    @Column(name = "departure_station")
+    private String departureStation;
+
+    @Column(name = "arrival_station")
+    private String arrivalStation;
+
+    @Column(name = "departure_date")
+    private LocalDate departureDate;
+
+    @Column(name = "departure_time")
+    private LocalTime departureTime;
+
+    @Column(name = "arrival_date")
+    private LocalDate arrivalDate;
+
+    @Column(name = "arrival_time")
+    private LocalTime arrivalTime;
+
+    /**
+     * Время переноса в архив.
+     */
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public String getDepartureStation() {
+        return departureStation;
+    }
+
+    public String getArrivalStation() {
+        return arrivalStation;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public LocalDate getArrivalDate() {
+        return arrivalDate;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public Instant getArchivedAt() {
+        return archivedAt;
+    }
+}
@@ -0,0 +1,93 @@
+package com.railway.RailwayStation3.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Бронирование места в поезде.
+ * Место определяется поездом, номером вагона и номером места; уникальность этой тройки
+ * гарантируется ограничением базы данных, поэтому одно место не может быть продано дважды
+ * даже при нескольких экземплярах приложения.
+ */
+@Entity
+@Table(name = "bookings",
+        uniqueConstraints = @UniqueConstraint(name = "uk_bookings_seat", columnNames = {"train_id", "car", "seat"}),
+        indexes = @Index(name = "idx_bookings_username", columnList = "username"))
+public class Booking {
+
+    /**
+     * Суррогатный ключ. Клиенты обращаются к бронированию по поезду, вагону и месту:
+     * при пакетной записи ID не возвращается.
+     */
+    @JsonIgnore
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * ID поезда.
+     */
+    @Column(name = "train_id", nullable = false)
+    private Long trainId;
+
+    /**
+     * Номер вагона (с 1).
+     */
+    @Column(nullable = false)
+    private int car;
+
+    /**
+     * Номер места в вагоне (с 1).
+     */
+    @Column(nullable = false)
+    private int seat;
+
+    /**
+     * Логин пользователя, забронировавшего место.
+     */
+    @Column(nullable = false)
+    private String username;
+
+    /**
+     * Время бронирования.
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Booking() {
+    }
+
+    public Booking(Long trainId, int car, int seat, String username, LocalDateTime createdAt) {
+        this.trainId = trainId;
+        this.car = car;
+        this.seat = seat;
+        this.username = username;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public int getCar() {
+        return car;
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
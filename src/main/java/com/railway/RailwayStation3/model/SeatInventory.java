@@ -0,0 +1,64 @@
+package com.railway.RailwayStation3.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Схема мест поезда: количество вагонов и мест в каждом вагоне.
+ * Если для поезда схема не задана, используется схема по умолчанию из настроек.
+ */
+@Entity
+@Table(name = "seat_inventories")
+public class SeatInventory {
+
+    /**
+     * ID поезда.
+     */
+    @Id
+    @Column(name = "train_id")
+    private Long trainId;
+
+    /**
+     * Количество вагонов.
+     */
+    @Column(nullable = false)
+    private int cars;
+
+    /**
+     * Количество мест в вагоне.
+     */
+    @Column(name = "seats_per_car", nullable = false)
+    private int seatsPerCar;
+
+    public SeatInventory() {
+    }
+
+    public SeatInventory(Long trainId, int cars, int seatsPerCar) {
+        this.trainId = trainId;
+        this.cars = cars;
+        this.seatsPerCar = seatsPerCar;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public void setTrainId(Long trainId) {
+        this.trainId = trainId;
+    }
+
+    public int getCars() {
+        return cars;
+    }
+
+    public void setCars(int cars) {
+        this.cars = cars;
+    }
+
+    public int getSeatsPerCar() {
+        return seatsPerCar;
+    }
+
+    public void setSeatsPerCar(int seatsPerCar) {
+        this.seatsPerCar = seatsPerCar;
+    }
+}
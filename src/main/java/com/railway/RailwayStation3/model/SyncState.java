@@ -0,0 +1,58 @@
+package com.railway.RailwayStation3.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Состояние журнала изменений расписания (единственная строка таблицы).
+ * Строка создаётся при первом изменении и блокируется каждой записью до конца транзакции,
+ * поэтому номера изменений становятся видимыми строго по возрастанию.
+ */
+@Entity
+@Table(name = "sync_state")
+public class SyncState {
+
+    /**
+     * ID единственной строки состояния.
+     */
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    /**
+     * Последний выданный номер изменения.
+     */
+    @Column(name = "last_change_seq", nullable = false)
+    private long lastChangeSeq;
+
+    /**
+     * Номер изменения, до которого (включительно) записи об удалении уже удалены.
+     * Клиенты, синхронизированные раньше этого номера, должны выполнить полную синхронизацию.
+     */
+    @Column(name = "compacted_through", nullable = false)
+    private long compactedThrough;
+
+    /**
+     * Время последнего удаления старых записей об удалении.
+     */
+    @Column(name = "compacted_at")
+    private Instant compactedAt;
+
+    public Integer getId() {
+        return id;
+    }
+
+    public long getLastChangeSeq() {
+        return lastChangeSeq;
+    }
+
+    public long getCompactedThrough() {
+        return compactedThrough;
+    }
+
+    public Instant getCompactedAt() {
+        return compactedAt;
+    }
+}
@@ -1,15 +1,32 @@
 package com.railway.RailwayStation3.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.format.annotation.DateTimeFormat;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 /**
  * Класс, представляющий поезд в системе расписания.
  */
 @Entity
-@Table(name = "trains")
+@Table(name = "trains", indexes = {
+        @Index(name = "idx_trains_route_date_id", columnList = "from_city, to_city, departure_date, id"),
+        @Index(name = "idx_trains_to_date", columnList = "to_city, departure_date"),
+        @Index(name = "idx_trains_date_time", columnList = "departure_date, departure_time"),
+        @Index(name = "idx_trains_dep_station_date", columnList = "departure_station, departure_date"),
+        @Index(name = "idx_trains_arr_station_date", columnList = "arrival_station, departure_date"),
+        @Index(name = "idx_trains_change_seq", columnList = "change_seq"),
+        @Index(name = "idx_trains_arrival_date_id", columnList = "arrival_date, id"),
+        @Index(name = "idx_trains_departure_at_id", columnList = "departure_at, id"),
+        @Index(name = "idx_trains_from_departure_at_id", columnList = "from_city, departure_at, id"),
+        @Index(name = "idx_trains_arrival_at_id", columnList = "arrival_at, id"),
+        @Index(name = "idx_trains_to_arrival_at_id", columnList = "to_city, arrival_at, id"),
+        @Index(name = "idx_trains_travel_minutes", columnList = "travel_minutes")
+})
 public class Train {
 
     @Id
@@ -77,6 +94,52 @@ public class Train {
     @Column(name = "arrival_time")
     private LocalTime arrivalTime;
 
+    /**
+     * Дата и время отправления одним значением.
+     * Вычисляется из даты и времени отправления и обновляется вместе с ними.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "departure_at")
+    private LocalDateTime departureAt;
+
+    /**
+     * Дата и время прибытия одним значением.
+     * Вычисляется из даты и времени прибытия и обновляется вместе с ними.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "arrival_at")
+    private LocalDateTime arrivalAt;
+
+    /**
+     * Время в пути в минутах. Вычисляется из моментов отправления и прибытия.
+     */
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(name = "travel_minutes")
+    private Integer travelMinutes;
+
+    /**
+     * Номер последнего изменения поезда в журнале изменений расписания.
+     * Увеличивается при каждом создании и обновлении; используется для дельта-синхронизации.
+     */
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    /**
+     * Версия записи для оптимистической блокировки.
+     * Увеличивается при каждом обновлении; передаётся клиентам как ETag поезда.
+     */
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    /**
+     * ID регулярного расписания, из которого построен рейс, или null для поезда из таблицы trains.
+     * Такие рейсы не хранятся в базе и не имеют собственного ID.
+     */
+    @Transient
+    private Long scheduleId;
+
     public Train() {
     }
 
@@ -92,6 +155,20 @@ public class Train {
         this.departureTime = departureTime;
         this.arrivalDate = arrivalDate;
         this.arrivalTime = arrivalTime;
+        syncTimestamps();
+    }
+
+    /**
+     * Создаёт независимую копию поезда.
+     *
+     * @param other исходный поезд
+     */
+    public Train(Train other) {
+        this(other.id, other.number, other.fromCity, other.toCity, other.departureStation, other.arrivalStation,
+                other.departureDate, other.departureTime, other.arrivalDate, other.arrivalTime);
+        this.changeSeq = other.changeSeq;
+        this.version = other.version;
+        this.scheduleId = other.scheduleId;
     }
 
     public Long getId() {
@@ -148,6 +225,7 @@ public class Train {
 
     public void setDepartureDate(LocalDate departureDate) {
         this.departureDate = departureDate;
+        syncTimestamps();
     }
 
     public LocalTime getDepartureTime() {
@@ -156,6 +234,7 @@ public class Train {
 
     public void setDepartureTime(LocalTime departureTime) {
         this.departureTime = departureTime;
+        syncTimestamps();
     }
 
     public LocalDate getArrivalDate() {
@@ -164,6 +243,7 @@ public class Train {
 
     public void setArrivalDate(LocalDate arrivalDate) {
         this.arrivalDate = arrivalDate;
+        syncTimestamps();
     }
 
     public LocalTime getArrivalTime() {
@@ -172,6 +252,53 @@ public class Train {
 
     public void setArrivalTime(LocalTime arrivalTime) {
         this.arrivalTime = arrivalTime;
+        syncTimestamps();
+    }
+
+    public LocalDateTime getDepartureAt() {
+        return departureAt;
+    }
+
+    public LocalDateTime getArrivalAt() {
+        return arrivalAt;
+    }
+
+    public Integer getTravelMinutes() {
+        return travelMinutes;
+    }
+
+    /**
+     * Пересчитывает моменты отправления и прибытия и время в пути после изменения даты или времени.
+     */
+    private void syncTimestamps() {
+        departureAt = (departureDate == null || departureTime == null) ? null : departureDate.atTime(departureTime);
+        arrivalAt = (arrivalDate == null || arrivalTime == null) ? null : arrivalDate.atTime(arrivalTime);
+        travelMinutes = (departureAt == null || arrivalAt == null)
+                ? null : (int) Duration.between(departureAt, arrivalAt).toMinutes();
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Long getScheduleId() {
+        return scheduleId;
+    }
+
+    public void setScheduleId(Long scheduleId) {
+        this.scheduleId = scheduleId;
     }
 
     @Override
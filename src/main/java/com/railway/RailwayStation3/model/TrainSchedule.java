@@ -0,0 +1,270 @@
+package com.railway.RailwayStation3.model;
+
+import jakarta.persistence.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Регулярное расписание поезда: одни и те же маршрут и время в выбранные дни недели
+ * в пределах периода действия.
+ * <p>
+ * Отдельные рейсы в базе не хранятся — они строятся при поиске на запрошенные даты
+ * ({@link #toTrain(LocalDate)}), поэтому расписание на год вперёд занимает одну строку.
+ */
+@Entity
+@Table(name = "train_schedules", indexes = {
+        @Index(name = "idx_train_schedules_route", columnList = "from_city, to_city")
+})
+public class TrainSchedule {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Номер поезда.
+     */
+    private String number;
+
+    /**
+     * Город отправления поезда.
+     */
+    @Column(name = "from_city")
+    private String fromCity;
+
+    /**
+     * Город прибытия поезда.
+     */
+    @Column(name = "to_city")
+    private String toCity;
+
+    /**
+     * Вокзал отправления поезда.
+     */
+    @Column(name = "departure_station")
+    private String departureStation;
+
+    /**
+     * Вокзал прибытия поезда.
+     */
+    @Column(name = "arrival_station")
+    private String arrivalStation;
+
+    /**
+     * Время отправления поезда.
+     * Формат: HH:mm.
+     */
+    @Column(name = "departure_time")
+    private LocalTime departureTime;
+
+    /**
+     * Время прибытия поезда.
+     * Формат: HH:mm.
+     */
+    @Column(name = "arrival_time")
+    private LocalTime arrivalTime;
+
+    /**
+     * Через сколько суток после отправления поезд прибывает (0 — в тот же день).
+     */
+    @Column(name = "arrival_day_offset", nullable = false)
+    private int arrivalDayOffset;
+
+    /**
+     * Дни недели отправления: бит 0 — понедельник, ..., бит 6 — воскресенье.
+     */
+    @Column(name = "days_mask", nullable = false)
+    private int daysMask;
+
+    /**
+     * Первый день действия расписания.
+     * Формат: yyyy-MM-dd.
+     */
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    @Column(name = "valid_from")
+    private LocalDate validFrom;
+
+    /**
+     * Последний день действия расписания (включительно).
+     * Формат: yyyy-MM-dd.
+     */
+    @DateTimeFormat(pattern = "yyyy-MM-dd")
+    @Column(name = "valid_to")
+    private LocalDate validTo;
+
+    /**
+     * Даты, в которые поезд не отправляется, хотя день недели подходит.
+     */
+    @ElementCollection
+    @CollectionTable(name = "train_schedule_exceptions", joinColumns = @JoinColumn(name = "schedule_id"))
+    @Column(name = "service_date")
+    private Set<LocalDate> exceptions = new TreeSet<>();
+
+    public TrainSchedule() {
+    }
+
+    /**
+     * Отправляется ли поезд по этому расписанию в указанную дату.
+     *
+     * @param date дата отправления
+     * @return true, если дата входит в период действия, день недели подходит и дата не исключена
+     */
+    public boolean runsOn(LocalDate date) {
+        return !date.isBefore(validFrom) && !date.isAfter(validTo)
+                && (daysMask & dayBit(date.getDayOfWeek())) != 0
+                && !exceptions.contains(date);
+    }
+
+    /**
+     * Строит рейс на указанную дату отправления.
+     * Рейс не имеет ID; ссылка на расписание передаётся в {@link Train#getScheduleId()}.
+     *
+     * @param departureDate дата отправления
+     * @return рейс поезда
+     */
+    public Train toTrain(LocalDate departureDate) {
+        Train train = new Train(null, number, fromCity, toCity, departureStation, arrivalStation,
+                departureDate, departureTime, departureDate.plusDays(arrivalDayOffset), arrivalTime);
+        train.setScheduleId(id);
+        return train;
+    }
+
+    private static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public void setFromCity(String fromCity) {
+        this.fromCity = fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public void setToCity(String toCity) {
+        this.toCity = toCity;
+    }
+
+    public String getDepartureStation() {
+        return departureStation;
+    }
+
+    public void setDepartureStation(String departureStation) {
+        this.departureStation = departureStation;
+    }
+
+    public String getArrivalStation() {
+        return arrivalStation;
+    }
+
+    public void setArrivalStation(String arrivalStation) {
+        this.arrivalStation = arrivalStation;
+    }
+
+    public LocalTime getDepartureTime() {
+        return departureTime;
+    }
+
+    public void setDepartureTime(LocalTime departureTime) {
+        this.departureTime = departureTime;
+    }
+
+    public LocalTime getArrivalTime() {
+        return arrivalTime;
+    }
+
+    public void setArrivalTime(LocalTime arrivalTime) {
+        this.arrivalTime = arrivalTime;
+    }
+
+    public int getArrivalDayOffset() {
+        return arrivalDayOffset;
+    }
+
+    public void setArrivalDayOffset(int arrivalDayOffset) {
+        this.arrivalDayOffset = arrivalDayOffset;
+    }
+
+    /**
+     * Дни недели отправления (в JSON — например, ["MONDAY", "FRIDAY"]).
+     */
+    public Set<DayOfWeek> getDaysOfWeek() {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((daysMask & dayBit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return days;
+    }
+
+    public void setDaysOfWeek(Set<DayOfWeek> daysOfWeek) {
+        int mask = 0;
+        if (daysOfWeek != null) {
+            for (DayOfWeek day : daysOfWeek) {
+                mask |= dayBit(day);
+            }
+        }
+        this.daysMask = mask;
+    }
+
+    public LocalDate getValidFrom() {
+        return validFrom;
+    }
+
+    public void setValidFrom(LocalDate validFrom) {
+        this.validFrom = validFrom;
+    }
+
+    public LocalDate getValidTo() {
+        return validTo;
+    }
+
+    public void setValidTo(LocalDate validTo) {
+        this.validTo = validTo;
+    }
+
+    public Set<LocalDate> getExceptions() {
+        return exceptions;
+    }
+
+    public void setExceptions(Set<LocalDate> exceptions) {
+        this.exceptions = (exceptions == null) ? new TreeSet<>() : new TreeSet<>(exceptions);
+    }
+
+    @Override
+    public String toString() {
+        return "TrainSchedule{" +
+                "id=" + id +
+                ", number='" + number + '\'' +
+                ", fromcity='" + fromCity + '\'' +
+                ", tocity='" + toCity + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,65 @@
+package com.railway.RailwayStation3.model;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+/**
+ * Запись об удалённом поезде в журнале изменений расписания.
+ * Позволяет клиентам дельта-синхронизации узнать об удалении; старые записи
+ * периодически удаляются (см. {@code TrainChangeLog}).
+ */
+@Entity
+@Table(name = "train_tombstones")
+public class TrainTombstone {
+
+    /**
+     * Номер изменения, которым поезд был удалён.
+     */
+    @Id
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    /**
+     * ID удалённого поезда.
+     */
+    @Column(name = "train_id", nullable = false)
+    private Long trainId;
+
+    /**
+     * Номер удалённого поезда.
+     */
+    private String number;
+
+    /**
+     * Время удаления.
+     */
+    @Column(name = "deleted_at", nullable = false)
+    private Instant deletedAt;
+
+    public TrainTombstone() {
+    }
+
+    public TrainTombstone(Long changeSeq, Long trainId, String number, Instant deletedAt) {
+        this.changeSeq = changeSeq;
+        this.trainId = trainId;
+        this.number = number;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public Long getTrainId() {
+        return trainId;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public Instant getDeletedAt() {
+        return deletedAt;
+    }
+}
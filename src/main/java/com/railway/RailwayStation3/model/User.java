@@ -9,9 +9,20 @@ import java.util.Collection;
 import java.util.Collections;
 
 @Entity
-@Table(name="users")
+@Table(name="users", uniqueConstraints = {
+        @UniqueConstraint(name = User.UK_USERNAME, columnNames = "username"),
+        @UniqueConstraint(name = User.UK_EMAIL, columnNames = "email"),
+        @UniqueConstraint(name = User.UK_PHONE, columnNames = "phone")
+})
 public class User implements UserDetails {
 
+    /**
+     * Имена ограничений уникальности. По ним нарушение при вставке сопоставляется с сообщением об ошибке.
+     */
+    public static final String UK_USERNAME = "uk_users_username";
+    public static final String UK_EMAIL = "uk_users_email";
+    public static final String UK_PHONE = "uk_users_phone";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
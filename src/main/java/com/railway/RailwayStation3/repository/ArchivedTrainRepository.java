@@ -0,0 +1,41 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.ArchivedTrain;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Репозиторий архива поездов (только чтение).
+ * Строки в архив добавляет {@code TrainArchiver} одним запросом вместе с удалением из основной таблицы.
+ */
+public interface ArchivedTrainRepository extends Repository<ArchivedTrain, Long> {
+
+    /**
+     * Возвращает следующую порцию архивных поездов после указанного ID (keyset-пагинация).
+     * Пустые фильтры (null) не ограничивают выборку.
+     *
+     * @param afterId ID последнего поезда предыдущей страницы (0 для первой страницы)
+     * @param fromCity город отправления или null
+     * @param toCity город прибытия или null
+     * @param departureDate дата отправления или null
+     * @param limit максимальное количество строк
+     * @return архивные поезда, упорядоченные по ID
+     */
+    @Query("SELECT a FROM ArchivedTrain a WHERE a.id > :afterId " +
+            "AND (:fromCity IS NULL OR a.fromCity = :fromCity) " +
+            "AND (:toCity IS NULL OR a.toCity = :toCity) " +
+            "AND (:departureDate IS NULL OR a.departureDate = :departureDate) " +
+            "ORDER BY a.id")
+    List<ArchivedTrain> findPageAfter(@Param("afterId") long afterId,
+                                      @Param("fromCity") String fromCity,
+                                      @Param("toCity") String toCity,
+                                      @Param("departureDate") LocalDate departureDate,
+                                      Limit limit);
+
+    long count();
+}
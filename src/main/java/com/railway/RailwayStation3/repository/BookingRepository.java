@@ -0,0 +1,69 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.Booking;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Репозиторий бронирований.
+ * Новые бронирования записываются пакетами {@code BookingEngine} в обход JPA, поэтому
+ * здесь только чтение и отмена.
+ */
+public interface BookingRepository extends JpaRepository<Booking, Long> {
+
+    /**
+     * SQL пакетной записи бронирований. Место, уже занятое в базе (например, другим экземпляром
+     * приложения), не записывается, и количество добавленных строк для него равно 0.
+     */
+    String INSERT_SQL = "INSERT INTO bookings (train_id, car, seat, username, created_at) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    /**
+     * Возвращает занятые места поезда.
+     *
+     * @param trainId ID поезда
+     * @return строки [car, seat]
+     */
+    @Query("SELECT b.car, b.seat FROM Booking b WHERE b.trainId = :trainId")
+    List<Object[]> findSeatsByTrainId(@Param("trainId") Long trainId);
+
+    List<Booking> findByUsernameOrderByCreatedAtDesc(String username);
+
+    boolean existsByTrainId(Long trainId);
+
+    /**
+     * Отменяет бронирование места в отдельной транзакции.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона
+     * @param seat номер места
+     * @return количество удалённых строк (0 или 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.trainId = :trainId AND b.car = :car AND b.seat = :seat")
+    int deleteSeat(@Param("trainId") Long trainId, @Param("car") int car, @Param("seat") int seat);
+
+    /**
+     * Отменяет бронирование места, только если оно принадлежит пользователю, в отдельной транзакции.
+     * Владелец проверяется тем же запросом, поэтому место, освобождённое и занятое другим
+     * пользователем между проверкой и удалением, не будет отменено.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона
+     * @param seat номер места
+     * @param username логин владельца
+     * @return количество удалённых строк (0 или 1)
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.trainId = :trainId AND b.car = :car AND b.seat = :seat " +
+            "AND b.username = :username")
+    int deleteSeatOwnedBy(@Param("trainId") Long trainId, @Param("car") int car, @Param("seat") int seat,
+                          @Param("username") String username);
+}
@@ -0,0 +1,10 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.SeatInventory;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * Репозиторий схем мест поездов.
+ */
+public interface SeatInventoryRepository extends JpaRepository<SeatInventory, Long> {
+}
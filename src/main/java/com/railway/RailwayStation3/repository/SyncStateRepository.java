@@ -0,0 +1,40 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+/**
+ * Репозиторий состояния журнала изменений расписания.
+ */
+public interface SyncStateRepository extends JpaRepository<SyncState, Integer> {
+
+    /**
+     * Выдаёт следующие номера изменений одним запросом (строка состояния создаётся при первом вызове).
+     * Строка остаётся заблокированной до конца транзакции, поэтому параллельные записи расписания
+     * фиксируются в порядке своих номеров. Вызывать только внутри транзакции.
+     *
+     * @param count сколько номеров выдать
+     * @return последний из выданных номеров
+     */
+    @Query(value = "INSERT INTO sync_state (id, last_change_seq, compacted_through) VALUES (1, :count, 0) " +
+            "ON CONFLICT (id) DO UPDATE SET last_change_seq = sync_state.last_change_seq + :count " +
+            "RETURNING last_change_seq", nativeQuery = true)
+    long advanceChangeSeq(@Param("count") long count);
+
+    /**
+     * Сдвигает границу удалённых записей об удалении вперёд.
+     *
+     * @param changeSeq номер изменения, до которого записи удалены
+     * @param compactedAt время удаления
+     * @return количество изменённых строк
+     */
+    @Modifying
+    @Query("UPDATE SyncState s SET s.compactedThrough = :changeSeq, s.compactedAt = :compactedAt " +
+            "WHERE s.id = " + SyncState.ID + " AND s.compactedThrough < :changeSeq")
+    int raiseCompactedThrough(@Param("changeSeq") long changeSeq, @Param("compactedAt") Instant compactedAt);
+}
@@ -1,19 +1,30 @@
 package com.railway.RailwayStation3.repository;
 
 import com.railway.RailwayStation3.model.Train;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с поездами.
  * Предоставляет доступ к данным о поездах через Spring Data JPA.
+ * Произвольные комбинации фильтров строятся через {@link TrainSpecifications}.
  */
-public interface TrainRepository extends JpaRepository<Train, Long> {
+public interface TrainRepository extends JpaRepository<Train, Long>, JpaSpecificationExecutor<Train> {
 
     /**
      * Находит поезд по его номеру.
@@ -23,6 +34,98 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
      */
     Optional<Train> findByNumber(String number);
 
+    /**
+     * Значение expectedVersion для обновления без проверки версии.
+     */
+    long ANY_VERSION = -1;
+
+    /**
+     * Обновляет поезд одним запросом: проверяет версию и уникальность номера, увеличивает версию
+     * и присваивает следующий номер изменения из журнала (см. {@code SyncStateRepository#advanceChangeSeq}).
+     * Строка поезда блокируется на время проверки, поэтому параллельное обновление той же версии
+     * не пройдёт. Вызывать только внутри транзакции.
+     *
+     * @param train новые данные поезда (ID обязателен)
+     * @param expectedVersion ожидаемая текущая версия или {@link #ANY_VERSION}
+     * @return пустой список, если поезд не найден, версия не совпала или номер занят; иначе одна строка:
+     * поля поезда до изменения (id, number, from_city, to_city, departure_station, arrival_station,
+     * departure_date, departure_time, arrival_date, arrival_time, change_seq, version),
+     * затем новая версия и новый номер изменения
+     */
+    @Query(value = "WITH seq AS (" +
+            "INSERT INTO sync_state (id, last_change_seq, compacted_through) VALUES (1, 1, 0) " +
+            "ON CONFLICT (id) DO UPDATE SET last_change_seq = sync_state.last_change_seq + 1 " +
+            "RETURNING last_change_seq), " +
+            "old AS (SELECT * FROM trains WHERE id = :#{#train.id} " +
+            "AND (:expectedVersion < 0 OR version = :expectedVersion) FOR UPDATE) " +
+            "UPDATE trains t SET number = :#{#train.number}, from_city = :#{#train.fromCity}, " +
+            "to_city = :#{#train.toCity}, departure_station = :#{#train.departureStation}, " +
+            "arrival_station = :#{#train.arrivalStation}, departure_date = :#{#train.departureDate}, " +
+            "departure_time = :#{#train.departureTime}, arrival_date = :#{#train.arrivalDate}, " +
+            "arrival_time = :#{#train.arrivalTime}, departure_at = :#{#train.departureAt}, " +
+            "arrival_at = :#{#train.arrivalAt}, travel_minutes = :#{#train.travelMinutes}, version = t.version + 1, " +
+            "change_seq = (SELECT last_change_seq FROM seq) " +
+            "FROM old WHERE t.id = old.id " +
+            "AND NOT EXISTS (SELECT 1 FROM trains d WHERE d.number = :#{#train.number} AND d.id <> t.id) " +
+            "RETURNING old.id, old.number, old.from_city, old.to_city, old.departure_station, old.arrival_station, " +
+            "old.departure_date, old.departure_time, old.arrival_date, old.arrival_time, old.change_seq, old.version, " +
+            "t.version, t.change_seq", nativeQuery = true)
+    List<Object[]> updateIfCurrent(@Param("train") Train train, @Param("expectedVersion") long expectedVersion);
+
+    /**
+     * Возвращает следующую порцию прибывших поездов для архивации (keyset по дате прибытия и ID).
+     *
+     * @param cutoff поезда с датой прибытия раньше этой даты считаются прибывшими
+     * @param afterDate дата прибытия последнего поезда предыдущей порции
+     * @param afterId ID последнего поезда предыдущей порции
+     * @param limit размер порции
+     * @return строки [id, arrival_date], упорядоченные по дате прибытия и ID
+     */
+    @Query(value = "SELECT id, arrival_date FROM trains WHERE arrival_date < :cutoff " +
+            "AND (arrival_date, id) > (:afterDate, :afterId) ORDER BY arrival_date, id LIMIT :limit",
+            nativeQuery = true)
+    List<Object[]> findArrivedAfter(@Param("cutoff") LocalDate cutoff,
+                                    @Param("afterDate") LocalDate afterDate,
+                                    @Param("afterId") long afterId,
+                                    @Param("limit") int limit);
+
+    /**
+     * Переносит поезда в архив одним запросом: удаляет их из trains, добавляет в trains_archive
+     * и оставляет записи об удалении для дельта-синхронизации с номерами base + 1, base + 2, ...
+     * Дата прибытия проверяется повторно, поэтому поезд, перенесённый за это время на будущее, остаётся.
+     *
+     * @param ids ID поездов порции
+     * @param cutoff граница даты прибытия
+     * @param base номер изменения, после которого начинаются номера записей об удалении
+     * @param archivedAt время архивации
+     * @return перенесённые поезда в состоянии до удаления: [id, number, from_city, to_city,
+     * departure_station, arrival_station, departure_date, departure_time, arrival_date, arrival_time,
+     * change_seq, version]
+     */
+    @Query(value = "WITH moved AS (DELETE FROM trains WHERE id IN (:ids) AND arrival_date < :cutoff RETURNING *), " +
+            "archived AS (INSERT INTO trains_archive (id, number, from_city, to_city, departure_station, " +
+            "arrival_station, departure_date, departure_time, arrival_date, arrival_time, archived_at) " +
+            "SELECT id, number, from_city, to_city, departure_station, arrival_station, departure_date, " +
+            "departure_time, arrival_date, arrival_time, :archivedAt FROM moved), " +
+            "tombstones AS (INSERT INTO train_tombstones (change_seq, train_id, number, deleted_at) " +
+            "SELECT :base + row_number() OVER (ORDER BY id), id, number, :archivedAt FROM moved) " +
+            "SELECT id, number, from_city, to_city, departure_station, arrival_station, departure_date, " +
+            "departure_time, arrival_date, arrival_time, change_seq, version FROM moved ORDER BY id",
+            nativeQuery = true)
+    List<Object[]> moveToArchive(@Param("ids") List<Long> ids,
+                                 @Param("cutoff") LocalDate cutoff,
+                                 @Param("base") long base,
+                                 @Param("archivedAt") Instant archivedAt);
+
+    /**
+     * Проверяет, занят ли номер другим поездом.
+     *
+     * @param number номер поезда
+     * @param id ID поезда, который не учитывается
+     * @return true, если номер занят другим поездом
+     */
+    boolean existsByNumberAndIdNot(String number, Long id);
+
     /**
      * Находит список поездов по городам отправления и прибытия, а также дате отправления.
      * Может применять сортировку.
@@ -39,6 +142,137 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
             LocalDate departureDate,
             Sort sort);
 
+    /**
+     * Возвращает поезда, созданные или изменённые после указанного номера изменения.
+     *
+     * @param changeSeq номер изменения, после которого начинается выборка
+     * @param limit максимальное количество строк
+     * @return поезда, упорядоченные по номеру изменения
+     */
+    List<Train> findByChangeSeqGreaterThanOrderByChangeSeq(long changeSeq, Limit limit);
+
+    /**
+     * Считает поезда без номера изменения (созданные до появления журнала изменений).
+     *
+     * @return количество поездов
+     */
+    @Query("SELECT COUNT(t) FROM Train t WHERE t.changeSeq IS NULL")
+    long countWithoutChangeSeq();
+
+    /**
+     * Присваивает поездам без номера изменения номера base + 1, base + 2, ... в порядке ID.
+     *
+     * @param base номер, после которого начинаются присваиваемые номера
+     * @return количество обновлённых поездов
+     */
+    @Modifying
+    @Query(value = "UPDATE trains t SET change_seq = :base + n.rn " +
+            "FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn FROM trains WHERE change_seq IS NULL) n " +
+            "WHERE t.id = n.id", nativeQuery = true)
+    int assignChangeSeqs(@Param("base") long base);
+
+    /**
+     * Возвращает поезда, отправляющиеся в указанном интервале, после позиции курсора
+     * (keyset-пагинация по моменту отправления и ID).
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param afterAt момент отправления последнего поезда предыдущей страницы (для первой страницы — from)
+     * @param afterId ID последнего поезда предыдущей страницы (для первой страницы — 0)
+     * @param limit максимальное количество строк
+     * @return поезда, упорядоченные по моменту отправления и ID
+     */
+    @Query(value = "SELECT * FROM trains WHERE (departure_at, id) > (:afterAt, :afterId) AND departure_at <= :to " +
+            "AND departure_at >= :from ORDER BY departure_at, id LIMIT :limit", nativeQuery = true)
+    List<Train> findDeparturesBetween(@Param("from") LocalDateTime from,
+                                      @Param("to") LocalDateTime to,
+                                      @Param("afterAt") LocalDateTime afterAt,
+                                      @Param("afterId") long afterId,
+                                      @Param("limit") int limit);
+
+    /**
+     * То же, что {@link #findDeparturesBetween}, только для поездов из указанного города.
+     */
+    @Query(value = "SELECT * FROM trains WHERE from_city = :city AND (departure_at, id) > (:afterAt, :afterId) " +
+            "AND departure_at <= :to AND departure_at >= :from ORDER BY departure_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<Train> findDeparturesFromCityBetween(@Param("city") String city,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("afterAt") LocalDateTime afterAt,
+                                              @Param("afterId") long afterId,
+                                              @Param("limit") int limit);
+
+    /**
+     * Возвращает поезда, прибывающие в указанном интервале, после позиции курсора
+     * (keyset-пагинация по моменту прибытия и ID).
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param afterAt момент прибытия последнего поезда предыдущей страницы (для первой страницы — from)
+     * @param afterId ID последнего поезда предыдущей страницы (для первой страницы — 0)
+     * @param limit максимальное количество строк
+     * @return поезда, упорядоченные по моменту прибытия и ID
+     */
+    @Query(value = "SELECT * FROM trains WHERE (arrival_at, id) > (:afterAt, :afterId) AND arrival_at <= :to " +
+            "AND arrival_at >= :from ORDER BY arrival_at, id LIMIT :limit", nativeQuery = true)
+    List<Train> findArrivalsBetween(@Param("from") LocalDateTime from,
+                                    @Param("to") LocalDateTime to,
+                                    @Param("afterAt") LocalDateTime afterAt,
+                                    @Param("afterId") long afterId,
+                                    @Param("limit") int limit);
+
+    /**
+     * То же, что {@link #findArrivalsBetween}, только для поездов в указанный город.
+     */
+    @Query(value = "SELECT * FROM trains WHERE to_city = :city AND (arrival_at, id) > (:afterAt, :afterId) " +
+            "AND arrival_at <= :to AND arrival_at >= :from ORDER BY arrival_at, id LIMIT :limit",
+            nativeQuery = true)
+    List<Train> findArrivalsToCityBetween(@Param("city") String city,
+                                          @Param("from") LocalDateTime from,
+                                          @Param("to") LocalDateTime to,
+                                          @Param("afterAt") LocalDateTime afterAt,
+                                          @Param("afterId") long afterId,
+                                          @Param("limit") int limit);
+
+    /**
+     * Считает поезда, у которых ещё не заполнены моменты отправления и прибытия
+     * (созданные до появления этих столбцов).
+     *
+     * @return количество поездов
+     */
+    @Query("SELECT COUNT(t) FROM Train t WHERE t.departureAt IS NULL AND t.departureDate IS NOT NULL " +
+            "AND t.departureTime IS NOT NULL")
+    long countWithoutTimestamps();
+
+    /**
+     * Заполняет моменты отправления и прибытия и время в пути у порции поездов, где они не заполнены.
+     *
+     * @param limit размер порции
+     * @return количество обновлённых поездов
+     */
+    @Modifying
+    @Query(value = "UPDATE trains SET departure_at = departure_date + departure_time, " +
+            "arrival_at = arrival_date + arrival_time, " +
+            "travel_minutes = EXTRACT(EPOCH FROM (arrival_date + arrival_time) - (departure_date + departure_time)) / 60 " +
+            "WHERE id IN (SELECT id FROM trains WHERE departure_at IS NULL AND departure_date IS NOT NULL " +
+            "AND departure_time IS NOT NULL LIMIT :limit)", nativeQuery = true)
+    int fillTimestamps(@Param("limit") int limit);
+
+    /**
+     * Возвращает все поезда потоком, упорядоченным по ID.
+     * Строки читаются из курсора JDBC порциями (fetch size), а не загружаются в память целиком.
+     * Вызывать только внутри транзакции и обязательно закрывать поток.
+     *
+     * @return поток поездов
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM Train t ORDER BY t.id")
+    Stream<Train> streamAllOrderById();
+
     /**
      * Возвращает популярные направления по количеству поездов (в порядке убывания).
      * Используется в разделе статистики.
@@ -50,7 +284,7 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
     List<Object[]> findPopularDirections();
 
     /**
-     * Возвращает уникальные города отправления для выпадающего списка фильтрации.
+     * Возвращает уникальные города отправления для подсказок в формах администратора.
      *
      * @return отсортированный список городов отправления
      */
@@ -58,13 +292,23 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
     List<String> findDistinctFromCities();
 
     /**
-     * Возвращает уникальные города прибытия для выпадающего списка фильтрации.
+     * Возвращает уникальные города прибытия для подсказок в формах администратора.
      *
      * @return отсортированный список городов прибытия
      */
     @Query("SELECT DISTINCT t.toCity FROM Train t ORDER BY t.toCity")
     List<String> findDistinctToCities();
 
+    /**
+     * Возвращает города и вокзалы всех поездов вместе с номером последнего изменения
+     * (для загрузки подсказок при вводе).
+     *
+     * @return список массивов: [ID, change_seq, город отправления, город прибытия,
+     * вокзал отправления, вокзал прибытия]
+     */
+    @Query("SELECT t.id, t.changeSeq, t.fromCity, t.toCity, t.departureStation, t.arrivalStation FROM Train t")
+    List<Object[]> findPlaceRows();
+
     /**
      * Проверяет, существует ли поезд с указанным номером.
      *
@@ -72,4 +316,20 @@ public interface TrainRepository extends JpaRepository<Train, Long> {
      * @return true, если такой поезд уже существует
      */
     boolean existsByNumber(String number);
+
+    /**
+     * Проверяет, остались ли поезда из указанного города.
+     *
+     * @param fromCity город отправления
+     * @return true, если есть хотя бы один такой поезд
+     */
+    boolean existsByFromCity(String fromCity);
+
+    /**
+     * Проверяет, остались ли поезда в указанный город.
+     *
+     * @param toCity город прибытия
+     * @return true, если есть хотя бы один такой поезд
+     */
+    boolean existsByToCity(String toCity);
 }
\ No newline at end of file
@@ -0,0 +1,49 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.Train;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Преобразование строк нативных запросов {@link TrainRepository}, возвращающих поезд как массив столбцов
+ * (id, number, from_city, to_city, departure_station, arrival_station, departure_date, departure_time,
+ * arrival_date, arrival_time, change_seq, version).
+ */
+public final class TrainRows {
+
+    /**
+     * Количество столбцов поезда в строке.
+     */
+    public static final int COLUMNS = 12;
+
+    private TrainRows() {
+    }
+
+    /**
+     * Собирает поезд из первых {@link #COLUMNS} столбцов строки.
+     *
+     * @param row строка результата
+     * @return поезд (не управляемый JPA)
+     */
+    public static Train toTrain(Object[] row) {
+        Train train = new Train(toLong(row[0]), (String) row[1], (String) row[2], (String) row[3],
+                (String) row[4], (String) row[5], toLocalDate(row[6]), toLocalTime(row[7]),
+                toLocalDate(row[8]), toLocalTime(row[9]));
+        train.setChangeSeq(toLong(row[10]));
+        train.setVersion(toLong(row[11]));
+        return train;
+    }
+
+    public static Long toLong(Object value) {
+        return (value == null) ? null : ((Number) value).longValue();
+    }
+
+    public static LocalDate toLocalDate(Object value) {
+        return (value instanceof java.sql.Date date) ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    public static LocalTime toLocalTime(Object value) {
+        return (value instanceof java.sql.Time time) ? time.toLocalTime() : (LocalTime) value;
+    }
+}
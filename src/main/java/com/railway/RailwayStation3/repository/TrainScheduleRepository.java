@@ -0,0 +1,37 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.TrainSchedule;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Репозиторий регулярных расписаний поездов.
+ * Даты-исключения загружаются вместе с расписанием одним запросом.
+ */
+public interface TrainScheduleRepository extends JpaRepository<TrainSchedule, Long> {
+
+    /**
+     * Возвращает все расписания вместе с датами-исключениями.
+     *
+     * @return список расписаний, упорядоченный по ID
+     */
+    @Query("SELECT DISTINCT s FROM TrainSchedule s LEFT JOIN FETCH s.exceptions ORDER BY s.id")
+    List<TrainSchedule> findAllWithExceptions();
+
+    /**
+     * Находит расписание по ID вместе с датами-исключениями.
+     *
+     * @param id ID расписания
+     * @return расписание или пустой Optional
+     */
+    @Query("SELECT s FROM TrainSchedule s LEFT JOIN FETCH s.exceptions WHERE s.id = :id")
+    Optional<TrainSchedule> findWithExceptionsById(@Param("id") Long id);
+
+    boolean existsByNumber(String number);
+
+    boolean existsByNumberAndIdNot(String number, Long id);
+}
@@ -0,0 +1,81 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
+import com.railway.RailwayStation3.model.Train;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Динамические условия запросов к поездам (JPA Criteria) по {@link TrainSearchCriteria}.
+ * В запрос попадают только заданные условия, поэтому каждая комбинация фильтров даёт
+ * простой конъюнктивный запрос, который обслуживается составными индексами таблицы trains.
+ */
+public final class TrainSpecifications {
+
+    private TrainSpecifications() {
+    }
+
+    /**
+     * Строит условие по набору фильтров.
+     *
+     * @param criteria нормализованные условия поиска
+     * @return спецификация для {@link TrainRepository#findAll(Specification, org.springframework.data.domain.Sort)}
+     */
+    public static Specification<Train> matching(TrainSearchCriteria criteria) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.fromCity() != null) {
+                predicates.add(cb.equal(root.get("fromCity"), criteria.fromCity()));
+            }
+            if (criteria.toCity() != null) {
+                predicates.add(cb.equal(root.get("toCity"), criteria.toCity()));
+            }
+            if (criteria.departureStation() != null) {
+                predicates.add(cb.equal(root.get("departureStation"), criteria.departureStation()));
+            }
+            if (criteria.arrivalStation() != null) {
+                predicates.add(cb.equal(root.get("arrivalStation"), criteria.arrivalStation()));
+            }
+
+            if (criteria.departureDateFrom() != null && criteria.departureDateFrom().equals(criteria.departureDateTo())) {
+                predicates.add(cb.equal(root.get("departureDate"), criteria.departureDateFrom()));
+            } else {
+                if (criteria.departureDateFrom() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("departureDate"), criteria.departureDateFrom()));
+                }
+                if (criteria.departureDateTo() != null) {
+                    predicates.add(cb.lessThanOrEqualTo(root.get("departureDate"), criteria.departureDateTo()));
+                }
+            }
+
+            if (criteria.departureTimeFrom() != null && criteria.departureTimeTo() != null
+                    && criteria.departureTimeTo().isBefore(criteria.departureTimeFrom())) {
+                // Окно через полночь, например 22:00–02:00
+                predicates.add(cb.or(
+                        cb.greaterThanOrEqualTo(root.get("departureTime"), criteria.departureTimeFrom()),
+                        cb.lessThanOrEqualTo(root.get("departureTime"), criteria.departureTimeTo())));
+            } else {
+                if (criteria.departureTimeFrom() != null) {
+                    predicates.add(cb.greaterThanOrEqualTo(root.get("departureTime"), criteria.departureTimeFrom()));
+                }
+                if (criteria.departureTimeTo() != null) {
+                    predicates.add(cb.lessThanOrEqualTo(root.get("departureTime"), criteria.departureTimeTo()));
+                }
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    /**
+     * Условие keyset-пагинации: поезда с ID больше курсора.
+     *
+     * @param afterId ID последнего поезда предыдущей страницы (0 для первой страницы)
+     * @return спецификация, которую можно соединить с {@link #matching(TrainSearchCriteria)}
+     */
+    public static Specification<Train> idAfter(long afterId) {
+        return (root, query, cb) -> cb.greaterThan(root.get("id"), afterId);
+    }
+}
@@ -0,0 +1,45 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.model.TrainTombstone;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Репозиторий записей об удалённых поездах.
+ */
+public interface TrainTombstoneRepository extends JpaRepository<TrainTombstone, Long> {
+
+    /**
+     * Возвращает записи об удалении после указанного номера изменения.
+     *
+     * @param changeSeq номер изменения, после которого начинается выборка
+     * @param limit максимальное количество строк
+     * @return записи, упорядоченные по номеру изменения
+     */
+    List<TrainTombstone> findByChangeSeqGreaterThanOrderByChangeSeq(long changeSeq, Limit limit);
+
+    /**
+     * Возвращает наибольший номер изменения среди записей, созданных раньше указанного времени.
+     *
+     * @param cutoff граница времени удаления
+     * @return номер изменения или null, если таких записей нет
+     */
+    @Query("SELECT MAX(t.changeSeq) FROM TrainTombstone t WHERE t.deletedAt < :cutoff")
+    Long findMaxChangeSeqDeletedBefore(@Param("cutoff") Instant cutoff);
+
+    /**
+     * Удаляет записи об удалении до указанного номера изменения включительно.
+     *
+     * @param changeSeq номер изменения
+     * @return количество удалённых записей
+     */
+    @Modifying
+    @Query("DELETE FROM TrainTombstone t WHERE t.changeSeq <= :changeSeq")
+    int deleteThrough(@Param("changeSeq") long changeSeq);
+}
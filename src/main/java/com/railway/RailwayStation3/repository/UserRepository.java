@@ -1,8 +1,18 @@
 package com.railway.RailwayStation3.repository;
 
+import com.railway.RailwayStation3.dto.UserSummary;
 import com.railway.RailwayStation3.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с пользователями.
@@ -28,9 +38,82 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByPhone(String phone);
 
+    /**
+     * Возвращает имена ограничений уникальности таблицы пользователей в текущей схеме.
+     * Используется при старте для проверки, что обновление схемы их действительно создало.
+     *
+     * @return имена ограничений
+     */
+    @Query(value = "SELECT constraint_name FROM information_schema.table_constraints " +
+            "WHERE table_schema = current_schema() AND table_name = 'users' AND constraint_type = 'UNIQUE'",
+            nativeQuery = true)
+    List<String> findUniqueConstraintNames();
+
     /**
      * Находит пользователя по имени.
      * Используется при аутентификации и проверке прав.
      */
     Optional<User> findByUsername(String username);
-}
\ No newline at end of file
+
+    /**
+     * Возвращает логины и email всех пользователей потоком (для построения фильтров занятости).
+     * Вызывать только внутри транзакции и обязательно закрывать поток.
+     *
+     * @return поток массивов [логин, email]
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT u.username, u.email FROM User u")
+    Stream<Object[]> streamUsernamesAndEmails();
+
+    /**
+     * Возвращает страницу пользователей после указанного ID (keyset-пагинация).
+     *
+     * @param afterId ID последнего пользователя предыдущей страницы (0 для первой страницы)
+     * @param limit максимальное количество строк
+     * @return пользователи, упорядоченные по ID
+     */
+    @Query("SELECT new com.railway.RailwayStation3.dto.UserSummary(u.id, u.username, u.phone, u.email, u.role) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummary> findSummariesAfter(@Param("afterId") long afterId, Limit limit);
+
+    /**
+     * Ищет пользователей по началу логина.
+     * Значения сравниваются в порядке кодов символов (правило сравнения ucs_basic, как у "C"): только в нём
+     * диапазон [from, to) содержит ровно строки, начинающиеся с префикса. При языковом правиле сравнения
+     * базы (например, ru_RU) знаки препинания и цифры сортируются иначе, и диапазон оказывался бы пустым.
+     * Диапазон и сортировку обслуживает индекс {@code idx_users_username_ucs} (см. {@code UserSearchIndexes}).
+     *
+     * @param from префикс (нижняя граница диапазона)
+     * @param to верхняя граница диапазона (префикс с увеличенным последним символом)
+     * @param after логин последнего пользователя предыдущей страницы или пустая строка
+     * @param limit максимальное количество строк
+     * @return пользователи, упорядоченные по логину
+     */
+    @Query("SELECT new com.railway.RailwayStation3.dto.UserSummary(u.id, u.username, u.phone, u.email, u.role) " +
+            "FROM User u WHERE collate(u.username as ucs_basic) >= :from AND collate(u.username as ucs_basic) < :to " +
+            "AND collate(u.username as ucs_basic) > :after ORDER BY collate(u.username as ucs_basic)")
+    List<UserSummary> searchByUsernamePrefix(@Param("from") String from, @Param("to") String to,
+                                             @Param("after") String after, Limit limit);
+
+    /**
+     * Ищет пользователей по началу email. Параметры аналогичны {@link #searchByUsernamePrefix}.
+     *
+     * @return пользователи, упорядоченные по email
+     */
+    @Query("SELECT new com.railway.RailwayStation3.dto.UserSummary(u.id, u.username, u.phone, u.email, u.role) " +
+            "FROM User u WHERE collate(u.email as ucs_basic) >= :from AND collate(u.email as ucs_basic) < :to " +
+            "AND collate(u.email as ucs_basic) > :after ORDER BY collate(u.email as ucs_basic)")
+    List<UserSummary> searchByEmailPrefix(@Param("from") String from, @Param("to") String to,
+                                          @Param("after") String after, Limit limit);
+
+    /**
+     * Ищет пользователей по началу телефона. Параметры аналогичны {@link #searchByUsernamePrefix}.
+     *
+     * @return пользователи, упорядоченные по телефону
+     */
+    @Query("SELECT new com.railway.RailwayStation3.dto.UserSummary(u.id, u.username, u.phone, u.email, u.role) " +
+            "FROM User u WHERE collate(u.phone as ucs_basic) >= :from AND collate(u.phone as ucs_basic) < :to " +
+            "AND collate(u.phone as ucs_basic) > :after ORDER BY collate(u.phone as ucs_basic)")
+    List<UserSummary> searchByPhonePrefix(@Param("from") String from, @Param("to") String to,
+                                          @Param("after") String after, Limit limit);
+}
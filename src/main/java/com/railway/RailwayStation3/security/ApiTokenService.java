@@ -0,0 +1,163 @@
+package com.railway.RailwayStation3.security;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Выпуск и проверка подписанных токенов доступа к API (формат JWT, алгоритм HS256).
+ * <p>
+ * Токен содержит имя пользователя, роли и срок действия. Проверка выполняется только по подписи
+ * и срокам, без обращения к базе данных. Ключ задаётся свойством {@code railway.security.token.secret};
+ * если оно пустое, ключ генерируется при запуске и выданные токены перестают действовать после перезапуска.
+ */
+@Component
+public class ApiTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiTokenService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    /**
+     * Проверенные данные токена.
+     *
+     * @param username имя пользователя
+     * @param roles роли пользователя (например, ROLE_ADMIN)
+     * @param expiresAt момент окончания действия
+     */
+    public record ApiToken(String username, List<String> roles, Instant expiresAt) {
+    }
+
+    private final Mac prototype;
+    private final Duration ttl;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    public ApiTokenService(@Value("${railway.security.token.secret:}") String secret,
+                           @Value("${railway.security.token.ttl-minutes:60}") long ttlMinutes,
+                           ObjectMapper objectMapper) {
+        this(secret, Duration.ofMinutes(ttlMinutes), objectMapper, Clock.systemUTC());
+    }
+
+    ApiTokenService(String secret, Duration ttl, ObjectMapper objectMapper, Clock clock) {
+        byte[] key;
+        if (secret == null || secret.isBlank()) {
+            key = new byte[32];
+            new SecureRandom().nextBytes(key);
+            log.warn("railway.security.token.secret не задан: ключ токенов сгенерирован и действует до перезапуска");
+        } else {
+            key = secret.getBytes(StandardCharsets.UTF_8);
+            if (key.length < 32) {
+                throw new IllegalStateException("railway.security.token.secret должен быть не короче 32 байт");
+            }
+        }
+        try {
+            this.prototype = Mac.getInstance(ALGORITHM);
+            this.prototype.init(new SecretKeySpec(key, ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 недоступен", e);
+        }
+        this.ttl = ttl;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    /**
+     * Выпускает токен для пользователя.
+     *
+     * @param user аутентифицированный пользователь
+     * @return подписанный токен
+     */
+    public String issue(UserDetails user) {
+        Instant now = clock.instant();
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", user.getUsername());
+        claims.put("roles", user.getAuthorities().stream().map(GrantedAuthority::getAuthority).toList());
+        claims.put("iat", now.getEpochSecond());
+        claims.put("exp", now.plus(ttl).getEpochSecond());
+
+        String payload;
+        try {
+            payload = ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+        String signingInput = HEADER + "." + payload;
+        return signingInput + "." + ENCODER.encodeToString(sign(signingInput));
+    }
+
+    /**
+     * Проверяет подпись и срок действия токена.
+     *
+     * @param token токен из заголовка Authorization
+     * @return данные токена или пустой Optional, если токен недействителен
+     */
+    public Optional<ApiToken> verify(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0) {
+            return Optional.empty();
+        }
+        // Принимается только собственный заголовок: подмена алгоритма невозможна
+        if (!HEADER.equals(token.substring(0, first))) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(second + 1));
+            if (!MessageDigest.isEqual(signature, sign(token.substring(0, second)))) {
+                return Optional.empty();
+            }
+            Map<?, ?> claims = objectMapper.readValue(DECODER.decode(token.substring(first + 1, second)), Map.class);
+            Instant expiresAt = Instant.ofEpochSecond(((Number) claims.get("exp")).longValue());
+            if (!clock.instant().isBefore(expiresAt)) {
+                return Optional.empty();
+            }
+            List<String> roles = ((List<?>) claims.get("roles")).stream().map(String::valueOf).toList();
+            return Optional.of(new ApiToken((String) claims.get("sub"), roles, expiresAt));
+        } catch (IllegalArgumentException | ClassCastException | NullPointerException | IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @return срок действия выпускаемых токенов
+     */
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private byte[] sign(String signingInput) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        return mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,159 @@
+package com.railway.RailwayStation3.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кодировщик паролей BCrypt, выполняющий хеширование и проверку на отдельном ограниченном пуле потоков.
+ * <p>
+ * Пул ограничивает число одновременных вычислений BCrypt, поэтому волна входов не занимает
+ * все ядра. Поток запроса при этом блокируется в ожидании результата, но не дольше заданного
+ * тайм-аута, а число ожидающих потоков ограничено размером пула и очереди: когда они заполнены,
+ * операция сразу отклоняется. Отказ и истечение тайм-аута выражаются
+ * {@link AuthenticationServiceException}, поэтому при входе через форму перегрузка
+ * обрабатывается как неуспешная аутентификация, а не как ошибка сервера.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OffloadingPasswordEncoder.class);
+
+    /** Минимальная стоимость при калибровке: значение BCrypt по умолчанию. */
+    private static final int MIN_CALIBRATED_STRENGTH = 10;
+    private static final int MAX_CALIBRATED_STRENGTH = 16;
+
+    /**
+     * Показатели пула хеширования.
+     *
+     * @param strength стоимость BCrypt (log2 числа раундов)
+     * @param threads размер пула
+     * @param active выполняемые операции
+     * @param queued операции в очереди
+     * @param completed завершённые операции
+     * @param rejected операции, отклонённые из-за перегрузки
+     */
+    public record Stats(int strength, int threads, int active, int queued, long completed, long rejected) {
+    }
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMillis;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param strength стоимость BCrypt
+     * @param threads число потоков хеширования
+     * @param queueCapacity максимальная очередь ожидающих операций
+     * @param timeoutMillis максимальное ожидание результата потоком запроса
+     */
+    public OffloadingPasswordEncoder(int strength, int threads, int queueCapacity, long timeoutMillis) {
+        this.strength = strength;
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = timeoutMillis;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "bcrypt-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, pool) -> {
+                    rejected.increment();
+                    throw new RejectedExecutionException("Очередь хеширования паролей переполнена");
+                });
+    }
+
+    /**
+     * Подбирает стоимость BCrypt так, чтобы хеширование занимало примерно заданное время на этой машине.
+     * Каждая единица стоимости удваивает время, поэтому достаточно одного замера.
+     *
+     * @param targetMillis желаемое время одного хеширования, мс
+     * @return стоимость в диапазоне от 10 до 16
+     */
+    public static int calibrateStrength(long targetMillis) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_CALIBRATED_STRENGTH);
+        probe.encode("calibration");
+        long started = System.nanoTime();
+        probe.encode("calibration");
+        double measuredMillis = Math.max((System.nanoTime() - started) / 1_000_000.0, 0.1);
+
+        int extra = (int) Math.round(Math.log(targetMillis / measuredMillis) / Math.log(2));
+        int strength = Math.max(MIN_CALIBRATED_STRENGTH, Math.min(MAX_CALIBRATED_STRENGTH, MIN_CALIBRATED_STRENGTH + extra));
+        log.info("Стоимость BCrypt откалибрована: {} (замер {} мс при {}, цель {} мс)",
+                strength, String.format("%.1f", measuredMillis), MIN_CALIBRATED_STRENGTH, targetMillis);
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return offload(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return offload(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * Хеш требует обновления, если создан с меньшей стоимостью, чем текущая.
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public Stats getStats() {
+        return new Stats(strength, executor.getMaximumPoolSize(), executor.getActiveCount(),
+                executor.getQueue().size(), executor.getCompletedTaskCount(), rejected.sum());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    private <T> T offload(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthenticationServiceException("Очередь хеширования паролей переполнена", e);
+        }
+        return await(future);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new AuthenticationServiceException("Прервано ожидание хеширования пароля", e);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new AuthenticationServiceException("Превышено время ожидания хеширования пароля", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.booking.BookingEngine;
+import com.railway.RailwayStation3.booking.SeatMap;
+import com.railway.RailwayStation3.dto.BookingRequest;
+import com.railway.RailwayStation3.dto.SeatAvailability;
+import com.railway.RailwayStation3.model.Booking;
+import com.railway.RailwayStation3.model.SeatInventory;
+import com.railway.RailwayStation3.repository.BookingRepository;
+import com.railway.RailwayStation3.repository.SeatInventoryRepository;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Сервис бронирования мест в поездах.
+ * Занятие мест выполняет {@link BookingEngine}; здесь проверка запросов, схемы вагонов и отмена.
+ */
+@Service
+public class BookingService {
+    static final int MAX_CARS = 100;
+    static final int MAX_SEATS_PER_CAR = 256;
+
+    private final BookingEngine bookingEngine;
+    private final BookingRepository bookingRepository;
+    private final SeatInventoryRepository seatInventoryRepository;
+
+    public BookingService(BookingEngine bookingEngine, BookingRepository bookingRepository,
+                          SeatInventoryRepository seatInventoryRepository) {
+        this.bookingEngine = bookingEngine;
+        this.bookingRepository = bookingRepository;
+        this.seatInventoryRepository = seatInventoryRepository;
+    }
+
+    /**
+     * Бронирует место для пользователя.
+     *
+     * @param request поезд и, при необходимости, вагон и место
+     * @param username логин пользователя
+     * @return сохранённое бронирование
+     * @throws IllegalArgumentException если запрос некорректен или поезд недоступен для бронирования
+     * @throws BookingEngine.SeatUnavailableException если место занято или свободных мест нет
+     * @throws IllegalStateException если бронирование не удалось подтвердить
+     */
+    public Booking book(BookingRequest request, String username) {
+        if (request == null || request.trainId() == null) {
+            throw new IllegalArgumentException("Не указан поезд");
+        }
+        if (request.seat() != null && request.car() == null) {
+            throw new IllegalArgumentException("Для выбора места нужно указать вагон");
+        }
+        return bookingEngine.book(request.trainId(), request.car(), request.seat(), username);
+    }
+
+    /**
+     * Возвращает свободные места поезда.
+     *
+     * @param trainId ID поезда
+     * @return свободные места по вагонам
+     * @throws IllegalArgumentException если поезд не найден
+     */
+    public SeatAvailability availability(long trainId) {
+        SeatMap seatMap = bookingEngine.seatMap(trainId);
+        if (seatMap == null) {
+            throw new IllegalArgumentException("Поезд не найден");
+        }
+        return new SeatAvailability(trainId, seatMap.getCars(), seatMap.getSeatsPerCar(),
+                seatMap.getFree(), seatMap.freeByCar());
+    }
+
+    /**
+     * Задаёт схему вагонов поезда. Менять схему можно только до первого бронирования.
+     *
+     * @param trainId ID поезда
+     * @param cars количество вагонов
+     * @param seatsPerCar количество мест в вагоне
+     * @return сохранённая схема
+     * @throws IllegalArgumentException если поезд не найден, схема некорректна или места уже бронировались
+     * @throws IllegalStateException если уже начатые бронирования не записаны вовремя
+     */
+    public SeatInventory updateInventory(long trainId, int cars, int seatsPerCar) {
+        if (cars < 1 || cars > MAX_CARS) {
+            throw new IllegalArgumentException("Количество вагонов должно быть от 1 до " + MAX_CARS);
+        }
+        if (seatsPerCar < 1 || seatsPerCar > MAX_SEATS_PER_CAR) {
+            throw new IllegalArgumentException("Количество мест в вагоне должно быть от 1 до " + MAX_SEATS_PER_CAR);
+        }
+        // Бронирования из очереди записи успевают попасть в базу до проверки, а новые на время смены ждут
+        return bookingEngine.withBookingPaused(trainId, () -> {
+            if (bookingRepository.existsByTrainId(trainId)) {
+                throw new IllegalArgumentException("Нельзя изменить схему вагонов: места уже забронированы");
+            }
+            return seatInventoryRepository.save(new SeatInventory(trainId, cars, seatsPerCar));
+        });
+    }
+
+    /**
+     * Отменяет бронирование. Отменить можно своё бронирование, администратор — любое.
+     * Место освобождается в памяти только после удаления бронирования из базы,
+     * чтобы его нельзя было продать повторно, пока старая запись ещё существует.
+     *
+     * @param trainId ID поезда
+     * @param car номер вагона
+     * @param seat номер места
+     * @param username логин текущего пользователя
+     * @param admin является ли текущий пользователь администратором
+     * @throws IllegalArgumentException если бронирование не найдено или принадлежит другому пользователю
+     */
+    public void cancel(long trainId, int car, int seat, String username, boolean admin) {
+        // Владелец проверяется в самом удалении: чужое бронирование для пользователя не существует
+        int deleted = admin
+                ? bookingRepository.deleteSeat(trainId, car, seat)
+                : bookingRepository.deleteSeatOwnedBy(trainId, car, seat, username);
+        if (deleted == 0) {
+            throw new IllegalArgumentException("Бронирование не найдено");
+        }
+        bookingEngine.release(trainId, car, seat);
+    }
+
+    /**
+     * Возвращает бронирования пользователя, начиная с последних.
+     *
+     * @param username логин пользователя
+     * @return список бронирований
+     */
+    public List<Booking> findByUsername(String username) {
+        return bookingRepository.findByUsernameOrderByCreatedAtDesc(username);
+    }
+}
@@ -0,0 +1,109 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.DepartureBoard;
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
+import com.railway.RailwayStation3.index.DepartureBoardIndex;
+import com.railway.RailwayStation3.index.TimetableIndex;
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис табло отправлений.
+ * Поезда из таблицы trains берутся из {@link DepartureBoardIndex}, к ним добавляются рейсы
+ * регулярных расписаний. До загрузки табло ответ строится обычным поиском по базе.
+ */
+@Service
+public class DepartureBoardService {
+    /**
+     * Количество поездов на табло по умолчанию.
+     */
+    public static final int DEFAULT_LIMIT = 20;
+
+    /**
+     * Максимальное количество поездов на табло.
+     */
+    public static final int MAX_LIMIT = 100;
+
+    private static final String DEPARTURE_ORDER = "departureAt";
+
+    private final DepartureBoardIndex departureBoardIndex;
+    private final TrainScheduleService trainScheduleService;
+    private final TrainService trainService;
+    private final long horizonHours;
+
+    public DepartureBoardService(DepartureBoardIndex departureBoardIndex, TrainScheduleService trainScheduleService,
+                                 TrainService trainService,
+                                 @Value("${railway.board.horizon-hours:48}") long horizonHours) {
+        this.departureBoardIndex = departureBoardIndex;
+        this.trainScheduleService = trainScheduleService;
+        this.trainService = trainService;
+        this.horizonHours = horizonHours;
+    }
+
+    /**
+     * Возвращает ближайшие отправления с вокзала.
+     *
+     * @param city город вокзала
+     * @param station вокзал отправления
+     * @param limit количество поездов (по умолчанию {@link #DEFAULT_LIMIT})
+     * @return табло отправлений
+     */
+    public DepartureBoard board(String city, String station, Integer limit) {
+        String cityName = (city == null) ? "" : city.trim();
+        if (cityName.isEmpty()) {
+            throw new IllegalArgumentException("Город должен быть указан");
+        }
+        String name = (station == null) ? "" : station.trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Вокзал должен быть указан");
+        }
+        int size = (limit == null) ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Количество поездов на табло должно быть от 1 до " + MAX_LIMIT);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = departureBoardIndex.getLoadedUntil();
+        List<Train> departures;
+        if (until == null) {
+            // Табло ещё не загружено: поиск по базе уже включает рейсы регулярных расписаний
+            until = now.plusHours(horizonHours);
+            departures = upcoming(trainService.findByFilters(stationCriteria(cityName, name, now, until), DEPARTURE_ORDER),
+                    now, until, size);
+        } else {
+            departures = departureBoardIndex.next(cityName, name, now, size);
+            List<Train> runs = upcoming(trainScheduleService.expand(stationCriteria(cityName, name, now, until)), now, until, size);
+            if (!runs.isEmpty()) {
+                departures.addAll(runs);
+                departures.sort(TimetableIndex.comparatorFor(DEPARTURE_ORDER));
+                departures = new ArrayList<>(departures.subList(0, Math.min(size, departures.size())));
+            }
+        }
+        return new DepartureBoard(cityName, name, now, departures);
+    }
+
+    private static TrainSearchCriteria stationCriteria(String city, String station,
+                                                       LocalDateTime from, LocalDateTime until) {
+        return new TrainSearchCriteria(city, null, station, null, from.toLocalDate(), until.toLocalDate(), null, null);
+    }
+
+    /**
+     * Оставляет поезда, отправляющиеся в окне [from, until], в порядке отправления.
+     */
+    private static List<Train> upcoming(List<Train> trains, LocalDateTime from, LocalDateTime until, int limit) {
+        List<Train> result = new ArrayList<>();
+        for (Train train : trains) {
+            LocalDateTime departureAt = train.getDepartureAt();
+            if (departureAt != null && !departureAt.isBefore(from) && !departureAt.isAfter(until)) {
+                result.add(train);
+            }
+        }
+        result.sort(TimetableIndex.comparatorFor(DEPARTURE_ORDER));
+        return (result.size() > limit) ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+}
@@ -1,9 +1,19 @@
 package com.railway.RailwayStation3.service;
 
+import com.railway.RailwayStation3.booking.BookingEngine;
+import com.railway.RailwayStation3.cache.CityListCache;
+import com.railway.RailwayStation3.cache.TimetableVersion;
+import com.railway.RailwayStation3.db.ConcurrencyLimitingDataSource;
+import com.railway.RailwayStation3.dto.DirectionCount;
+import com.railway.RailwayStation3.event.TrainChangeFeed;
+import com.railway.RailwayStation3.index.DepartureBoardIndex;
+import com.railway.RailwayStation3.index.DirectionRanking;
 import com.railway.RailwayStation3.repository.TrainRepository;
 import com.railway.RailwayStation3.repository.UserRepository;
+import com.railway.RailwayStation3.security.OffloadingPasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import javax.sql.DataSource;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -15,18 +25,45 @@ import java.util.stream.Collectors;
  */
 @Service
 public class StatsService {
+    private static final int TOP_DIRECTIONS = 5;
+
     private final UserRepository userRepository;
     private final TrainRepository trainRepository;
+    private final CityListCache cityListCache;
+    private final DirectionRanking directionRanking;
+    private final DataSource dataSource;
+    private final OffloadingPasswordEncoder passwordEncoder;
+    private final UserAvailabilityService userAvailabilityService;
+    private final TimetableVersion timetableVersion;
+    private final TrainChangeFeed trainChangeFeed;
+    private final TrainArchiver trainArchiver;
+    private final DepartureBoardIndex departureBoardIndex;
+    private final BookingEngine bookingEngine;
 
-    public StatsService(UserRepository userRepository, TrainRepository trainRepository) {
+    public StatsService(UserRepository userRepository, TrainRepository trainRepository,
+                        CityListCache cityListCache, DirectionRanking directionRanking,
+                        DataSource dataSource, OffloadingPasswordEncoder passwordEncoder,
+                        UserAvailabilityService userAvailabilityService, TimetableVersion timetableVersion,
+                        TrainChangeFeed trainChangeFeed, TrainArchiver trainArchiver,
+                        DepartureBoardIndex departureBoardIndex, BookingEngine bookingEngine) {
         this.userRepository = userRepository;
         this.trainRepository = trainRepository;
+        this.cityListCache = cityListCache;
+        this.directionRanking = directionRanking;
+        this.dataSource = dataSource;
+        this.passwordEncoder = passwordEncoder;
+        this.userAvailabilityService = userAvailabilityService;
+        this.timetableVersion = timetableVersion;
+        this.trainChangeFeed = trainChangeFeed;
+        this.trainArchiver = trainArchiver;
+        this.departureBoardIndex = departureBoardIndex;
+        this.bookingEngine = bookingEngine;
     }
 
     /**
      * Собирает данные о пользователях и поездах для отображения на странице статистики.
      *
-     * @return Map со статистикой: общее число пользователей, популярные направления
+     * @return Map со статистикой: общее число пользователей, популярные направления, работа кэшей
      */
     public Map<String, Object> getSystemStats() {
         Map<String, Object> stats = new HashMap<>();
@@ -34,13 +71,46 @@ public class StatsService {
         // Общее количество зарегистрированных пользователей
         stats.put("totalUsers", userRepository.count());
 
-        // Получаем список популярных направлений из репозитория
-        List<Object[]> popularDirections = trainRepository.findPopularDirections();
+        // Топ-5 направлений: из рейтинга в памяти, а до его загрузки — из репозитория
+        List<DirectionCount> popularDirections;
+        if (directionRanking.isReady()) {
+            popularDirections = directionRanking.top(TOP_DIRECTIONS);
+        } else {
+            popularDirections = trainRepository.findPopularDirections().stream()
+                    .limit(TOP_DIRECTIONS)
+                    .map(row -> new DirectionCount((String) row[0], ((Number) row[1]).longValue()))
+                    .collect(Collectors.toList());
+        }
+        stats.put("popularDirections", popularDirections);
+
+        // Попадания и промахи кэша списков городов
+        stats.put("cityCache", cityListCache.getStats());
+
+        // Очередь к базе данных — только в режиме виртуальных потоков
+        if (dataSource instanceof ConcurrencyLimitingDataSource limiter) {
+            stats.put("dbLimiter", limiter.getStats());
+        }
+
+        // Пул хеширования паролей
+        stats.put("passwordHashing", passwordEncoder.getStats());
+
+        // Проверки занятости логина и email через фильтры Блума
+        stats.put("availability", userAvailabilityService.getStats());
+
+        // Ответы 304 по версии расписания
+        stats.put("timetableVersion", timetableVersion.getStats());
+
+        // Подписчики живой ленты изменений
+        stats.put("feed", trainChangeFeed.getStats());
+
+        // Архивация прибывших поездов
+        stats.put("archive", trainArchiver.getStats());
+
+        // Табло отправлений в памяти
+        stats.put("board", departureBoardIndex.getStats());
 
-        // Ограничиваем вывод — только топ-5 направлений
-        stats.put("popularDirections", popularDirections.stream()
-                .limit(5)
-                .collect(Collectors.toList()));
+        // Бронирование мест и пакетная запись
+        stats.put("booking", bookingEngine.getStats());
 
         return stats;
     }
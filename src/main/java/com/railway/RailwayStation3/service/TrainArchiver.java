@@ -0,0 +1,203 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.ArchivePage;
+import com.railway.RailwayStation3.dto.TrainPage;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.ArchivedTrain;
+import com.railway.RailwayStation3.repository.ArchivedTrainRepository;
+import com.railway.RailwayStation3.repository.SyncStateRepository;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import com.railway.RailwayStation3.repository.TrainRows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Перенос прибывших поездов из основной таблицы в архив.
+ * <p>
+ * Задача выполняется по расписанию и обрабатывает поезда небольшими порциями: порция выбирается
+ * keyset-запросом по (дата прибытия, ID), а перенос выполняется одним запросом в короткой транзакции.
+ * Между порциями делается пауза, чтобы архивация не мешала обычной нагрузке.
+ * <p>
+ * Для каждого перенесённого поезда публикуется событие удаления, поэтому индексы в памяти,
+ * журнал изменений и живая лента видят архивацию как обычное удаление.
+ */
+@Service
+public class TrainArchiver {
+    private static final Logger log = LoggerFactory.getLogger(TrainArchiver.class);
+
+    /**
+     * Начальное значение keyset-курсора: раньше любой даты прибытия.
+     */
+    private static final LocalDate KEYSET_START = LocalDate.of(1, 1, 1);
+
+    /**
+     * Счётчики архивации.
+     *
+     * @param lastRunAt время завершения последнего запуска или null
+     * @param archivedLastRun поездов перенесено за последний запуск
+     * @param archivedTotal поездов перенесено с момента запуска приложения
+     * @param archiveSize поездов в архиве
+     */
+    public record Stats(Instant lastRunAt, long archivedLastRun, long archivedTotal, long archiveSize) {
+    }
+
+    private final TrainRepository trainRepository;
+    private final ArchivedTrainRepository archivedTrainRepository;
+    private final SyncStateRepository syncStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int graceDays;
+    private final int batchSize;
+    private final long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final LongAdder archivedTotal = new LongAdder();
+    private volatile Instant lastRunAt;
+    private volatile long archivedLastRun;
+
+    public TrainArchiver(TrainRepository trainRepository, ArchivedTrainRepository archivedTrainRepository,
+                         SyncStateRepository syncStateRepository, TransactionTemplate transactionTemplate,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${railway.archive.grace-days:1}") int graceDays,
+                         @Value("${railway.archive.batch-size:200}") int batchSize,
+                         @Value("${railway.archive.pause-ms:100}") long pauseMillis) {
+        this.trainRepository = trainRepository;
+        this.archivedTrainRepository = archivedTrainRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.graceDays = graceDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+    }
+
+    /**
+     * Переносит в архив поезда, прибывшие раньше, чем grace-days дней назад.
+     * Повторный запуск, пока предыдущий не завершён, пропускается.
+     *
+     * @return количество перенесённых поездов
+     */
+    @Scheduled(cron = "${railway.archive.cron:0 30 3 * * *}")
+    public long archiveArrivedTrains() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDate cutoff = LocalDate.now().minusDays(graceDays);
+            LocalDate afterDate = KEYSET_START;
+            long afterId = 0;
+            long archived = 0;
+
+            while (true) {
+                List<Object[]> batch = trainRepository.findArrivedAfter(cutoff, afterDate, afterId, batchSize);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                Object[] last = batch.get(batch.size() - 1);
+                afterId = TrainRows.toLong(last[0]);
+                afterDate = TrainRows.toLocalDate(last[1]);
+
+                List<Long> ids = new ArrayList<>(batch.size());
+                for (Object[] row : batch) {
+                    ids.add(TrainRows.toLong(row[0]));
+                }
+                archived += moveBatch(ids, cutoff);
+
+                if (batch.size() < batchSize) {
+                    break;
+                }
+                if (!pause()) {
+                    break;
+                }
+            }
+
+            archivedLastRun = archived;
+            archivedTotal.add(archived);
+            lastRunAt = Instant.now();
+            if (archived > 0) {
+                log.info("Перенесено в архив прибывших поездов: {}", archived);
+            }
+            return archived;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Возвращает страницу архивных поездов (keyset-пагинация по ID).
+     *
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param size размер страницы (по умолчанию {@link TrainService#DEFAULT_PAGE_SIZE})
+     * @param fromCity город отправления (необязательный фильтр)
+     * @param toCity город прибытия (необязательный фильтр)
+     * @param departureDate дата отправления (необязательный фильтр)
+     * @return страница архивных поездов с курсором следующей страницы
+     */
+    public ArchivePage findPage(String cursor, Integer size, String fromCity, String toCity, LocalDate departureDate) {
+        int pageSize = (size == null) ? TrainService.DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > TrainService.MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + TrainService.MAX_PAGE_SIZE);
+        }
+
+        List<ArchivedTrain> rows = archivedTrainRepository.findPageAfter(TrainPage.decodeCursor(cursor),
+                trimToNull(fromCity), trimToNull(toCity), departureDate, Limit.of(pageSize + 1));
+        if (rows.size() <= pageSize) {
+            return new ArchivePage(rows, null, rows.size());
+        }
+
+        List<ArchivedTrain> items = rows.subList(0, pageSize);
+        return new ArchivePage(items, TrainPage.encodeCursor(items.get(pageSize - 1).getId()), pageSize);
+    }
+
+    public Stats getStats() {
+        return new Stats(lastRunAt, archivedLastRun, archivedTotal.sum(), archivedTrainRepository.count());
+    }
+
+    /**
+     * Переносит одну порцию в отдельной короткой транзакции.
+     * Номера изменений резервируются до переноса: строка журнала блокируется, и параллельные
+     * изменения расписания дождутся конца транзакции.
+     */
+    private int moveBatch(List<Long> ids, LocalDate cutoff) {
+        Integer moved = transactionTemplate.execute(status -> {
+            long last = syncStateRepository.advanceChangeSeq(ids.size());
+            List<Object[]> rows = trainRepository.moveToArchive(ids, cutoff, last - ids.size(), Instant.now());
+            // Одно событие на порцию уходит подписчикам после фиксации транзакции
+            if (!rows.isEmpty()) {
+                eventPublisher.publishEvent(new TrainsArchivedEvent(rows.stream().map(TrainRows::toTrain).toList()));
+            }
+            return rows.size();
+        });
+        return (moved == null) ? 0 : moved;
+    }
+
+    private boolean pause() {
+        if (pauseMillis <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String trimToNull(String s) {
+        return (s == null || s.isBlank()) ? null : s.trim();
+    }
+}
@@ -0,0 +1,213 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.TrainChanges;
+import com.railway.RailwayStation3.model.SyncState;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.model.TrainTombstone;
+import com.railway.RailwayStation3.repository.SyncStateRepository;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import com.railway.RailwayStation3.repository.TrainTombstoneRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал изменений расписания для дельта-синхронизации клиентов.
+ * <p>
+ * Каждое создание и обновление поезда получает следующий номер изменения (change_seq),
+ * а удаление оставляет запись {@link TrainTombstone} со своим номером. Клиент запрашивает
+ * изменения после последнего известного ему номера, поэтому объём ответа зависит от числа
+ * изменений, а не от размера расписания.
+ * <p>
+ * Номера выдаются из строки {@link SyncState}, заблокированной до конца транзакции записи:
+ * изменения фиксируются строго в порядке номеров, и клиент не пропустит изменение
+ * с меньшим номером, зафиксированное позже.
+ * <p>
+ * Записи об удалении старше срока хранения периодически удаляются. Клиент, не синхронизировавшийся
+ * дольше этого срока, получает {@link ChangesExpiredException} и должен выполнить полную синхронизацию.
+ */
+@Service
+public class TrainChangeLog {
+    private static final Logger log = LoggerFactory.getLogger(TrainChangeLog.class);
+
+    /**
+     * Размер порции изменений по умолчанию.
+     */
+    public static final int DEFAULT_LIMIT = 500;
+
+    /**
+     * Максимальный размер порции изменений.
+     */
+    public static final int MAX_LIMIT = 5000;
+
+    /**
+     * Клиент запросил изменения, часть которых уже удалена из журнала.
+     */
+    public static class ChangesExpiredException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public ChangesExpiredException(String message) {
+            super(message);
+        }
+    }
+
+    private final TrainRepository trainRepository;
+    private final TrainTombstoneRepository tombstoneRepository;
+    private final SyncStateRepository syncStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration tombstoneRetention;
+
+    public TrainChangeLog(TrainRepository trainRepository, TrainTombstoneRepository tombstoneRepository,
+                          SyncStateRepository syncStateRepository, TransactionTemplate transactionTemplate,
+                          @Value("${railway.sync.tombstone-retention-days:30}") int tombstoneRetentionDays) {
+        this.trainRepository = trainRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.syncStateRepository = syncStateRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    /**
+     * Выдаёт номер изменения для создаваемого или обновляемого поезда.
+     * Вызывать непосредственно перед сохранением, чтобы блокировка журнала держалась как можно меньше.
+     *
+     * @return новый номер изменения
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextChangeSeq() {
+        return syncStateRepository.advanceChangeSeq(1);
+    }
+
+    /**
+     * Записывает удаление поезда в журнал.
+     *
+     * @param train удаляемый поезд
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Train train) {
+        long changeSeq = syncStateRepository.advanceChangeSeq(1);
+        tombstoneRepository.save(new TrainTombstone(changeSeq, train.getId(), train.getNumber(), Instant.now()));
+    }
+
+    /**
+     * Возвращает изменения расписания после указанного номера.
+     * При since = 0 (первая синхронизация) записи об удалении не возвращаются: клиенту
+     * нечего удалять.
+     * <p>
+     * Поезда, записи об удалении и граница журнала читаются разными запросами, поэтому все они
+     * должны видеть один снимок базы (REPEATABLE READ). Иначе изменение, зафиксированное между
+     * запросами, могло бы попасть в ответ только частично: например, обновление с номером 11
+     * пропущено первым запросом, а удаление с номером 12 найдено вторым — и клиент, продолжив
+     * с since = 12, никогда не получил бы обновление 11.
+     *
+     * @param since последний номер изменения, известный клиенту
+     * @param limit размер порции (по умолчанию {@link #DEFAULT_LIMIT})
+     * @return порция изменений с номером для следующего запроса
+     * @throws ChangesExpiredException если записи об удалении после since уже удалены из журнала
+     */
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public TrainChanges changesSince(long since, Integer limit) {
+        int size = (limit == null) ? DEFAULT_LIMIT : limit;
+        if (since < 0) {
+            throw new IllegalArgumentException("Номер изменения не может быть отрицательным");
+        }
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new IllegalArgumentException("Размер порции должен быть от 1 до " + MAX_LIMIT);
+        }
+
+        // На одну строку больше, чтобы узнать, остались ли изменения после порции
+        List<Train> trains = trainRepository.findByChangeSeqGreaterThanOrderByChangeSeq(since, Limit.of(size + 1));
+        List<TrainTombstone> tombstones = (since == 0)
+                ? List.of()
+                : tombstoneRepository.findByChangeSeqGreaterThanOrderByChangeSeq(since, Limit.of(size + 1));
+
+        // Граница читается из того же снимка, что и записи об удалении: если их удалили до начала
+        // транзакции, клиент получит 410, а не ответ без части удалений
+        if (since > 0 && since < compactedThrough()) {
+            throw new ChangesExpiredException("Изменения после " + since + " уже удалены из журнала, "
+                    + "выполните полную синхронизацию (since=0)");
+        }
+
+        List<Train> updated = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        long nextSince = since;
+        int t = 0;
+        int d = 0;
+        while (updated.size() + deleted.size() < size && (t < trains.size() || d < tombstones.size())) {
+            boolean takeTrain = d >= tombstones.size()
+                    || (t < trains.size() && trains.get(t).getChangeSeq() < tombstones.get(d).getChangeSeq());
+            if (takeTrain) {
+                Train train = trains.get(t++);
+                updated.add(train);
+                nextSince = train.getChangeSeq();
+            } else {
+                TrainTombstone tombstone = tombstones.get(d++);
+                deleted.add(tombstone.getTrainId());
+                nextSince = tombstone.getChangeSeq();
+            }
+        }
+        boolean hasMore = t < trains.size() || d < tombstones.size();
+        return new TrainChanges(updated, deleted, nextSince, hasMore);
+    }
+
+    /**
+     * Удаляет записи об удалении старше срока хранения и сдвигает границу журнала.
+     */
+    @Scheduled(initialDelayString = "${railway.sync.compaction-interval-ms:3600000}",
+            fixedDelayString = "${railway.sync.compaction-interval-ms:3600000}")
+    public void compact() {
+        Instant now = Instant.now();
+        Integer removed = transactionTemplate.execute(status -> {
+            Long through = tombstoneRepository.findMaxChangeSeqDeletedBefore(now.minus(tombstoneRetention));
+            if (through == null) {
+                return 0;
+            }
+            syncStateRepository.raiseCompactedThrough(through, now);
+            return tombstoneRepository.deleteThrough(through);
+        });
+        if (removed != null && removed > 0) {
+            log.info("Удалено устаревших записей об удалении поездов: {}", removed);
+        }
+    }
+
+    /**
+     * Присваивает номера изменений поездам, созданным до появления журнала,
+     * чтобы они попали в первую синхронизацию клиентов. Выполняется до загрузки подсказок
+     * при вводе ({@code PlaceSuggestions}), которые сверяют изменения по этим номерам.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void assignMissingChangeSeqs() {
+        Integer assigned = transactionTemplate.execute(status -> {
+            long missing = trainRepository.countWithoutChangeSeq();
+            if (missing == 0) {
+                return 0;
+            }
+            long last = syncStateRepository.advanceChangeSeq(missing);
+            return trainRepository.assignChangeSeqs(last - missing);
+        });
+        if (assigned != null && assigned > 0) {
+            log.info("Присвоены номера изменений поездам без журнала: {}", assigned);
+        }
+    }
+
+    private long compactedThrough() {
+        return syncStateRepository.findById(SyncState.ID).map(SyncState::getCompactedThrough).orElse(0L);
+    }
+}
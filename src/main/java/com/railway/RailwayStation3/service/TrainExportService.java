@@ -0,0 +1,141 @@
+package com.railway.RailwayStation3.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Сервис потоковой выгрузки расписания.
+ * Поезда читаются из базы курсором и сразу пишутся в ответ, поэтому расход памяти
+ * не зависит от размера таблицы.
+ */
+@Service
+public class TrainExportService {
+
+    /**
+     * Поддерживаемые форматы выгрузки.
+     */
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String mediaType;
+        private final String extension;
+
+        Format(String mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Определяет формат по имени из параметра запроса.
+         *
+         * @param name имя формата ("ndjson" или "csv")
+         * @return формат выгрузки
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестный формат выгрузки: " + name);
+        }
+    }
+
+    private static final String CSV_HEADER = "id,number,fromCity,toCity,departureStation,arrivalStation," +
+            "departureDate,departureTime,arrivalDate,arrivalTime";
+
+    private final TrainRepository trainRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public TrainExportService(TrainRepository trainRepository, EntityManager entityManager, ObjectMapper objectMapper) {
+        this.trainRepository = trainRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Выгружает все поезда в указанном формате.
+     * Каждый записанный поезд отсоединяется от контекста персистентности,
+     * чтобы сессия Hibernate не накапливала сущности.
+     *
+     * @param format формат выгрузки
+     * @param out поток ответа
+     * @throws IOException при ошибке записи
+     */
+    @Transactional(readOnly = true)
+    public void export(Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        try (Stream<Train> trains = trainRepository.streamAllOrderById()) {
+            Iterator<Train> iterator = trains.iterator();
+            while (iterator.hasNext()) {
+                Train train = iterator.next();
+                if (format == Format.CSV) {
+                    writeCsvRow(writer, train);
+                } else {
+                    writer.write(objectMapper.writeValueAsString(train));
+                }
+                writer.write('\n');
+                entityManager.detach(train);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsvRow(Writer writer, Train train) throws IOException {
+        writer.write(String.valueOf(train.getId()));
+        writeCsvField(writer, train.getNumber());
+        writeCsvField(writer, train.getFromCity());
+        writeCsvField(writer, train.getToCity());
+        writeCsvField(writer, train.getDepartureStation());
+        writeCsvField(writer, train.getArrivalStation());
+        writeCsvField(writer, train.getDepartureDate());
+        writeCsvField(writer, train.getDepartureTime());
+        writeCsvField(writer, train.getArrivalDate());
+        writeCsvField(writer, train.getArrivalTime());
+    }
+
+    private void writeCsvField(Writer writer, Object value) throws IOException {
+        writer.write(',');
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = text.indexOf(',') >= 0 || text.indexOf('"') >= 0
+                || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0;
+        if (quote) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
+import com.railway.RailwayStation3.event.TrainScheduleChangedEvent;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.model.TrainSchedule;
+import com.railway.RailwayStation3.repository.TrainScheduleRepository;
+import com.railway.RailwayStation3.validation.TrainScheduleValidator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис регулярных расписаний поездов.
+ * <p>
+ * Расписаний немного (одно на поезд, а не на каждый рейс), поэтому все они держатся в памяти,
+ * и рейсы на запрошенные даты строятся при поиске без обращения к базе. Копия в памяти
+ * перечитывается после каждого изменения расписаний.
+ */
+@Service
+public class TrainScheduleService {
+    /**
+     * Наибольший диапазон дат поиска, на который строятся рейсы регулярных расписаний.
+     * При более широком или открытом диапазоне возвращаются только поезда из таблицы trains.
+     */
+    public static final int MAX_EXPANSION_DAYS = 366;
+
+    private final TrainScheduleRepository trainScheduleRepository;
+    private final TrainScheduleValidator trainScheduleValidator;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile List<TrainSchedule> schedules;
+
+    public TrainScheduleService(TrainScheduleRepository trainScheduleRepository,
+                                TrainScheduleValidator trainScheduleValidator,
+                                ApplicationEventPublisher eventPublisher) {
+        this.trainScheduleRepository = trainScheduleRepository;
+        this.trainScheduleValidator = trainScheduleValidator;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Возвращает все расписания.
+     *
+     * @return список расписаний
+     */
+    public List<TrainSchedule> findAll() {
+        return trainScheduleRepository.findAllWithExceptions();
+    }
+
+    /**
+     * Находит расписание по ID.
+     *
+     * @param id ID расписания
+     * @return расписание или null, если не найдено
+     */
+    public TrainSchedule getScheduleById(Long id) {
+        return trainScheduleRepository.findWithExceptionsById(id).orElse(null);
+    }
+
+    /**
+     * Добавляет новое расписание после проверки данных.
+     *
+     * @param schedule данные расписания
+     * @return сохранённое расписание
+     */
+    @Transactional
+    public TrainSchedule createSchedule(TrainSchedule schedule) {
+        trainScheduleValidator.validate(schedule);
+        if (trainScheduleRepository.existsByNumber(schedule.getNumber())) {
+            throw new IllegalArgumentException("Расписание поезда с таким номером уже существует");
+        }
+
+        schedule.setId(null);
+        TrainSchedule saved = trainScheduleRepository.save(schedule);
+        eventPublisher.publishEvent(new TrainScheduleChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * Полностью обновляет расписание.
+     *
+     * @param schedule обновлённые данные расписания (с ID)
+     * @return обновлённое расписание
+     */
+    @Transactional
+    public TrainSchedule updateSchedule(TrainSchedule schedule) {
+        trainScheduleValidator.validate(schedule);
+        TrainSchedule existing = trainScheduleRepository.findWithExceptionsById(schedule.getId())
+                .orElseThrow(() -> new IllegalArgumentException("Расписание не найдено"));
+        if (trainScheduleRepository.existsByNumberAndIdNot(schedule.getNumber(), schedule.getId())) {
+            throw new IllegalArgumentException("Расписание поезда с таким номером уже существует");
+        }
+
+        existing.setNumber(schedule.getNumber());
+        existing.setFromCity(schedule.getFromCity());
+        existing.setToCity(schedule.getToCity());
+        existing.setDepartureStation(schedule.getDepartureStation());
+        existing.setArrivalStation(schedule.getArrivalStation());
+        existing.setDepartureTime(schedule.getDepartureTime());
+        existing.setArrivalTime(schedule.getArrivalTime());
+        existing.setArrivalDayOffset(schedule.getArrivalDayOffset());
+        existing.setDaysOfWeek(schedule.getDaysOfWeek());
+        existing.setValidFrom(schedule.getValidFrom());
+        existing.setValidTo(schedule.getValidTo());
+        existing.getExceptions().clear();
+        existing.getExceptions().addAll(schedule.getExceptions());
+
+        eventPublisher.publishEvent(new TrainScheduleChangedEvent(existing.getId()));
+        return existing;
+    }
+
+    /**
+     * Удаляет расписание по ID.
+     *
+     * @param id ID расписания
+     */
+    @Transactional
+    public void deleteSchedule(Long id) {
+        trainScheduleRepository.findById(id).ifPresent(schedule -> {
+            trainScheduleRepository.delete(schedule);
+            eventPublisher.publishEvent(new TrainScheduleChangedEvent(id));
+        });
+    }
+
+    /**
+     * Строит рейсы регулярных расписаний, подходящие под условия поиска.
+     * Рейсы строятся только для ограниченного диапазона дат (не больше {@link #MAX_EXPANSION_DAYS} дней).
+     *
+     * @param criteria нормализованные условия поиска
+     * @return рейсы без ID, по одному на расписание и дату; пустой список, если диапазон дат не ограничен
+     */
+    public List<Train> expand(TrainSearchCriteria criteria) {
+        LocalDate from = criteria.departureDateFrom();
+        LocalDate to = criteria.departureDateTo();
+        if (from == null || to == null || from.isAfter(to) || ChronoUnit.DAYS.between(from, to) >= MAX_EXPANSION_DAYS) {
+            return List.of();
+        }
+
+        List<Train> runs = new ArrayList<>();
+        for (TrainSchedule schedule : snapshot()) {
+            if (!matchesRoute(schedule, criteria)
+                    || !matchesTime(schedule.getDepartureTime(), criteria.departureTimeFrom(), criteria.departureTimeTo())) {
+                continue;
+            }
+            LocalDate first = from.isBefore(schedule.getValidFrom()) ? schedule.getValidFrom() : from;
+            LocalDate last = to.isAfter(schedule.getValidTo()) ? schedule.getValidTo() : to;
+            for (LocalDate date = first; !date.isAfter(last); date = date.plusDays(1)) {
+                if (schedule.runsOn(date)) {
+                    runs.add(schedule.toTrain(date));
+                }
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Перечитывает расписания из базы после их изменения.
+     * Выполняется раньше остальных подписчиков, чтобы новая версия расписания
+     * ({@link com.railway.RailwayStation3.cache.TimetableVersion}) не отдавалась со старыми рейсами.
+     *
+     * @param event событие изменения расписания
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onScheduleChanged(TrainScheduleChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Загружает расписания в память после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        schedules = List.copyOf(trainScheduleRepository.findAllWithExceptions());
+    }
+
+    private List<TrainSchedule> snapshot() {
+        List<TrainSchedule> current = schedules;
+        if (current == null) {
+            reload();
+            current = schedules;
+        }
+        return current;
+    }
+
+    private static boolean matchesRoute(TrainSchedule schedule, TrainSearchCriteria criteria) {
+        return (criteria.fromCity() == null || criteria.fromCity().equals(schedule.getFromCity()))
+                && (criteria.toCity() == null || criteria.toCity().equals(schedule.getToCity()))
+                && (criteria.departureStation() == null || criteria.departureStation().equals(schedule.getDepartureStation()))
+                && (criteria.arrivalStation() == null || criteria.arrivalStation().equals(schedule.getArrivalStation()));
+    }
+
+    /**
+     * Проверка окна времени отправления по тем же правилам, что и запрос к базе
+     * (окно, у которого конец раньше начала, проходит через полночь).
+     */
+    private static boolean matchesTime(LocalTime time, LocalTime from, LocalTime to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return !time.isBefore(from) || !time.isAfter(to);
+        }
+        return (from == null || !time.isBefore(from)) && (to == null || !time.isAfter(to));
+    }
+}
@@ -1,24 +1,68 @@
 package com.railway.RailwayStation3.service;
 
+import com.railway.RailwayStation3.cache.CityListCache;
+import com.railway.RailwayStation3.dto.TrainPage;
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.index.TimetableIndex;
 import com.railway.RailwayStation3.model.Train;
 import com.railway.RailwayStation3.repository.TrainRepository;
+import com.railway.RailwayStation3.repository.TrainRows;
+import com.railway.RailwayStation3.repository.TrainSpecifications;
+import com.railway.RailwayStation3.validation.TrainValidator;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Сервис для работы с поездами.
+ * Изменяющие методы выполняются в транзакции: каждое изменение получает номер в журнале
+ * {@link TrainChangeLog}, а подписчики {@link TrainChangedEvent} уведомляются после фиксации.
  */
 @Service
 public class TrainService {
-    private final TrainRepository trainRepository;
+    /**
+     * Размер страницы по умолчанию для постраничной выдачи.
+     */
+    public static final int DEFAULT_PAGE_SIZE = 50;
 
-    public TrainService(TrainRepository trainRepository) {
+    /**
+     * Максимально допустимый размер страницы.
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final TrainRepository trainRepository;
+    private final TimetableIndex timetableIndex;
+    private final CityListCache cityListCache;
+    private final TrainValidator trainValidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TrainChangeLog trainChangeLog;
+    private final TrainScheduleService trainScheduleService;
+
+    public TrainService(TrainRepository trainRepository, TimetableIndex timetableIndex,
+                        CityListCache cityListCache, TrainValidator trainValidator,
+                        ApplicationEventPublisher eventPublisher, TrainChangeLog trainChangeLog,
+                        TrainScheduleService trainScheduleService) {
         this.trainRepository = trainRepository;
+        this.timetableIndex = timetableIndex;
+        this.cityListCache = cityListCache;
+        this.trainValidator = trainValidator;
+        this.eventPublisher = eventPublisher;
+        this.trainChangeLog = trainChangeLog;
+        this.trainScheduleService = trainScheduleService;
     }
 
     /**
@@ -30,6 +74,113 @@ public class TrainService {
         return trainRepository.findAll();
     }
 
+    /**
+     * Возвращает страницу поездов после указанного курсора (keyset-пагинация по ID).
+     * Стоимость запроса не зависит от номера страницы и размера таблицы.
+     *
+     * @param cursor курсор, полученный с предыдущей страницы, или null для первой страницы
+     * @param size размер страницы (по умолчанию {@link #DEFAULT_PAGE_SIZE})
+     * @param fromCity город отправления (необязательный фильтр)
+     * @param toCity город прибытия (необязательный фильтр)
+     * @param departureDate дата отправления (необязательный фильтр)
+     * @return страница поездов с курсором следующей страницы
+     */
+    public TrainPage findPage(String cursor, Integer size, String fromCity, String toCity, LocalDate departureDate) {
+        int pageSize = (size == null) ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+
+        // В запрос попадают только заданные фильтры, поэтому он обслуживается составными индексами.
+        // Запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        Specification<Train> filters = TrainSpecifications
+                .matching(TrainSearchCriteria.route(trimToNull(fromCity), trimToNull(toCity), departureDate))
+                .and(TrainSpecifications.idAfter(TrainPage.decodeCursor(cursor)));
+        List<Train> rows = trainRepository.findBy(filters,
+                query -> query.sortBy(Sort.by("id")).limit(pageSize + 1).all());
+
+        if (rows.size() <= pageSize) {
+            return new TrainPage(rows, null, rows.size());
+        }
+
+        List<Train> items = rows.subList(0, pageSize);
+        return new TrainPage(items, TrainPage.encodeCursor(items.get(pageSize - 1).getId()), pageSize);
+    }
+
+    /**
+     * Возвращает страницу поездов, отправляющихся в интервале времени, в порядке отправления.
+     * Интервал может переходить через полночь (например, с 18:00 сегодня до 06:00 завтра):
+     * поиск идёт по одному индексу моментов отправления.
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param city город отправления (необязательный фильтр)
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param size размер страницы (по умолчанию {@link #DEFAULT_PAGE_SIZE})
+     * @return страница поездов с курсором следующей страницы
+     */
+    public TrainPage findDepartures(LocalDateTime from, LocalDateTime to, String city, String cursor, Integer size) {
+        int pageSize = checkTimeRange(from, to, size);
+        TrainPage.TimeCursor after = afterCursor(from, cursor);
+        String filter = trimToNull(city);
+        List<Train> rows = (filter == null)
+                ? trainRepository.findDeparturesBetween(from, to, after.at(), after.id(), pageSize + 1)
+                : trainRepository.findDeparturesFromCityBetween(filter, from, to, after.at(), after.id(), pageSize + 1);
+        return timePage(rows, pageSize, Train::getDepartureAt);
+    }
+
+    /**
+     * Возвращает страницу поездов, прибывающих в интервале времени, в порядке прибытия.
+     *
+     * @param from начало интервала (включительно)
+     * @param to конец интервала (включительно)
+     * @param city город прибытия (необязательный фильтр)
+     * @param cursor курсор предыдущей страницы или null для первой страницы
+     * @param size размер страницы (по умолчанию {@link #DEFAULT_PAGE_SIZE})
+     * @return страница поездов с курсором следующей страницы
+     */
+    public TrainPage findArrivals(LocalDateTime from, LocalDateTime to, String city, String cursor, Integer size) {
+        int pageSize = checkTimeRange(from, to, size);
+        TrainPage.TimeCursor after = afterCursor(from, cursor);
+        String filter = trimToNull(city);
+        List<Train> rows = (filter == null)
+                ? trainRepository.findArrivalsBetween(from, to, after.at(), after.id(), pageSize + 1)
+                : trainRepository.findArrivalsToCityBetween(filter, from, to, after.at(), after.id(), pageSize + 1);
+        return timePage(rows, pageSize, Train::getArrivalAt);
+    }
+
+    private static int checkTimeRange(LocalDateTime from, LocalDateTime to, Integer size) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("Начало и конец интервала должны быть указаны");
+        }
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начало интервала не может быть позже конца");
+        }
+        int pageSize = (size == null) ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        return pageSize;
+    }
+
+    /**
+     * Позиция начала страницы: из курсора или, для первой страницы, начало интервала
+     * (ID поездов положительны, поэтому ID 0 не отсекает поезда в момент from).
+     */
+    private static TrainPage.TimeCursor afterCursor(LocalDateTime from, String cursor) {
+        TrainPage.TimeCursor after = TrainPage.decodeTimeCursor(cursor);
+        return (after == null) ? new TrainPage.TimeCursor(from, 0) : after;
+    }
+
+    private static TrainPage timePage(List<Train> rows, int pageSize, Function<Train, LocalDateTime> at) {
+        if (rows.size() <= pageSize) {
+            return new TrainPage(rows, null, rows.size());
+        }
+        List<Train> items = rows.subList(0, pageSize);
+        Train last = items.get(pageSize - 1);
+        return new TrainPage(items, TrainPage.encodeCursor(at.apply(last), last.getId()), pageSize);
+    }
+
     /**
      * Возвращает отсортированный список поездов.
      *
@@ -42,164 +193,55 @@ public class TrainService {
     }
 
     /**
-     * Добавляет новый поезд после проверки корректности данных:
+     * Добавляет новый поезд после проверки корректности данных.
      *
      * @param train данные нового поезда
      * @return сохранённый поезд
      */
+    @Transactional
     public Train createTrain(Train train) {
         if (trainRepository.existsByNumber(train.getNumber())) {
             throw new IllegalArgumentException("Поезд с таким номером уже существует");
         }
 
-        if (!train.getNumber().matches("^[a-zA-Z0-9]{2,10}$")) {
-            throw new IllegalArgumentException("Номер поезда должен содержать 2-10 английских букв или цифр");
-        }
-
-        // Проверка: город отправления не пустой и содержит от 2 до 30 символов
-//        if (train.getFromCity() == null || train.getFromCity().trim().isEmpty()) {
-//            throw new IllegalArgumentException("Город отправления не может быть пустым");
-//        }
-//        if (train.getFromCity().length() < 2 || train.getFromCity().length() > 30) {
-//            throw new IllegalArgumentException("Город отправления должен содержать от 2 до 30 символов");
-//        }
-//
-//        // Проверка: город отправления не должен содержать цифры
-//        if (!train.getFromCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-//            throw new IllegalArgumentException("Город отправления не должен содержать цифры");
-//        }
-
-        if (train.getFromCity() == null
-                || train.getFromCity().trim().isEmpty()
-                || train.getFromCity().length() < 2
-                || train.getFromCity().length() > 30
-                || !train.getFromCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-
-            throw new IllegalArgumentException("Город отправления должен содержать от 2 до 30 символов и не должен содержать цифр");
-        }
-
-        if (train.getToCity() == null
-                || train.getToCity().trim().isEmpty()
-                || train.getToCity().length() < 2
-                || train.getToCity().length() > 30
-                || !train.getToCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-
-            throw new IllegalArgumentException("Город прибытия должен содержать от 2 до 30 символов и не должен содержать цифр");
-        }
-
-        if (train.getDepartureStation() == null
-                || train.getDepartureStation().trim().isEmpty()
-                || train.getDepartureStation().length() < 2
-                || train.getDepartureStation().length() > 30
-                || !train.getDepartureStation().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-
-            throw new IllegalArgumentException("Вокзал отправления должен содержать от 2 до 30 символов и не должен содержать цифр");
-        }
-
-        if (train.getArrivalStation() == null
-                || train.getArrivalStation().trim().isEmpty()
-                || train.getArrivalStation().length() < 2
-                || train.getArrivalStation().length() > 30
-                || !train.getArrivalStation().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-
-            throw new IllegalArgumentException("Вокзал прибытия должен содержать от 2 до 30 символов и не должен содержать цифр");
-        }
-
-//        // Проверка: город прибытия не пустой и содержит от 2 до 30 символов
-//        if (train.getToCity() == null || train.getToCity().trim().isEmpty()) {
-//            throw new IllegalArgumentException("Город прибытия не может быть пустым");
-//        }
-//        if (train.getToCity().length() < 2 || train.getToCity().length() > 30) {
-//            throw new IllegalArgumentException("Город прибытия должен содержать от 2 до 30 символов");
-//        }
-//
-//        // Проверка: город прибытия не должен содержать цифры
-//        if (!train.getToCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-//            throw new IllegalArgumentException("Город прибытия не должен содержать цифры");
-//        }
-
-
-        if (train.getFromCity().equalsIgnoreCase(train.getToCity())) {
-            throw new IllegalArgumentException("Города отправления и прибытия не могут совпадать");
-        }
-
-        if (train.getDepartureDate().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Дата отправления не может быть в прошлом");
-        }
+        trainValidator.validate(train);
 
-        if (train.getArrivalDate().isBefore(train.getDepartureDate())) {
-            throw new IllegalArgumentException("Дата прибытия не может быть раньше даты отправления");
-        }
-
-        if (train.getDepartureDate().equals(train.getArrivalDate()) &&
-                train.getArrivalTime().isBefore(train.getDepartureTime())) {
-            throw new IllegalArgumentException("Время прибытия не может быть раньше времени отправления");
-        }
-
-        return trainRepository.save(train);
+        train.setVersion(null);
+        train.setChangeSeq(trainChangeLog.nextChangeSeq());
+        Train savedTrain = trainRepository.save(train);
+        eventPublisher.publishEvent(TrainChangedEvent.created(savedTrain));
+        return savedTrain;
     }
 
     /**
-     * Удаляет поезд по ID.
+     * Удаляет поезд по ID и оставляет запись об удалении для дельта-синхронизации.
      *
      * @param id ID поезда
      */
+    @Transactional
     public void deleteTrain(Long id) {
-        trainRepository.deleteById(id);
+        trainRepository.findById(id).ifPresent(train -> {
+            Train before = new Train(train);
+            trainChangeLog.recordDeletion(train);
+            trainRepository.delete(train);
+            eventPublisher.publishEvent(TrainChangedEvent.deleted(before));
+        });
     }
 
     /**
      * Обновляет существующий поезд с проверкой данных.
+     * Если у поезда указана версия ({@link Train#getVersion()}), обновление выполняется только
+     * при совпадении с текущей версией в базе (оптимистическая блокировка). Успешное обновление —
+     * это ровно один запрос к базе.
      *
      * @param train обновлённые данные поезда
      * @return обновлённый поезд
+     * @throws OptimisticLockingFailureException если поезд уже изменён другим пользователем
      */
+    @Transactional
     public Train updateTrain(Train train) {
-        Train existingTrain = trainRepository.findById(train.getId())
-                .orElseThrow(() -> new IllegalArgumentException("Поезд не найден"));
-
-        if (!existingTrain.getNumber().equals(train.getNumber()) && trainRepository.existsByNumber(train.getNumber())) {
-            throw new IllegalArgumentException("Поезд с таким номером уже существует");
-        }
-
-        if (!train.getNumber().matches("^[a-zA-Z0-9]{2,10}$")) {
-            throw new IllegalArgumentException("Номер поезда должен содержать 2-10 букв или цифр");
-        }
-
-        if (train.getFromCity().length() < 2 || train.getFromCity().length() > 30) {
-            throw new IllegalArgumentException("Город отправления должен содержать от 2 до 30 символов");
-        }
-
-        if (!train.getFromCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-            throw new IllegalArgumentException("Город отправления не должен содержать цифры");
-        }
-
-        if (train.getToCity().length() < 2 || train.getToCity().length() > 30) {
-            throw new IllegalArgumentException("Город прибытия должен содержать от 2 до 30 символов");
-        }
-
-        if (!train.getToCity().matches("[а-яА-ЯёЁa-zA-Z\\s\\-]+")) {
-            throw new IllegalArgumentException("Город прибытия не должен содержать цифры");
-        }
-
-        if (train.getFromCity().equalsIgnoreCase(train.getToCity())) {
-            throw new IllegalArgumentException("Города отправления и прибытия не могут совпадать");
-        }
-
-        if (train.getDepartureDate().isBefore(LocalDate.now())) {
-            throw new IllegalArgumentException("Дата отправления не может быть в прошлом");
-        }
-
-        if (train.getArrivalDate().isBefore(train.getDepartureDate())) {
-            throw new IllegalArgumentException("Дата прибытия не может быть раньше даты отправления");
-        }
-
-        if (train.getDepartureDate().equals(train.getArrivalDate()) &&
-                train.getArrivalTime().isBefore(train.getDepartureTime())) {
-            throw new IllegalArgumentException("Время прибытия не может быть раньше времени отправления");
-        }
-
-        return trainRepository.save(train);
+        trainValidator.validate(train);
+        return update(train, (train.getVersion() == null) ? TrainRepository.ANY_VERSION : train.getVersion());
     }
 
     /**
@@ -213,7 +255,7 @@ public class TrainService {
     }
 
     /**
-     * Фильтрует поезда. Может применять сортировку.
+     * Фильтрует поезда по маршруту и дате. Может применять сортировку.
      *
      * @param fromCity город отправления
      * @param toCity город прибытия
@@ -222,26 +264,95 @@ public class TrainService {
      * @return список подходящих поездов
      */
     public List<Train> findByFilters(String fromCity, String toCity, LocalDate departureDate, String sortBy) {
+        return findByFilters(TrainSearchCriteria.route(fromCity, toCity, departureDate), sortBy);
+    }
+
+    /**
+     * Фильтрует поезда по любой комбинации условий. Может применять сортировку.
+     * Поиск по маршруту и одной дате обслуживается индексом в памяти, если он уже загружен;
+     * остальные комбинации выполняются динамическим запросом к базе.
+     * Если задан диапазон дат, к результату добавляются рейсы регулярных расписаний
+     * ({@link TrainScheduleService#expand(TrainSearchCriteria)}).
+     *
+     * @param criteria условия поиска (пустые поля не учитываются)
+     * @param sortBy поле для сортировки
+     * @return список подходящих поездов
+     */
+    public List<Train> findByFilters(TrainSearchCriteria criteria, String sortBy) {
         Sort sort = Sort.by(sortBy);
+        TrainSearchCriteria filters = criteria.normalized();
 
-        boolean allEmpty = (isBlank(fromCity) && isBlank(toCity) && departureDate == null);
-        if (allEmpty) {
+        if (filters.isEmpty()) {
             return trainRepository.findAll(sort);
         }
+        if (filters.departureDateFrom() != null && filters.departureDateTo() != null
+                && filters.departureDateFrom().isAfter(filters.departureDateTo())) {
+            throw new IllegalArgumentException("Начальная дата не может быть позже конечной");
+        }
 
-        boolean anyNotEmpty = (!isBlank(fromCity) || !isBlank(toCity) || departureDate != null);
-        boolean allPresent  = (!isBlank(fromCity) && !isBlank(toCity) && departureDate != null);
-        if (anyNotEmpty && !allPresent) {
-            throw new IllegalArgumentException("Для фильтрации необходимо заполнить все поля");
+        List<Train> trains;
+        if (filters.isExactRouteAndDate() && timetableIndex.isReady()) {
+            trains = timetableIndex.search(filters.fromCity(), filters.toCity(), filters.departureDateFrom(), sortBy);
+        } else {
+            trains = trainRepository.findAll(TrainSpecifications.matching(filters), sort);
         }
 
-        return trainRepository.findByFromCityAndToCityAndDepartureDate(fromCity.trim(), toCity.trim(), departureDate, sort);
+        List<Train> runs = trainScheduleService.expand(filters);
+        if (runs.isEmpty()) {
+            return trains;
+        }
+        return mergeRuns(trains, runs, TimetableIndex.comparatorFor(sortBy));
     }
 
-    private boolean isBlank(String s) {
+    /**
+     * Вставляет рейсы регулярных расписаний в отсортированный список поездов.
+     * Порядок поездов из базы сохраняется (он задан правилами сортировки базы), рейсы
+     * размещаются между ними по компаратору.
+     *
+     * @param trains поезда в порядке сортировки
+     * @param runs рейсы регулярных расписаний
+     * @param comparator порядок сортировки
+     * @return объединённый список
+     */
+    static List<Train> mergeRuns(List<Train> trains, List<Train> runs, Comparator<Train> comparator) {
+        List<Train> sortedRuns = new ArrayList<>(runs);
+        sortedRuns.sort(comparator);
+        List<Train> merged = new ArrayList<>(trains.size() + sortedRuns.size());
+        int r = 0;
+        for (Train train : trains) {
+            while (r < sortedRuns.size() && comparator.compare(sortedRuns.get(r), train) < 0) {
+                merged.add(sortedRuns.get(r++));
+            }
+            merged.add(train);
+        }
+        merged.addAll(sortedRuns.subList(r, sortedRuns.size()));
+        return merged;
+    }
+
+    /**
+     * Считает сохранённые поезда, подходящие под условия поиска.
+     * Рейсы регулярных расписаний не учитываются: постраничная выдача GET /api их тоже не возвращает,
+     * и количество должно совпадать с тем, что клиент получит, пройдя все страницы.
+     *
+     * @param criteria условия поиска (пустые поля не учитываются)
+     * @return количество поездов
+     */
+    public long countByFilters(TrainSearchCriteria criteria) {
+        TrainSearchCriteria filters = criteria.normalized();
+        if (filters.isEmpty()) {
+            return trainRepository.count();
+        }
+        return trainRepository.count(TrainSpecifications.matching(filters));
+    }
+
+    private static boolean isBlank(String s) {
         return (s == null || s.trim().isEmpty());
     }
 
+    private static String trimToNull(String s) {
+        return isBlank(s) ? null : s.trim();
+    }
+
 //    public List<Train> findByFilters(String fromCity, String toCity, LocalDate departureDate, Sort sort) {
 //        if (fromCity != null && toCity != null && departureDate != null) {
 //            return trainRepository.findByFromCityAndToCityAndDepartureDate(fromCity, toCity, departureDate, sort);
@@ -251,21 +362,21 @@ public class TrainService {
 //    }
 
     /**
-     * Возвращает список уникальных городов отправления.
+     * Возвращает список уникальных городов отправления (из кэша).
      *
-     * @return список городов
+     * @return неизменяемый список городов
      */
     public List<String> getAllUniqueFromCities() {
-        return trainRepository.findDistinctFromCities();
+        return cityListCache.getFromCities();
     }
 
     /**
-     * Возвращает список уникальных городов прибытия.
+     * Возвращает список уникальных городов прибытия (из кэша).
      *
-     * @return список городов
+     * @return неизменяемый список городов
      */
     public List<String> getAllUniqueToCities() {
-        return trainRepository.findDistinctToCities();
+        return cityListCache.getToCities();
     }
 
     /**
@@ -276,44 +387,107 @@ public class TrainService {
      * @param updates карта полей для обновления
      * @return обновлённый поезд
      */
+    @Transactional
     public Train partialUpdate(Long id, Map<String, Object> updates) {
-        Train train = trainRepository.findById(id)
+        return partialUpdate(id, updates, null);
+    }
+
+    /**
+     * Частично обновляет поезд по указанному ID с проверкой версии.
+     * Поезд читается один раз, а изменения записываются одним условным UPDATE: если между чтением
+     * и записью поезд изменил другой пользователь, обновление не выполняется.
+     *
+     * @param id ID поезда
+     * @param updates карта полей для обновления
+     * @param expectedVersion версия, которую видел клиент, или null, если проверять её не нужно
+     * @return обновлённый поезд
+     * @throws OptimisticLockingFailureException если поезд уже изменён другим пользователем
+     */
+    @Transactional
+    public Train partialUpdate(Long id, Map<String, Object> updates, Long expectedVersion) {
+        Train existingTrain = trainRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Поезд не найден"));
+        if (expectedVersion != null && !expectedVersion.equals(existingTrain.getVersion())) {
+            throw conflict();
+        }
+        // Изменения применяются к копии, чтобы некорректные данные не попали в загруженную сущность
+        Train train = new Train(existingTrain);
 
         updates.forEach((key, value) -> {
-            switch (key) {
-                case "number":
-                    train.setNumber((String) value);
-                    break;
-                case "fromCity":
-                    train.setFromCity((String) value);
-                    break;
-                case "toCity":
-                    train.setToCity((String) value);
-                    break;
-                case "departureStation":
-                    train.setDepartureStation((String) value);
-                    break;
-                case "arrivalStation":
-                    train.setArrivalStation((String) value);
-                    break;
-                case "departureDate":
-                    train.setDepartureDate(LocalDate.parse((String) value));
-                    break;
-                case "arrivalDate":
-                    train.setArrivalDate(LocalDate.parse((String) value));
-                    break;
-                case "departureTime":
-                    train.setDepartureTime(LocalTime.parse((String) value));
-                    break;
-                case "arrivalTime":
-                    train.setArrivalTime(LocalTime.parse((String) value));
-                    break;
-                default:
-                    throw new IllegalArgumentException("Неизвестное поле: " + key);
+            try {
+                applyField(train, key, value);
+            } catch (ClassCastException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Некорректное значение поля: " + key);
             }
         });
 
-        return trainRepository.save(train);
+        trainValidator.validate(train);
+
+        return update(train, existingTrain.getVersion());
+    }
+
+    /**
+     * Записывает поезд условным UPDATE и публикует событие изменения.
+     * Если строка не обновлена, причина выясняется дополнительными запросами — только на пути ошибки.
+     */
+    private Train update(Train train, long expectedVersion) {
+        List<Object[]> rows = trainRepository.updateIfCurrent(train, expectedVersion);
+        if (rows.isEmpty()) {
+            if (!trainRepository.existsById(train.getId())) {
+                throw new IllegalArgumentException("Поезд не найден");
+            }
+            if (trainRepository.existsByNumberAndIdNot(train.getNumber(), train.getId())) {
+                throw new IllegalArgumentException("Поезд с таким номером уже существует");
+            }
+            throw conflict();
+        }
+
+        Object[] row = rows.get(0);
+        Train before = TrainRows.toTrain(row);
+
+        Train updatedTrain = new Train(train);
+        updatedTrain.setVersion(TrainRows.toLong(row[TrainRows.COLUMNS]));
+        updatedTrain.setChangeSeq(TrainRows.toLong(row[TrainRows.COLUMNS + 1]));
+        eventPublisher.publishEvent(TrainChangedEvent.updated(before, updatedTrain));
+        return updatedTrain;
+    }
+
+    private static OptimisticLockingFailureException conflict() {
+        return new OptimisticLockingFailureException(
+                "Поезд был изменён другим пользователем, обновите данные и повторите попытку");
+    }
+
+    private void applyField(Train train, String key, Object value) {
+        switch (key) {
+            case "number":
+                train.setNumber((String) value);
+                break;
+            case "fromCity":
+                train.setFromCity((String) value);
+                break;
+            case "toCity":
+                train.setToCity((String) value);
+                break;
+            case "departureStation":
+                train.setDepartureStation((String) value);
+                break;
+            case "arrivalStation":
+                train.setArrivalStation((String) value);
+                break;
+            case "departureDate":
+                train.setDepartureDate(LocalDate.parse((String) value));
+                break;
+            case "arrivalDate":
+                train.setArrivalDate(LocalDate.parse((String) value));
+                break;
+            case "departureTime":
+                train.setDepartureTime(LocalTime.parse((String) value));
+                break;
+            case "arrivalTime":
+                train.setArrivalTime(LocalTime.parse((String) value));
+                break;
+            default:
+                throw new IllegalArgumentException("Неизвестное поле: " + key);
+        }
     }
-}
\ No newline at end of file
+}
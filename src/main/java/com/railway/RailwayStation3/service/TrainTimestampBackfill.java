@@ -0,0 +1,56 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Заполняет моменты отправления и прибытия (departure_at, arrival_at) и время в пути
+ * у поездов, созданных до появления этих столбцов.
+ * <p>
+ * Новые и изменённые поезда получают значения при записи, поэтому заполнение нужно один раз
+ * после обновления схемы. Оно выполняется порциями в отдельных транзакциях, чтобы не блокировать
+ * всю таблицу надолго.
+ */
+@Component
+public class TrainTimestampBackfill {
+    private static final Logger log = LoggerFactory.getLogger(TrainTimestampBackfill.class);
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final TrainRepository trainRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public TrainTimestampBackfill(TrainRepository trainRepository, TransactionTemplate transactionTemplate) {
+        this.trainRepository = trainRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Заполняет недостающие значения после старта приложения.
+     * Выполняется раньше остальных загрузчиков, которые читают поезда по этим столбцам
+     * (например, {@code DepartureBoardLoader}): иначе при первом запуске после обновления схемы
+     * они увидели бы пустые значения.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void fillMissingTimestamps() {
+        if (trainRepository.countWithoutTimestamps() == 0) {
+            return;
+        }
+        long filled = 0;
+        int updated;
+        do {
+            Integer batch = transactionTemplate.execute(status -> trainRepository.fillTimestamps(BATCH_SIZE));
+            updated = (batch == null) ? 0 : batch;
+            filled += updated;
+        } while (updated == BATCH_SIZE);
+        log.info("Заполнены моменты отправления и прибытия поездов: {}", filled);
+    }
+}
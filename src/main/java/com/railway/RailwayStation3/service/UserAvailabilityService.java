@@ -0,0 +1,219 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.index.BloomFilter;
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Быстрая проверка занятости логина и email при вводе на странице регистрации.
+ * <p>
+ * Логины и email всех пользователей хранятся в фильтрах Блума. Если фильтр отвечает «нет»,
+ * значение свободно и база не запрашивается; только при ответе «возможно» выполняется
+ * запрос existsBy*. Фильтры строятся при запуске и пополняются при регистрации; пользователи,
+ * зарегистрированные во время построения, запоминаются и добавляются в новые фильтры перед заменой.
+ * Значения приводятся к нижнему регистру: это может лишь добавить ответов «возможно», но не пропустить занятое.
+ */
+@Service
+public class UserAvailabilityService {
+
+    private static final Logger log = LoggerFactory.getLogger(UserAvailabilityService.class);
+
+    private static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+    private static final long MIN_CAPACITY = 10_000;
+
+    /**
+     * Проверяемое поле.
+     */
+    public enum Field {
+        USERNAME, EMAIL;
+
+        public static Field of(String name) {
+            for (Field field : values()) {
+                if (field.name().equalsIgnoreCase(name)) {
+                    return field;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестное поле: " + name);
+        }
+    }
+
+    /**
+     * Показатели работы фильтров.
+     *
+     * @param checks всего проверок
+     * @param answeredByFilter ответов «свободно» без обращения к базе
+     * @param databaseChecks подтверждений запросом к базе
+     * @param falsePositives ложных срабатываний фильтра (база ответила «свободно»)
+     * @param expectedFalsePositivePercent теоретическая доля ложных срабатываний, %
+     */
+    public record Stats(long checks, long answeredByFilter, long databaseChecks, long falsePositives,
+                        double expectedFalsePositivePercent) {
+
+        /**
+         * @return наблюдаемая доля ложных срабатываний среди свободных значений, %
+         */
+        public double observedFalsePositivePercent() {
+            long free = answeredByFilter + falsePositives;
+            return (free == 0) ? 0.0 : falsePositives * 100.0 / free;
+        }
+    }
+
+    /**
+     * Пара фильтров; заменяется целиком при перестроении.
+     */
+    private record Filters(BloomFilter usernames, BloomFilter emails) {
+    }
+
+    /**
+     * Логин и email пользователя, зарегистрированного во время перестроения.
+     */
+    private record Registration(String username, String email) {
+    }
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile Filters filters;
+
+    private final Object rebuildLock = new Object();
+    // Изменяется только под блокировкой rebuildLock; не null, пока идёт перестроение
+    private List<Registration> registeredDuringRebuild;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder answeredByFilter = new LongAdder();
+    private final LongAdder databaseChecks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public UserAvailabilityService(UserRepository userRepository, TransactionTemplate transactionTemplate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    /**
+     * Строит фильтры по всем пользователям. Вызывается при запуске и при переполнении фильтров.
+     * Если перестроение уже идёт, повторное не запускается: регистрации попадут в текущее.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            if (registeredDuringRebuild != null) {
+                return;
+            }
+            registeredDuringRebuild = new ArrayList<>();
+        }
+        try {
+            long capacity = Math.max(MIN_CAPACITY, userRepository.count() * 2);
+            BloomFilter usernames = new BloomFilter(capacity, FALSE_POSITIVE_PROBABILITY);
+            BloomFilter emails = new BloomFilter(capacity, FALSE_POSITIVE_PROBABILITY);
+            // Потоковое чтение требует открытой транзакции; метод вызывается и изнутри сервиса
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Object[]> rows = userRepository.streamUsernamesAndEmails()) {
+                    rows.forEach(row -> {
+                        putIfPresent(usernames, (String) row[0]);
+                        putIfPresent(emails, (String) row[1]);
+                    });
+                }
+            });
+            synchronized (rebuildLock) {
+                // Пользователи, зарегистрированные во время чтения, могли в него не попасть
+                for (Registration registration : registeredDuringRebuild) {
+                    putIfPresent(usernames, registration.username());
+                    putIfPresent(emails, registration.email());
+                }
+                filters = new Filters(usernames, emails);
+            }
+            log.info("Фильтры занятости построены: {} пользователей, ёмкость {}", usernames.insertions(), capacity);
+        } finally {
+            synchronized (rebuildLock) {
+                registeredDuringRebuild = null;
+            }
+        }
+    }
+
+    /**
+     * Проверяет, свободно ли значение.
+     *
+     * @param field поле
+     * @param value проверяемое значение
+     * @return true, если значение свободно
+     */
+    public boolean isAvailable(Field field, String value) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Значение не может быть пустым");
+        }
+        checks.increment();
+        Filters current = filters;
+        if (current != null && !filterFor(current, field).mightContain(normalize(value))) {
+            answeredByFilter.increment();
+            return true;
+        }
+
+        databaseChecks.increment();
+        Predicate<String> exists = (field == Field.USERNAME)
+                ? userRepository::existsByUsername
+                : userRepository::existsByEmail;
+        boolean taken = exists.test(value);
+        if (!taken && current != null) {
+            falsePositives.increment();
+        }
+        return !taken;
+    }
+
+    /**
+     * Добавляет в фильтры только что зарегистрированного пользователя.
+     *
+     * @param user сохранённый пользователь
+     */
+    public void onUserRegistered(User user) {
+        Filters current;
+        synchronized (rebuildLock) {
+            if (registeredDuringRebuild != null) {
+                registeredDuringRebuild.add(new Registration(user.getUsername(), user.getEmail()));
+            }
+            current = filters;
+        }
+        if (current == null) {
+            return;
+        }
+        putIfPresent(current.usernames(), user.getUsername());
+        putIfPresent(current.emails(), user.getEmail());
+        if (current.usernames().insertions() > current.usernames().capacity()) {
+            rebuild();
+        }
+    }
+
+    public Stats getStats() {
+        Filters current = filters;
+        double expected = (current == null) ? 0.0
+                : Math.max(current.usernames().expectedFalsePositiveProbability(),
+                current.emails().expectedFalsePositiveProbability()) * 100.0;
+        return new Stats(checks.sum(), answeredByFilter.sum(), databaseChecks.sum(), falsePositives.sum(), expected);
+    }
+
+    private static BloomFilter filterFor(Filters filters, Field field) {
+        return (field == Field.USERNAME) ? filters.usernames() : filters.emails();
+    }
+
+    private static void putIfPresent(BloomFilter filter, String value) {
+        if (value != null) {
+            filter.put(normalize(value));
+        }
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+}
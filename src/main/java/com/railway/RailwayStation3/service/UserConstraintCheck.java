@@ -0,0 +1,42 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.repository.UserRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Проверяет при старте, что в базе есть ограничения уникальности логина, email и телефона.
+ * <p>
+ * Регистрация не проверяет занятость отдельными запросами и полагается только на эти ограничения.
+ * Их создаёт {@code ddl-auto=update}, но если в таблице уже есть дубликаты, Hibernate лишь пишет
+ * предупреждение в лог и продолжает работу без ограничения. Тогда приложение не запускается,
+ * пока дубликаты не будут устранены. Проверка выполняется до запуска веб-сервера, поэтому ни одна
+ * регистрация не проходит без ограничений.
+ */
+@Component
+public class UserConstraintCheck implements SmartInitializingSingleton {
+
+    private static final List<String> REQUIRED = List.of(User.UK_USERNAME, User.UK_EMAIL, User.UK_PHONE);
+
+    private final UserRepository userRepository;
+
+    public UserConstraintCheck(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        Set<String> present = new HashSet<>(userRepository.findUniqueConstraintNames());
+        List<String> missing = REQUIRED.stream().filter(name -> !present.contains(name)).toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("В таблице users нет ограничений уникальности " + missing
+                    + ": вероятно, в ней есть повторяющиеся логины, email или телефоны. "
+                    + "Устраните дубликаты и перезапустите приложение");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.railway.RailwayStation3.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Создаёт индексы для поиска пользователей по началу логина, email и телефона в панели администратора.
+ * <p>
+ * Поиск сравнивает значения по правилу ucs_basic (порядок кодов символов), а индексы ограничений
+ * уникальности построены по правилу сравнения базы и такому поиску не подходят. Индекс с правилом
+ * сравнения нельзя описать аннотациями JPA, поэтому он создаётся при старте, если его ещё нет.
+ */
+@Component
+public class UserSearchIndexes {
+
+    private static final List<String> STATEMENTS = List.of(
+            "CREATE INDEX IF NOT EXISTS idx_users_username_ucs ON users (username COLLATE ucs_basic)",
+            "CREATE INDEX IF NOT EXISTS idx_users_email_ucs ON users (email COLLATE ucs_basic)",
+            "CREATE INDEX IF NOT EXISTS idx_users_phone_ucs ON users (phone COLLATE ucs_basic)");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public UserSearchIndexes(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Создаёт недостающие индексы после старта приложения.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void createMissingIndexes() {
+        STATEMENTS.forEach(jdbcTemplate::execute);
+    }
+}
@@ -1,30 +1,64 @@
 package com.railway.RailwayStation3.service;
 
+import com.railway.RailwayStation3.dto.UserPage;
+import com.railway.RailwayStation3.dto.UserSummary;
 import com.railway.RailwayStation3.model.User;
 import com.railway.RailwayStation3.repository.UserRepository;
+import com.railway.RailwayStation3.validation.UserValidator;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.authentication.AuthenticationServiceException;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
 
 /**
  * Сервис для работы с пользователями.
  * Содержит логику регистрации, аутентификации и управления ролями.
+ * Реализует {@link UserDetailsPasswordService}, чтобы при успешном входе хеши со старой стоимостью BCrypt
+ * прозрачно пересчитывались.
  */
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    /**
+     * Сообщения об ошибках для ограничений уникальности таблицы users.
+     */
+    private static final Map<String, String> UNIQUE_CONSTRAINT_MESSAGES = new LinkedHashMap<>();
+
+    static {
+        UNIQUE_CONSTRAINT_MESSAGES.put(User.UK_USERNAME, "Логин уже занят");
+        UNIQUE_CONSTRAINT_MESSAGES.put(User.UK_EMAIL, "Email уже используется");
+        UNIQUE_CONSTRAINT_MESSAGES.put(User.UK_PHONE, "Телефон уже используется");
+    }
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserValidator userValidator;
+    private final UserAvailabilityService userAvailabilityService;
 
     public UserService(UserRepository userRepository,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       UserValidator userValidator,
+                       UserAvailabilityService userAvailabilityService) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.userValidator = userValidator;
+        this.userAvailabilityService = userAvailabilityService;
     }
 
     /**
@@ -43,51 +77,68 @@ public class UserService implements UserDetailsService {
 
     /**
      * Регистрирует нового пользователя после проверки данных.
-     * Проверяет уникальность: имя пользователя, email, телефон.
+     * Уникальность имени пользователя, email и телефона обеспечивают ограничения базы данных:
+     * выполняется одна вставка, а нарушение ограничения превращается в сообщение об ошибке.
      * Также шифрует пароль перед сохранением.
      *
      * @param user данные нового пользователя
      */
     public void registerUser(User user) {
-        if (userRepository.existsByUsername(user.getUsername())) {
-            throw new IllegalArgumentException("Логин уже занят");
-        }
-
-        if (user.getEmail() == null || user.getEmail().trim().isEmpty()) {
-            throw new IllegalArgumentException("Email не может быть пустым");
-        }
-
-        if (!user.getEmail().matches("^[\\w-.]+@([\\w-]+\\.)+[\\w-]{2,4}$")) {
-            throw new IllegalArgumentException("Некорректный формат email");
-        }
+        userValidator.validate(user);
 
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new IllegalArgumentException("Email уже используется");
+        try {
+            user.setPassword(passwordEncoder.encode(user.getPassword()));
+        } catch (AuthenticationServiceException e) {
+            throw new IllegalArgumentException("Сервис перегружен, повторите попытку позже");
         }
 
-        if (user.getPhone() == null || !user.getPhone().matches("\\d{10}")) {
-            throw new IllegalArgumentException("Номер телефона должен содержать ровно 10 цифр без дополнительных символов");
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            user.setId(null);
+            throw new IllegalArgumentException(uniqueViolationMessage(e));
         }
+        userAvailabilityService.onUserRegistered(user);
+    }
 
-        if (userRepository.existsByPhone(user.getPhone())) {
-            throw new IllegalArgumentException("Телефон уже используется");
+    /**
+     * Проверяет логин и пароль для выдачи токена API.
+     * Как и при входе через форму, хеш со старой стоимостью пересчитывается.
+     *
+     * @param username логин
+     * @param password пароль
+     * @return аутентифицированный пользователь
+     */
+    public User authenticate(String username, String password) {
+        if (username == null || password == null) {
+            throw new IllegalArgumentException("Неверный логин или пароль");
         }
-
-        if (user.getPassword() == null || user.getPassword().trim().isEmpty()) {
-            throw new IllegalArgumentException("Пароль не может быть пустым");
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new IllegalArgumentException("Неверный логин или пароль"));
+        if (!passwordEncoder.matches(password, user.getPassword())) {
+            throw new IllegalArgumentException("Неверный логин или пароль");
         }
-
-        if ((user.getPassword().length() > 20) || (user.getPassword().length() < 4)){
-            throw new IllegalArgumentException("Пароль должен составлять от 4 до 20 символов");
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            updatePassword(user, passwordEncoder.encode(password));
         }
+        return user;
+    }
 
-        if (user.getUsername() != null && user.getUsername().length() > 20) {
-            throw new IllegalArgumentException("Логин может составлять максимум 20 символов");
-        }
-
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-
-        userRepository.save(user);
+    /**
+     * Сохраняет пересчитанный хеш пароля после успешного входа.
+     * Вызывается Spring Security, когда {@link PasswordEncoder#upgradeEncoding(String)} возвращает true.
+     *
+     * @param user аутентифицированный пользователь
+     * @param newPassword новый хеш пароля
+     * @return пользователь с обновлённым паролем
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User stored = userRepository.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Пользователь '" + user.getUsername() + "' не найден"));
+        stored.setPassword(newPassword);
+        return userRepository.save(stored);
     }
 
     /**
@@ -109,6 +160,66 @@ public class UserService implements UserDetailsService {
         return userRepository.findAll();
     }
 
+    /**
+     * Возвращает страницу пользователей для панели администратора.
+     * Без поискового запроса пользователи выводятся по ID; с запросом — ищутся по началу
+     * логина, email или телефона и упорядочиваются по этому полю.
+     *
+     * @param query начало логина, email или телефона (необязательно)
+     * @param field поле поиска: username (по умолчанию), email или phone
+     * @param cursor курсор страницы (для первой страницы не указывается)
+     * @param size размер страницы
+     * @return страница пользователей
+     */
+    public UserPage findUserPage(String query, String field, String cursor, Integer size) {
+        int pageSize = (size == null) ? DEFAULT_PAGE_SIZE : size;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        String after = UserPage.decodeCursor(cursor);
+        // Запрашиваем на одну строку больше, чтобы узнать, есть ли следующая страница
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<UserSummary> rows;
+        Function<UserSummary, String> key;
+        String prefix = (query == null) ? "" : query.trim();
+        if (prefix.isEmpty()) {
+            long afterId;
+            try {
+                afterId = (after == null) ? 0L : Long.parseLong(after);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Некорректный курсор страницы");
+            }
+            rows = userRepository.findSummariesAfter(afterId, limit);
+            key = summary -> summary.id().toString();
+        } else {
+            // Граница верна только в порядке кодов символов, поэтому запросы сравнивают по ucs_basic
+            String upper = prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+            String afterKey = (after == null) ? "" : after;
+            switch ((field == null || field.isBlank()) ? "username" : field) {
+                case "username" -> {
+                    rows = userRepository.searchByUsernamePrefix(prefix, upper, afterKey, limit);
+                    key = UserSummary::username;
+                }
+                case "email" -> {
+                    rows = userRepository.searchByEmailPrefix(prefix, upper, afterKey, limit);
+                    key = UserSummary::email;
+                }
+                case "phone" -> {
+                    rows = userRepository.searchByPhonePrefix(prefix, upper, afterKey, limit);
+                    key = UserSummary::phone;
+                }
+                default -> throw new IllegalArgumentException("Неизвестное поле поиска: " + field);
+            }
+        }
+
+        if (rows.size() <= pageSize) {
+            return new UserPage(rows, null);
+        }
+        List<UserSummary> items = rows.subList(0, pageSize);
+        return new UserPage(items, UserPage.encodeCursor(key.apply(items.get(pageSize - 1))));
+    }
+
     /**
      * Обновляет роль указанного пользователя.
      * Администратор не может изменить свою собственную роль.
@@ -132,4 +243,24 @@ public class UserService implements UserDetailsService {
         user.setRole(newRole);
         userRepository.save(user);
     }
-}
\ No newline at end of file
+
+    /**
+     * Определяет, какое ограничение уникальности нарушено при вставке пользователя.
+     *
+     * @param e исключение вставки
+     * @return сообщение об ошибке для пользователя
+     */
+    private static String uniqueViolationMessage(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation && violation.getConstraintName() != null) {
+                String constraint = violation.getConstraintName().toLowerCase(Locale.ROOT);
+                for (Map.Entry<String, String> entry : UNIQUE_CONSTRAINT_MESSAGES.entrySet()) {
+                    if (constraint.contains(entry.getKey())) {
+                        return entry.getValue();
+                    }
+                }
+            }
+        }
+        return "Пользователь с такими данными уже существует";
+    }
+}
@@ -0,0 +1,69 @@
+package com.railway.RailwayStation3.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Упорядоченный набор правил проверки объекта.
+ * Правила проверяются по порядку; первое нарушенное правило прерывает проверку
+ * с {@link IllegalArgumentException} и его сообщением. Успешная проверка не создаёт объектов.
+ *
+ * @param <T> тип проверяемого объекта
+ */
+public final class RuleSet<T> {
+
+    // Неизменяемые списки с доступом по индексу: проверка обходит их без итератора
+    private final List<Predicate<? super T>> checks;
+    private final List<String> messages;
+
+    private RuleSet(List<Predicate<? super T>> checks, List<String> messages) {
+        this.checks = List.copyOf(checks);
+        this.messages = List.copyOf(messages);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Проверяет объект по всем правилам.
+     *
+     * @param target проверяемый объект
+     * @throws IllegalArgumentException с сообщением первого нарушенного правила
+     */
+    public void validate(T target) {
+        for (int i = 0; i < checks.size(); i++) {
+            if (!checks.get(i).test(target)) {
+                throw new IllegalArgumentException(messages.get(i));
+            }
+        }
+    }
+
+    /**
+     * Построитель набора правил.
+     *
+     * @param <T> тип проверяемого объекта
+     */
+    public static final class Builder<T> {
+        private final List<Predicate<? super T>> checks = new ArrayList<>();
+        private final List<String> messages = new ArrayList<>();
+
+        /**
+         * Добавляет правило.
+         *
+         * @param check условие, которое должно выполняться
+         * @param message сообщение об ошибке при нарушении
+         * @return построитель
+         */
+        public Builder<T> rule(Predicate<? super T> check, String message) {
+            checks.add(check);
+            messages.add(message);
+            return this;
+        }
+
+        public RuleSet<T> build() {
+            return new RuleSet<>(checks, messages);
+        }
+    }
+}
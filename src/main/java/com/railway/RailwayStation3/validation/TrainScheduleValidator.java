@@ -0,0 +1,54 @@
+package com.railway.RailwayStation3.validation;
+
+import com.railway.RailwayStation3.model.TrainSchedule;
+import org.springframework.stereotype.Component;
+
+/**
+ * Правила проверки регулярного расписания поезда.
+ * Уникальность номера проверяется отдельно, так как требует обращения к базе.
+ */
+@Component
+public class TrainScheduleValidator {
+
+    /**
+     * Максимальное число суток в пути.
+     */
+    public static final int MAX_DAYS_EN_ROUTE = 7;
+
+    private static final RuleSet<TrainSchedule> RULES = RuleSet.<TrainSchedule>builder()
+            .rule(s -> ValidationRules.isAlphanumeric(s.getNumber(), 2, 10),
+                    "Номер поезда должен содержать 2-10 английских букв или цифр")
+            .rule(s -> ValidationRules.isPlaceName(s.getFromCity(), 2, 30),
+                    "Город отправления должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(s -> ValidationRules.isPlaceName(s.getToCity(), 2, 30),
+                    "Город прибытия должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(s -> ValidationRules.isPlaceName(s.getDepartureStation(), 2, 30),
+                    "Вокзал отправления должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(s -> ValidationRules.isPlaceName(s.getArrivalStation(), 2, 30),
+                    "Вокзал прибытия должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(s -> !s.getFromCity().equalsIgnoreCase(s.getToCity()),
+                    "Города отправления и прибытия не могут совпадать")
+            .rule(s -> s.getDepartureTime() != null && s.getArrivalTime() != null,
+                    "Время отправления и прибытия должно быть указано")
+            .rule(s -> s.getArrivalDayOffset() >= 0 && s.getArrivalDayOffset() <= MAX_DAYS_EN_ROUTE,
+                    "Поезд может быть в пути от 0 до " + MAX_DAYS_EN_ROUTE + " суток")
+            .rule(s -> s.getArrivalDayOffset() > 0 || !s.getArrivalTime().isBefore(s.getDepartureTime()),
+                    "Время прибытия не может быть раньше времени отправления")
+            .rule(s -> !s.getDaysOfWeek().isEmpty(),
+                    "Нужно указать хотя бы один день недели")
+            .rule(s -> s.getValidFrom() != null && s.getValidTo() != null,
+                    "Период действия расписания должен быть указан")
+            .rule(s -> !s.getValidTo().isBefore(s.getValidFrom()),
+                    "Дата окончания действия не может быть раньше даты начала")
+            .build();
+
+    /**
+     * Проверяет данные расписания.
+     *
+     * @param schedule расписание
+     * @throws IllegalArgumentException с описанием первой найденной ошибки
+     */
+    public void validate(TrainSchedule schedule) {
+        RULES.validate(schedule);
+    }
+}
@@ -0,0 +1,50 @@
+package com.railway.RailwayStation3.validation;
+
+import com.railway.RailwayStation3.model.Train;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Единые правила проверки поезда для создания, полного и частичного обновления.
+ * Уникальность номера проверяется отдельно, так как требует обращения к базе.
+ */
+@Component
+public class TrainValidator {
+
+    private static final RuleSet<Train> RULES = RuleSet.<Train>builder()
+            .rule(t -> ValidationRules.isAlphanumeric(t.getNumber(), 2, 10),
+                    "Номер поезда должен содержать 2-10 английских букв или цифр")
+            .rule(t -> ValidationRules.isPlaceName(t.getFromCity(), 2, 30),
+                    "Город отправления должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(t -> ValidationRules.isPlaceName(t.getToCity(), 2, 30),
+                    "Город прибытия должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(t -> ValidationRules.isPlaceName(t.getDepartureStation(), 2, 30),
+                    "Вокзал отправления должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(t -> ValidationRules.isPlaceName(t.getArrivalStation(), 2, 30),
+                    "Вокзал прибытия должен содержать от 2 до 30 символов и не должен содержать цифр")
+            .rule(t -> !t.getFromCity().equalsIgnoreCase(t.getToCity()),
+                    "Города отправления и прибытия не могут совпадать")
+            .rule(t -> t.getDepartureDate() != null && t.getArrivalDate() != null,
+                    "Даты отправления и прибытия должны быть указаны")
+            .rule(t -> t.getDepartureTime() != null && t.getArrivalTime() != null,
+                    "Время отправления и прибытия должно быть указано")
+            .rule(t -> !t.getDepartureDate().isBefore(LocalDate.now()),
+                    "Дата отправления не может быть в прошлом")
+            .rule(t -> !t.getArrivalDate().isBefore(t.getDepartureDate()),
+                    "Дата прибытия не может быть раньше даты отправления")
+            .rule(t -> !t.getDepartureDate().equals(t.getArrivalDate())
+                            || !t.getArrivalTime().isBefore(t.getDepartureTime()),
+                    "Время прибытия не может быть раньше времени отправления")
+            .build();
+
+    /**
+     * Проверяет данные поезда.
+     *
+     * @param train поезд
+     * @throws IllegalArgumentException с описанием первой найденной ошибки
+     */
+    public void validate(Train train) {
+        RULES.validate(train);
+    }
+}
@@ -0,0 +1,39 @@
+package com.railway.RailwayStation3.validation;
+
+import com.railway.RailwayStation3.model.User;
+import org.springframework.stereotype.Component;
+
+/**
+ * Правила проверки данных пользователя при регистрации.
+ * Уникальность логина, email и телефона проверяется отдельно.
+ */
+@Component
+public class UserValidator {
+
+    private static final RuleSet<User> RULES = RuleSet.<User>builder()
+            .rule(u -> !ValidationRules.isBlank(u.getUsername()),
+                    "Логин не может быть пустым")
+            .rule(u -> u.getUsername().length() <= 20,
+                    "Логин может составлять максимум 20 символов")
+            .rule(u -> !ValidationRules.isBlank(u.getEmail()),
+                    "Email не может быть пустым")
+            .rule(u -> ValidationRules.isEmail(u.getEmail()),
+                    "Некорректный формат email")
+            .rule(u -> ValidationRules.isDigits(u.getPhone(), 10),
+                    "Номер телефона должен содержать ровно 10 цифр без дополнительных символов")
+            .rule(u -> !ValidationRules.isBlank(u.getPassword()),
+                    "Пароль не может быть пустым")
+            .rule(u -> u.getPassword().length() >= 4 && u.getPassword().length() <= 20,
+                    "Пароль должен составлять от 4 до 20 символов")
+            .build();
+
+    /**
+     * Проверяет данные регистрации.
+     *
+     * @param user пользователь
+     * @throws IllegalArgumentException с описанием первой найденной ошибки
+     */
+    public void validate(User user) {
+        RULES.validate(user);
+    }
+}
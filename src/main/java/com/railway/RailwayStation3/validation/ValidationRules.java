@@ -0,0 +1,132 @@
+package com.railway.RailwayStation3.validation;
+
+/**
+ * Базовые проверки строк без регулярных выражений.
+ * Каждая проверка эквивалентна прежнему регулярному выражению, но выполняется
+ * одним проходом по символам и не создаёт объектов.
+ */
+public final class ValidationRules {
+
+    private ValidationRules() {
+    }
+
+    /**
+     * Аналог {@code ^[a-zA-Z0-9]{min,max}$}.
+     */
+    public static boolean isAlphanumeric(String s, int min, int max) {
+        if (s == null || s.length() < min || s.length() > max) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (!isAsciiLetter(c) && !isAsciiDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Название города или вокзала: не пустое, от min до max символов,
+     * аналог {@code [а-яА-ЯёЁa-zA-Z\s\-]+}.
+     */
+    public static boolean isPlaceName(String s, int min, int max) {
+        if (s == null || s.length() < min || s.length() > max || isBlank(s)) {
+            return false;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            boolean allowed = isAsciiLetter(c)
+                    || (c >= 'а' && c <= 'я') || (c >= 'А' && c <= 'Я') || c == 'ё' || c == 'Ё'
+                    || isRegexWhitespace(c) || c == '-';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Аналог {@code \d{count}}.
+     */
+    public static boolean isDigits(String s, int count) {
+        if (s == null || s.length() != count) {
+            return false;
+        }
+        for (int i = 0; i < count; i++) {
+            if (!isAsciiDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Аналог {@code ^[\w-.]+@([\w-]+\.)+[\w-]{2,4}$}: непустая локальная часть,
+     * домен минимум из двух непустых меток, последняя метка из 2-4 символов.
+     */
+    public static boolean isEmail(String s) {
+        if (s == null) {
+            return false;
+        }
+        int at = s.indexOf('@');
+        if (at <= 0 || at != s.lastIndexOf('@')) {
+            return false;
+        }
+        for (int i = 0; i < at; i++) {
+            char c = s.charAt(i);
+            if (!isWordChar(c) && c != '-' && c != '.') {
+                return false;
+            }
+        }
+
+        int labels = 0;
+        int labelStart = at + 1;
+        for (int i = labelStart; i <= s.length(); i++) {
+            if (i == s.length() || s.charAt(i) == '.') {
+                if (i == labelStart) {
+                    return false;
+                }
+                labels++;
+                if (i == s.length() && (i - labelStart < 2 || i - labelStart > 4)) {
+                    return false;
+                }
+                labelStart = i + 1;
+            } else if (!isWordChar(s.charAt(i)) && s.charAt(i) != '-') {
+                return false;
+            }
+        }
+        return labels >= 2;
+    }
+
+    /**
+     * Строка пустая или состоит только из пробельных символов (как {@code s.trim().isEmpty()}).
+     */
+    public static boolean isBlank(String s) {
+        if (s == null) {
+            return true;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '_';
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
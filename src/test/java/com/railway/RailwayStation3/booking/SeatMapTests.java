@@ -0,0 +1,157 @@
+package com.railway.RailwayStation3.booking;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет карту мест при одновременных бронированиях и отменах. В вагоне 70 мест, поэтому
+ * в последнем слове вагона заняты только 6 бит, а остальные помечены занятыми заранее:
+ * они не должны ни выдаваться, ни освобождаться, ни попадать в число свободных мест.
+ */
+class SeatMapTests {
+
+	private static final int THREADS = 8;
+	private static final int CARS = 3;
+	private static final int SEATS_PER_CAR = 70;
+	private static final int SEATS = CARS * SEATS_PER_CAR;
+
+	@Test
+	void concurrentClaimsFillTrainWithoutMaskedSeats() throws Exception {
+		SeatMap map = newMap();
+
+		List<Integer> claimed = new ArrayList<>();
+		for (List<Integer> positions : runConcurrently(() -> {
+			List<Integer> own = new ArrayList<>();
+			int position;
+			while ((position = map.claimAny()) >= 0) {
+				own.add(position);
+			}
+			return own;
+		})) {
+			claimed.addAll(positions);
+		}
+
+		assertThat(claimed).hasSize(SEATS).doesNotHaveDuplicates()
+				.allMatch(position -> position >= 0 && position < SEATS);
+		assertThat(map.getFree()).isZero();
+		assertThat(map.freeByCar()).containsExactly(0, 0, 0);
+		assertThat(map.claimInCar(CARS)).isEqualTo(-1);
+	}
+
+	@Test
+	void sameSeatIsClaimedOnce() throws Exception {
+		SeatMap map = newMap();
+
+		List<Integer> outcomes = runConcurrently(() -> map.claim(2, SEATS_PER_CAR));
+
+		assertThat(outcomes).filteredOn(position -> position >= 0).hasSize(1);
+		assertThat(map.freeByCar()).containsExactly(SEATS_PER_CAR, SEATS_PER_CAR - 1, SEATS_PER_CAR);
+	}
+
+	@Test
+	void concurrentClaimsAndReleasesKeepFreeCountsConsistent() throws Exception {
+		SeatMap map = newMap();
+
+		// Каждый поток освобождает только свои места, поэтому итог можно сверить с удерживаемыми
+		List<Integer> held = new ArrayList<>();
+		for (List<Integer> positions : runConcurrently(() -> {
+			ThreadLocalRandom random = ThreadLocalRandom.current();
+			List<Integer> own = new ArrayList<>();
+			for (int i = 0; i < 20_000; i++) {
+				if (!own.isEmpty() && random.nextInt(3) == 0) {
+					map.release(own.remove(random.nextInt(own.size())));
+					continue;
+				}
+				int position = switch (random.nextInt(3)) {
+					case 0 -> map.claimAny();
+					case 1 -> map.claimInCar(random.nextInt(CARS) + 1);
+					default -> map.claim(random.nextInt(CARS) + 1, random.nextInt(SEATS_PER_CAR) + 1);
+				};
+				if (position >= 0) {
+					own.add(position);
+				}
+			}
+			return own;
+		})) {
+			held.addAll(positions);
+		}
+
+		assertThat(held).doesNotHaveDuplicates().allMatch(position -> position >= 0 && position < SEATS);
+		assertThat(map.getFree()).isEqualTo(SEATS - held.size());
+		int[] expectedFree = new int[CARS];
+		for (int car = 1; car <= CARS; car++) {
+			int inCar = car;
+			expectedFree[car - 1] = SEATS_PER_CAR - (int) held.stream().filter(p -> map.carOf(p) == inCar).count();
+		}
+		assertThat(map.freeByCar()).containsExactly(expectedFree[0], expectedFree[1], expectedFree[2]);
+
+		held.forEach(map::release);
+		assertThat(map.getFree()).isEqualTo(SEATS);
+		assertThat(map.freeByCar()).containsExactly(SEATS_PER_CAR, SEATS_PER_CAR, SEATS_PER_CAR);
+	}
+
+	@Test
+	void pauseWaitsForStartedClaimsAndRejectsNewOnes() throws Exception {
+		SeatMap map = newMap();
+		assertThat(map.beginClaim()).isTrue();
+
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> paused = pool.submit(() -> map.pause(10_000));
+			// Новые бронирования отклоняются, как только приостановка началась
+			while (map.beginClaim()) {
+				map.endClaim();
+				Thread.onSpinWait();
+			}
+			assertThat(paused.isDone()).isFalse();
+
+			map.endClaim();
+			assertThat(paused.get()).isTrue();
+			assertThat(map.beginClaim()).isFalse();
+
+			map.resume();
+			assertThat(map.beginClaim()).isTrue();
+			assertThat(map.pause(50)).isFalse();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static SeatMap newMap() {
+		return new SeatMap(1L, CARS, SEATS_PER_CAR, LocalDateTime.now().plusDays(1));
+	}
+
+	private static <T> List<T> runConcurrently(Callable<T> task) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<T>> futures = new ArrayList<>();
+			for (int i = 0; i < THREADS; i++) {
+				futures.add(pool.submit(() -> {
+					start.await();
+					return task.call();
+				}));
+			}
+			start.countDown();
+
+			List<T> results = new ArrayList<>();
+			for (Future<T> future : futures) {
+				results.add(future.get());
+			}
+			return results;
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+}
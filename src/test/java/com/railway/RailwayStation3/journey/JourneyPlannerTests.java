@@ -0,0 +1,145 @@
+package com.railway.RailwayStation3.journey;
+
+import com.railway.RailwayStation3.dto.Journey;
+import com.railway.RailwayStation3.dto.JourneyLeg;
+import com.railway.RailwayStation3.event.TrainChangedEvent;
+import com.railway.RailwayStation3.event.TrainsArchivedEvent;
+import com.railway.RailwayStation3.model.Train;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнивает планировщик маршрутов с полным перебором на случайных небольших сетях.
+ * Перебор для каждого числа поездов находит самое раннее прибытие; планировщик должен вернуть
+ * маршрут ровно для тех чисел поездов, на которых прибытие улучшается, с тем же временем
+ * и с соблюдением времени пересадок. Сеть собирается частично загрузкой, а частично событиями
+ * изменения и переноса в архив, поэтому проверяются и инкрементальные снимки.
+ */
+class JourneyPlannerTests {
+
+	private static final long MIN_TRANSFER = 15;
+	private static final long STATION_CHANGE = 60;
+	private static final int MAX_TRANSFERS = 3;
+	private static final int CITIES = 6;
+	private static final int TRAINS = 40;
+	private static final LocalDateTime EPOCH = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+	@Test
+	void matchesBruteForceOnRandomNetworks() {
+		Random random = new Random(20_260_101L);
+		for (int trial = 0; trial < 300; trial++) {
+			List<Train> trains = randomTrains(random);
+			JourneyPlanner planner = new JourneyPlanner(MIN_TRANSFER, STATION_CHANGE, MAX_TRANSFERS, 10_000);
+
+			planner.finishLoad(trains.subList(0, TRAINS / 2).stream());
+			for (Train train : trains.subList(TRAINS / 2, TRAINS)) {
+				planner.onTrainChanged(TrainChangedEvent.created(train));
+			}
+			for (int i = 0; i < 5; i++) {
+				Train train = trains.get(random.nextInt(TRAINS));
+				planner.onTrainChanged(TrainChangedEvent.deleted(train));
+				planner.onTrainChanged(TrainChangedEvent.created(train));
+			}
+			List<Train> archived = new ArrayList<>();
+			for (int i = 0; i < 4; i++) {
+				archived.add(trains.remove(random.nextInt(trains.size())));
+			}
+			planner.onTrainsArchived(new TrainsArchivedEvent(archived));
+
+			LocalDateTime start = EPOCH.plusMinutes(random.nextInt(500));
+			List<Journey> journeys = planner.plan("C0", "C1", start, MAX_TRANSFERS, null);
+
+			// Маршрут ожидается для каждого числа поездов, улучшающего прибытие
+			List<Long> expectedArrivals = new ArrayList<>();
+			List<Integer> expectedLegs = new ArrayList<>();
+			long previous = Long.MAX_VALUE;
+			for (int legs = 1; legs <= MAX_TRANSFERS + 1; legs++) {
+				long best = earliestArrival(trains, "C0", null, start, true, "C1", legs);
+				if (best < previous) {
+					expectedArrivals.add(best);
+					expectedLegs.add(legs);
+					previous = best;
+				}
+			}
+
+			assertThat(journeys).as("попытка %d", trial).hasSize(expectedArrivals.size());
+			for (int i = 0; i < journeys.size(); i++) {
+				Journey journey = journeys.get(i);
+				assertThat(JourneyNetwork.toMinute(journey.arrival())).as("попытка %d", trial)
+						.isEqualTo(expectedArrivals.get(i));
+				assertThat(journey.legs().size()).isLessThanOrEqualTo(expectedLegs.get(i));
+				assertThat(journey.legs().get(0).fromCity()).isEqualTo("C0");
+				assertThat(journey.legs().get(journey.legs().size() - 1).toCity()).isEqualTo("C1");
+				assertThat(journey.legs().get(0).departure()).isAfterOrEqualTo(start);
+				for (int leg = 1; leg < journey.legs().size(); leg++) {
+					JourneyLeg arriving = journey.legs().get(leg - 1);
+					JourneyLeg departing = journey.legs().get(leg);
+					long transfer = arriving.arrivalStation().equals(departing.departureStation())
+							? MIN_TRANSFER : STATION_CHANGE;
+					assertThat(departing.fromCity()).isEqualTo(arriving.toCity());
+					assertThat(departing.departure()).isAfterOrEqualTo(arriving.arrival().plusMinutes(transfer));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Самое раннее прибытие в город назначения не более чем на {@code legs} поездах (в минутах от эпохи).
+	 */
+	private static long earliestArrival(List<Train> trains, String city, String station, LocalDateTime reached,
+										boolean origin, String target, int legs) {
+		long best = Long.MAX_VALUE;
+		if (legs == 0) {
+			return best;
+		}
+		for (Train train : trains) {
+			if (!train.getFromCity().equals(city)) {
+				continue;
+			}
+			LocalDateTime departure = LocalDateTime.of(train.getDepartureDate(), train.getDepartureTime());
+			long transfer = origin ? 0
+					: train.getDepartureStation().equals(station) ? MIN_TRANSFER : STATION_CHANGE;
+			if (reached.plusMinutes(transfer).isAfter(departure)) {
+				continue;
+			}
+			LocalDateTime arrival = LocalDateTime.of(train.getArrivalDate(), train.getArrivalTime());
+			if (train.getToCity().equals(target)) {
+				best = Math.min(best, JourneyNetwork.toMinute(arrival));
+			} else {
+				best = Math.min(best, earliestArrival(trains, train.getToCity(), train.getArrivalStation(),
+						arrival, false, target, legs - 1));
+			}
+		}
+		return best;
+	}
+
+	private static List<Train> randomTrains(Random random) {
+		List<Train> trains = new ArrayList<>();
+		for (int i = 0; i < TRAINS; i++) {
+			int from = random.nextInt(CITIES);
+			int to = (from + 1 + random.nextInt(CITIES - 1)) % CITIES;
+			LocalDateTime departure = EPOCH.plusMinutes(random.nextInt(2000));
+			LocalDateTime arrival = departure.plusMinutes(30 + random.nextInt(400));
+
+			Train train = new Train();
+			train.setId((long) i + 1);
+			train.setNumber("N" + i);
+			train.setFromCity("C" + from);
+			train.setToCity("C" + to);
+			train.setDepartureStation("S" + random.nextInt(2));
+			train.setArrivalStation("S" + random.nextInt(2));
+			train.setDepartureDate(departure.toLocalDate());
+			train.setDepartureTime(departure.toLocalTime());
+			train.setArrivalDate(arrival.toLocalDate());
+			train.setArrivalTime(arrival.toLocalTime());
+			trains.add(train);
+		}
+		return trains;
+	}
+}
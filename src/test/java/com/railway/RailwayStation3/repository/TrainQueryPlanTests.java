@@ -0,0 +1,207 @@
+package com.railway.RailwayStation3.repository;
+
+import com.railway.RailwayStation3.dto.TrainSearchCriteria;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет планы запросов, которые строит {@link TrainSpecifications}, и запросов по интервалу времени
+ * на реалистичном объёме данных: ни одна распространённая комбинация фильтров не должна приводить
+ * к последовательному чтению таблицы trains.
+ * Данные вставляются в транзакции теста и откатываются после него.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.railway.RailwayStation3.repository.TrainQueryPlanTests$CapturingStatementInspector")
+@Transactional
+class TrainQueryPlanTests {
+
+	private static final int ROWS = 200_000;
+	private static final LocalDate BASE_DATE = LocalDate.of(2030, 1, 1);
+
+	@Autowired
+	private TrainRepository trainRepository;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	@BeforeEach
+	void seed() {
+		jdbc.update("INSERT INTO trains (number, from_city, to_city, departure_station, arrival_station, "
+				+ "departure_date, departure_time, arrival_date, arrival_time, departure_at, arrival_at, "
+				+ "travel_minutes, version) "
+				+ "SELECT 'PLAN' || g, 'Город ' || (g % 300), 'Город ' || ((g * 7 + 1) % 300), "
+				+ "'Вокзал ' || (g % 60), 'Вокзал ' || ((g * 11) % 60), "
+				+ "DATE '2030-01-01' + (g % 730), TIME '00:00' + (g % 1440) * INTERVAL '1 minute', "
+				+ "DATE '2030-01-02' + (g % 730), TIME '00:00' + ((g * 3) % 1440) * INTERVAL '1 minute', "
+				+ "DATE '2030-01-01' + (g % 730) + (g % 1440) * INTERVAL '1 minute', "
+				+ "DATE '2030-01-02' + (g % 730) + ((g * 3) % 1440) * INTERVAL '1 minute', "
+				+ "1440 + ((g * 3) % 1440) - (g % 1440), 0 "
+				+ "FROM generate_series(1, " + ROWS + ") AS g");
+		jdbc.execute("ANALYZE trains");
+	}
+
+	@Test
+	void fromCityOnly() {
+		assertNoSequentialScan(criteria("Город 10", null, null, null, null, null, null, null));
+	}
+
+	@Test
+	void toCityWithDateRange() {
+		assertNoSequentialScan(criteria(null, "Город 71", null, null,
+				BASE_DATE.plusDays(10), BASE_DATE.plusDays(17), null, null));
+	}
+
+	@Test
+	void routeWithDateRange() {
+		assertNoSequentialScan(criteria("Город 10", "Город 71", null, null,
+				BASE_DATE.plusDays(10), BASE_DATE.plusDays(40), null, null));
+	}
+
+	@Test
+	void dateRangeWithTimeWindow() {
+		assertNoSequentialScan(criteria(null, null, null, null,
+				BASE_DATE.plusDays(100), BASE_DATE.plusDays(102), LocalTime.of(8, 0), LocalTime.of(9, 0)));
+	}
+
+	@Test
+	void departureStationWithDate() {
+		assertNoSequentialScan(criteria(null, null, "Вокзал 5", null,
+				BASE_DATE.plusDays(50), BASE_DATE.plusDays(50), null, null));
+	}
+
+	@Test
+	void arrivalStationWithDateRange() {
+		assertNoSequentialScan(criteria(null, null, null, "Вокзал 7",
+				BASE_DATE.plusDays(50), BASE_DATE.plusDays(52), null, null));
+	}
+
+	@Test
+	void departureWindowAcrossMidnight() {
+		LocalDateTime from = BASE_DATE.plusDays(100).atTime(18, 0);
+		LocalDateTime to = from.plusHours(12);
+		// Параметры в порядке появления в запросе: курсор (момент, ID), конец и начало интервала, лимит
+		assertNoSequentialScan(() -> trainRepository.findDeparturesBetween(from, to, from, 0, 51),
+				List.of(from, 0, to, from, 51));
+	}
+
+	@Test
+	void departuresFromCityWithCursor() {
+		LocalDateTime from = BASE_DATE.plusDays(100).atTime(18, 0);
+		LocalDateTime to = from.plusHours(12);
+		LocalDateTime after = from.plusHours(3);
+		assertNoSequentialScan(() -> trainRepository.findDeparturesFromCityBetween("Город 10", from, to, after, 1000, 51),
+				List.of("Город 10", after, 1000, to, from, 51));
+	}
+
+	@Test
+	void routePageAfterCursor() {
+		TrainSearchCriteria route = TrainSearchCriteria.route("Город 10", "Город 71", BASE_DATE.plusDays(10));
+		// Параметры: фильтры в порядке matching, затем курсор и лимит
+		List<Object> parameters = new ArrayList<>(parameterValues(route));
+		parameters.add(1000);
+		parameters.add(51);
+		assertNoSequentialScan(() -> trainRepository.findBy(
+						TrainSpecifications.matching(route).and(TrainSpecifications.idAfter(1000)),
+						query -> query.sortBy(Sort.by("id")).limit(51).all()),
+				parameters);
+	}
+
+	private void assertNoSequentialScan(TrainSearchCriteria criteria) {
+		assertNoSequentialScan(() -> trainRepository.findAll(TrainSpecifications.matching(criteria),
+				Sort.by("departureTime")), parameterValues(criteria));
+	}
+
+	private void assertNoSequentialScan(Runnable query, List<Object> parameters) {
+		CapturingStatementInspector.STATEMENTS.clear();
+		query.run();
+
+		String sql = CapturingStatementInspector.STATEMENTS.stream()
+				.filter(statement -> statement.toLowerCase().contains("from trains"))
+				.reduce((first, second) -> second)
+				.orElseThrow();
+
+		// Параметры JDBC (?) превращаются в параметры подготовленного запроса ($1, $2, ...)
+		StringBuilder prepared = new StringBuilder();
+		int parameter = 0;
+		for (char c : sql.toCharArray()) {
+			if (c == '?') {
+				prepared.append('$').append(++parameter);
+			} else {
+				prepared.append(c);
+			}
+		}
+		jdbc.execute("PREPARE plan_check AS " + prepared);
+		try {
+			String arguments = parameters.stream()
+					.map(value -> "'" + value + "'")
+					.collect(Collectors.joining(", "));
+			List<String> plan = jdbc.queryForList("EXPLAIN EXECUTE plan_check(" + arguments + ")", String.class);
+			assertThat(plan).as(String.join("\n", plan)).noneMatch(line -> line.contains("Seq Scan on trains"));
+		} finally {
+			jdbc.execute("DEALLOCATE plan_check");
+		}
+	}
+
+	/**
+	 * Значения параметров в том порядке, в котором их добавляет {@link TrainSpecifications#matching}.
+	 */
+	private static List<Object> parameterValues(TrainSearchCriteria criteria) {
+		List<Object> values = new ArrayList<>();
+		addIfPresent(values, criteria.fromCity());
+		addIfPresent(values, criteria.toCity());
+		addIfPresent(values, criteria.departureStation());
+		addIfPresent(values, criteria.arrivalStation());
+		if (criteria.departureDateFrom() != null && criteria.departureDateFrom().equals(criteria.departureDateTo())) {
+			values.add(criteria.departureDateFrom());
+		} else {
+			addIfPresent(values, criteria.departureDateFrom());
+			addIfPresent(values, criteria.departureDateTo());
+		}
+		addIfPresent(values, criteria.departureTimeFrom());
+		addIfPresent(values, criteria.departureTimeTo());
+		return values;
+	}
+
+	private static void addIfPresent(List<Object> values, Object value) {
+		if (value != null) {
+			values.add(value);
+		}
+	}
+
+	private static TrainSearchCriteria criteria(String fromCity, String toCity,
+												String departureStation, String arrivalStation,
+												LocalDate dateFrom, LocalDate dateTo,
+												LocalTime timeFrom, LocalTime timeTo) {
+		return new TrainSearchCriteria(fromCity, toCity, departureStation, arrivalStation,
+				dateFrom, dateTo, timeFrom, timeTo);
+	}
+
+	/**
+	 * Запоминает SQL, который Hibernate отправляет в базу.
+	 */
+	public static class CapturingStatementInspector implements StatementInspector {
+		static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.TrainChanges;
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Проверяет журнал изменений для дельта-синхронизации: записи об удалении, их очистку
+ * и согласованность порции при изменениях, зафиксированных во время чтения.
+ * Срок хранения записей об удалении равен нулю, чтобы очистка удаляла их сразу.
+ */
+@SpringBootTest(properties = {
+		"railway.sync.tombstone-retention-days=0",
+		"spring.jpa.properties.hibernate.session_factory.statement_inspector="
+				+ "com.railway.RailwayStation3.service.TrainChangeLogTests$TombstoneQueryHook"})
+class TrainChangeLogTests {
+
+	@Autowired
+	private TrainChangeLog trainChangeLog;
+
+	@Autowired
+	private TrainService trainService;
+
+	@Autowired
+	private TrainRepository trainRepository;
+
+	@Autowired
+	private JdbcTemplate jdbc;
+
+	private final List<Long> created = new ArrayList<>();
+
+	@BeforeEach
+	void resetHook() {
+		TombstoneQueryHook.BEFORE_QUERY.set(null);
+	}
+
+	@AfterEach
+	void cleanUp() {
+		TombstoneQueryHook.BEFORE_QUERY.set(null);
+		created.forEach(id -> trainRepository.findById(id).ifPresent(trainRepository::delete));
+	}
+
+	@Test
+	void deletionIsReturnedAsTombstone() {
+		Train train = create();
+		long since = lastChangeSeq();
+		trainService.deleteTrain(train.getId());
+
+		TrainChanges changes = trainChangeLog.changesSince(since, 100);
+		assertThat(changes.deleted()).containsExactly(train.getId());
+		assertThat(changes.updated()).isEmpty();
+		assertThat(changes.nextSince()).isEqualTo(lastChangeSeq());
+
+		// При первой синхронизации удалять нечего
+		assertThat(trainChangeLog.changesSince(0, TrainChangeLog.MAX_LIMIT).deleted()).isEmpty();
+	}
+
+	@Test
+	void changesCommittedBetweenQueriesAreNotSkipped() {
+		Train updatedLater = create();
+		Train deletedLater = create();
+		long since = lastChangeSeq();
+
+		// Обновление и удаление фиксируются другой транзакцией после чтения поездов,
+		// но до чтения записей об удалении
+		TombstoneQueryHook.BEFORE_QUERY.set(() -> CompletableFuture.runAsync(() -> {
+			Train changed = new Train(updatedLater);
+			changed.setDepartureTime(LocalTime.of(13, 15));
+			trainService.updateTrain(changed);
+			trainService.deleteTrain(deletedLater.getId());
+		}).join());
+
+		TrainChanges first = trainChangeLog.changesSince(since, 100);
+		TrainChanges second = trainChangeLog.changesSince(first.nextSince(), 100);
+
+		// Клиент, продолживший с nextSince, получает оба изменения — в первой порции или во второй
+		List<Long> updated = new ArrayList<>();
+		List<Long> deleted = new ArrayList<>();
+		for (TrainChanges changes : List.of(first, second)) {
+			changes.updated().forEach(train -> updated.add(train.getId()));
+			deleted.addAll(changes.deleted());
+		}
+		assertThat(updated).contains(updatedLater.getId());
+		assertThat(deleted).contains(deletedLater.getId());
+	}
+
+	@Test
+	void compactedChangesAreExpired() {
+		Train train = create();
+		long since = lastChangeSeq();
+		trainService.deleteTrain(train.getId());
+
+		trainChangeLog.compact();
+
+		assertThatThrownBy(() -> trainChangeLog.changesSince(since, 100))
+				.isInstanceOf(TrainChangeLog.ChangesExpiredException.class);
+		assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM train_tombstones WHERE train_id = ?",
+				Long.class, train.getId())).isZero();
+	}
+
+	private long lastChangeSeq() {
+		return jdbc.queryForObject("SELECT last_change_seq FROM sync_state", Long.class);
+	}
+
+	private Train create() {
+		LocalDate date = LocalDate.now().plusDays(30);
+		Train train = new Train();
+		train.setNumber("S" + ThreadLocalRandom.current().nextInt(10_000_000));
+		train.setFromCity("Москва");
+		train.setToCity("Казань");
+		train.setDepartureStation("Казанский");
+		train.setArrivalStation("Главный");
+		train.setDepartureDate(date);
+		train.setDepartureTime(LocalTime.of(8, 0));
+		train.setArrivalDate(date);
+		train.setArrivalTime(LocalTime.of(20, 0));
+		Train saved = trainService.createTrain(train);
+		created.add(saved.getId());
+		return saved;
+	}
+
+	/**
+	 * Выполняет заданное действие один раз перед запросом записей об удалении.
+	 */
+	public static class TombstoneQueryHook implements StatementInspector {
+		private static final long serialVersionUID = 1L;
+
+		static final AtomicReference<Runnable> BEFORE_QUERY = new AtomicReference<>();
+
+		@Override
+		public String inspect(String sql) {
+			if (sql.toLowerCase().contains("from train_tombstones")) {
+				Runnable action = BEFORE_QUERY.getAndSet(null);
+				if (action != null) {
+					action.run();
+				}
+			}
+			return sql;
+		}
+	}
+}
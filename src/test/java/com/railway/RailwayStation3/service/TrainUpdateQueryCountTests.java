@@ -0,0 +1,150 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.model.Train;
+import com.railway.RailwayStation3.repository.TrainRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class TrainUpdateQueryCountTests {
+
+	private static final int THREADS = 8;
+
+	@Autowired
+	private TrainService trainService;
+
+	@Autowired
+	private TrainRepository trainRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Train train;
+
+	@BeforeEach
+	void createTrain() {
+		train = trainService.createTrain(newTrain());
+	}
+
+	@AfterEach
+	void cleanUp() {
+		trainRepository.deleteById(train.getId());
+	}
+
+	@Test
+	void updateIsSingleStatement() {
+		Train changed = new Train(train);
+		changed.setDepartureTime(LocalTime.of(11, 30));
+
+		Statistics statistics = statistics();
+		statistics.clear();
+		Train updated = trainService.updateTrain(changed);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(updated.getVersion()).isEqualTo(train.getVersion() + 1);
+		assertThat(trainRepository.findById(train.getId()).orElseThrow().getDepartureTime())
+				.isEqualTo(LocalTime.of(11, 30));
+	}
+
+	@Test
+	void partialUpdateIsOneSelectAndOneUpdate() {
+		Statistics statistics = statistics();
+		statistics.clear();
+		trainService.partialUpdate(train.getId(), Map.of("departureTime", "12:45"), train.getVersion());
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+		assertThat(statistics.getEntityUpdateCount()).isZero();
+	}
+
+	@Test
+	void staleVersionIsRejected() {
+		Train first = new Train(train);
+		first.setDepartureTime(LocalTime.of(9, 0));
+		trainService.updateTrain(first);
+
+		Train stale = new Train(train);
+		stale.setDepartureTime(LocalTime.of(22, 0));
+		assertThatThrownBy(() -> trainService.updateTrain(stale))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+		assertThatThrownBy(() -> trainService.partialUpdate(train.getId(), Map.of("departureTime", "22:00"),
+				train.getVersion()))
+				.isInstanceOf(OptimisticLockingFailureException.class);
+
+		assertThat(trainRepository.findById(train.getId()).orElseThrow().getDepartureTime())
+				.isEqualTo(LocalTime.of(9, 0));
+	}
+
+	@Test
+	void concurrentUpdatesOfSameVersionLetOneWin() throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<Boolean>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				Train changed = new Train(train);
+				changed.setDepartureTime(LocalTime.of(10, i));
+				results.add(pool.submit(() -> {
+					start.await();
+					try {
+						trainService.updateTrain(changed);
+						return true;
+					} catch (OptimisticLockingFailureException e) {
+						return false;
+					}
+				}));
+			}
+			start.countDown();
+
+			List<Boolean> outcomes = new ArrayList<>();
+			for (Future<Boolean> result : results) {
+				outcomes.add(result.get());
+			}
+			assertThat(outcomes).filteredOn(Boolean::booleanValue).hasSize(1);
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(trainRepository.findById(train.getId()).orElseThrow().getVersion())
+				.isEqualTo(train.getVersion() + 1);
+	}
+
+	private Statistics statistics() {
+		return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	private static Train newTrain() {
+		LocalDate date = LocalDate.now().plusDays(30);
+		Train train = new Train();
+		train.setNumber("V" + ThreadLocalRandom.current().nextInt(10_000_000));
+		train.setFromCity("Москва");
+		train.setToCity("Казань");
+		train.setDepartureStation("Казанский");
+		train.setArrivalStation("Главный");
+		train.setDepartureDate(date);
+		train.setDepartureTime(LocalTime.of(8, 0));
+		train.setArrivalDate(date);
+		train.setArrivalTime(LocalTime.of(20, 0));
+		return train;
+	}
+}
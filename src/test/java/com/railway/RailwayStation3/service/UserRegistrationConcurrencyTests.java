@@ -0,0 +1,120 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class UserRegistrationConcurrencyTests {
+
+	private static final int THREADS = 16;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private final List<String> createdUsernames = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		createdUsernames.forEach(username ->
+				userRepository.findByUsername(username).ifPresent(userRepository::delete));
+	}
+
+	@Test
+	void registrationIsSingleInsert() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		userService.registerUser(newUser(uniqueSuffix()));
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void concurrentRegistrationsOfSameLoginCreateOneUser() throws Exception {
+		String suffix = uniqueSuffix();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		List<Future<String>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < THREADS; i++) {
+				results.add(pool.submit(() -> {
+					start.await();
+					try {
+						userService.registerUser(newUser(suffix));
+						return "ok";
+					} catch (IllegalArgumentException e) {
+						return e.getMessage();
+					}
+				}));
+			}
+			start.countDown();
+
+			List<String> outcomes = new ArrayList<>();
+			for (Future<String> result : results) {
+				outcomes.add(result.get());
+			}
+			assertThat(outcomes).filteredOn("ok"::equals).hasSize(1);
+			assertThat(outcomes).filteredOn(outcome -> !"ok".equals(outcome))
+					.hasSize(THREADS - 1)
+					.allMatch(message -> message.equals("Логин уже занят")
+							|| message.equals("Email уже используется")
+							|| message.equals("Телефон уже используется"));
+		} finally {
+			pool.shutdownNow();
+		}
+
+		assertThat(userRepository.findAll()).filteredOn(user -> user.getUsername().equals("st" + suffix)).hasSize(1);
+	}
+
+	@Test
+	void duplicateEmailIsReportedByConstraint() {
+		String suffix = uniqueSuffix();
+		userService.registerUser(newUser(suffix));
+
+		User duplicate = newUser(uniqueSuffix());
+		duplicate.setEmail("st" + suffix + "@railway.com");
+
+		assertThatThrownBy(() -> userService.registerUser(duplicate))
+				.isInstanceOf(IllegalArgumentException.class)
+				.hasMessage("Email уже используется");
+	}
+
+	private String uniqueSuffix() {
+		String suffix = String.format("%09d", ThreadLocalRandom.current().nextInt(1_000_000_000));
+		createdUsernames.add("st" + suffix);
+		return suffix;
+	}
+
+	private static User newUser(String suffix) {
+		User user = new User();
+		user.setUsername("st" + suffix);
+		user.setEmail("st" + suffix + "@railway.com");
+		user.setPhone("8" + suffix);
+		user.setPassword("secret");
+		return user;
+	}
+}
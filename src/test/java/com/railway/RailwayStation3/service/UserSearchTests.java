@@ -0,0 +1,84 @@
+package com.railway.RailwayStation3.service;
+
+import com.railway.RailwayStation3.dto.UserPage;
+import com.railway.RailwayStation3.dto.UserSummary;
+import com.railway.RailwayStation3.model.User;
+import com.railway.RailwayStation3.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет поиск пользователей по началу поля в панели администратора на префиксах, последний символ
+ * которых при языковом правиле сравнения базы (en_US, ru_RU) сортируется не по коду: цифра 9 и точка.
+ */
+@SpringBootTest
+class UserSearchTests {
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	private final List<String> createdUsernames = new ArrayList<>();
+
+	@AfterEach
+	void cleanUp() {
+		createdUsernames.forEach(username ->
+				userRepository.findByUsername(username).ifPresent(userRepository::delete));
+	}
+
+	@Test
+	void phonePrefixEndingInNineIsPagedInCodeOrder() {
+		String suffix = uniqueSuffix();
+		String prefix = "7" + suffix.substring(3) + "9";
+		register("sa" + suffix, "sa" + suffix + "@railway.com", prefix + "99");
+		register("sb" + suffix, "sb" + suffix + "@railway.com", prefix + "00");
+		register("sc" + suffix, "sc" + suffix + "@railway.com", prefix + "55");
+		register("sd" + suffix, "sd" + suffix + "@railway.com", "7" + suffix.substring(3) + "899");
+
+		UserPage first = userService.findUserPage(prefix, "phone", null, 2);
+		assertThat(first.items()).extracting(UserSummary::phone).containsExactly(prefix + "00", prefix + "55");
+		assertThat(first.nextCursor()).isNotNull();
+
+		UserPage second = userService.findUserPage(prefix, "phone", first.nextCursor(), 2);
+		assertThat(second.items()).extracting(UserSummary::phone).containsExactly(prefix + "99");
+		assertThat(second.nextCursor()).isNull();
+	}
+
+	@Test
+	void emailPrefixEndingInDotFindsMatchingUsers() {
+		String suffix = uniqueSuffix();
+		register("se" + suffix, "se" + suffix + ".a@railway.com", "6" + suffix);
+		register("sf" + suffix, "se" + suffix + ".b@railway.com", "5" + suffix);
+		register("sg" + suffix, "se" + suffix + "a@railway.com", "4" + suffix);
+
+		UserPage page = userService.findUserPage("se" + suffix + ".", "email", null, 10);
+
+		assertThat(page.items()).extracting(UserSummary::email)
+				.containsExactly("se" + suffix + ".a@railway.com", "se" + suffix + ".b@railway.com");
+		assertThat(page.nextCursor()).isNull();
+	}
+
+	private String uniqueSuffix() {
+		return String.format("%09d", ThreadLocalRandom.current().nextInt(1_000_000_000));
+	}
+
+	private void register(String username, String email, String phone) {
+		User user = new User();
+		user.setUsername(username);
+		user.setEmail(email);
+		user.setPhone(phone);
+		user.setPassword("secret");
+		createdUsernames.add(username);
+		userService.registerUser(user);
+	}
+}